@@ -0,0 +1,97 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.BeanModelDescriptor;
+import com.github.braisdom.objsql.Databases;
+import com.github.braisdom.objsql.Persistence;
+import com.github.braisdom.objsql.example.SQLFile;
+import com.github.braisdom.objsql.example.domains.Member;
+import com.github.braisdom.objsql.example.domains.Order;
+import com.github.braisdom.objsql.util.WordUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The SQLite database of benchmarks, which is created in a temporary file with
+ * the schema of SQLite example, so that the domain models of example can be reused.
+ */
+public final class BenchmarkDatabase {
+
+    private static final String SCHEMA_FILE = "/sqlite.sql";
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    // Holds the logger, or the level will be lost when it is collected
+    private static final Logger LOGGER = Logger.getLogger("com.github.braisdom.objsql");
+
+    private final File databaseFile;
+
+    private BenchmarkDatabase(File databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    public static BenchmarkDatabase create() throws SQLException, IOException {
+        // The statements are logged at INFO, which would be measured otherwise
+        LOGGER.setLevel(Level.WARNING);
+
+        File databaseFile = File.createTempFile("objsql-benchmark", ".db");
+        databaseFile.deleteOnExit();
+
+        Databases.installConnectionFactory(dataSourceName ->
+                DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath()));
+        for (String sql : new SQLFile(SCHEMA_FILE).getSqls()) {
+            if (!WordUtil.isEmpty(sql))
+                Databases.execute(sql);
+        }
+        return new BenchmarkDatabase(databaseFile);
+    }
+
+    public void drop() {
+        databaseFile.delete();
+    }
+
+    public void insertMembers(int count) throws SQLException {
+        createPersistence(Member.class).insert(newMembers(count), INSERT_CHUNK_SIZE, true);
+    }
+
+    public void insertOrders(int memberCount, int ordersPerMember) throws SQLException {
+        Order[] orders = new Order[memberCount * ordersPerMember];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order()
+                    .setNo("O" + i)
+                    .setMemberId(i / ordersPerMember + 1)
+                    .setAmount(i % 100 + 0.5D)
+                    .setQuantity(i % 10 + 1D)
+                    .setSalesAt(Timestamp.valueOf("2020-05-01 09:30:00"));
+        }
+        createPersistence(Order.class).insert(orders, INSERT_CHUNK_SIZE, true);
+    }
+
+    /**
+     * Returns the persistence which ignores the primary key on inserting, so
+     * that the objects can be inserted repeatedly.
+     */
+    public static <T> Persistence<T> createPersistence(Class<T> domainModelClass) {
+        return Databases.getPersistenceFactory()
+                .createPersistence(new BeanModelDescriptor<>(domainModelClass, true));
+    }
+
+    public static Member[] newMembers(int count) {
+        Member[] members = new Member[count];
+        for (int i = 0; i < count; i++)
+            members[i] = newMember(i);
+        return members;
+    }
+
+    public static Member newMember(int index) {
+        return new Member()
+                .setNo("M" + (100000 + index))
+                .setName("Member" + index)
+                .setGender(index % 2)
+                .setMobile("1500000" + index);
+    }
+}
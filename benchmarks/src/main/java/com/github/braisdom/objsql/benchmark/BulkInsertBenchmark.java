@@ -0,0 +1,55 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.Persistence;
+import com.github.braisdom.objsql.example.domains.Member;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks inserting the domain objects in JDBC batch and in multi-row statements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rowCount;
+
+    private BenchmarkDatabase database;
+    private Persistence<Member> persistence;
+    private Member[] members;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        database = BenchmarkDatabase.create();
+        persistence = BenchmarkDatabase.createPersistence(Member.class);
+        members = BenchmarkDatabase.newMembers(rowCount);
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() throws SQLException {
+        Member.destroy("1 = 1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.drop();
+    }
+
+    @Benchmark
+    public int[] batchInsert() throws SQLException {
+        return persistence.insert(members, true);
+    }
+
+    @Benchmark
+    public int[] multiRowInsert() throws SQLException {
+        return persistence.insert(members, 1000, true);
+    }
+}
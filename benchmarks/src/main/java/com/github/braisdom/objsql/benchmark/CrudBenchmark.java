@@ -0,0 +1,64 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.example.domains.Member;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the single-row operations of a domain model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrudBenchmark {
+
+    private static final int MEMBER_COUNT = 1000;
+
+    private BenchmarkDatabase database;
+    private Member member;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        database = BenchmarkDatabase.create();
+        database.insertMembers(MEMBER_COUNT);
+        member = BenchmarkDatabase.newMember(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.drop();
+    }
+
+    private Integer nextId() {
+        nextId = nextId % MEMBER_COUNT + 1;
+        return nextId;
+    }
+
+    @Benchmark
+    public Member insert() throws SQLException {
+        return Member.create(BenchmarkDatabase.newMember(nextId()), true, true);
+    }
+
+    @Benchmark
+    public Member queryByPrimaryKey() throws SQLException {
+        return Member.queryByPrimaryKey(nextId());
+    }
+
+    @Benchmark
+    public Member update() throws SQLException {
+        return Member.update(nextId(), member, true);
+    }
+
+    @Benchmark
+    public int insertAndDestroy() throws SQLException {
+        Member newMember = Member.create(BenchmarkDatabase.newMember(0), true, true);
+        return Member.destroy(newMember.getId());
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.Query;
+import com.github.braisdom.objsql.example.domains.Member;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks mapping the rows into domain objects, which covers the reading of
+ * <code>ResultSet</code>, the column transitions and the writing of fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class HydrationBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rowCount;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        database = BenchmarkDatabase.create();
+        database.insertMembers(rowCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.drop();
+    }
+
+    @Benchmark
+    public List<Member> queryAll() throws SQLException {
+        return Member.queryAll();
+    }
+
+    @Benchmark
+    public long stream() throws SQLException {
+        Query<Member> query = Member.createQuery();
+        query.fetchSize(1000);
+        try (Stream<Member> members = query.stream()) {
+            return members.count();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.example.domains.Member;
+import com.github.braisdom.objsql.reflection.PropertyUtils;
+import com.github.braisdom.objsql.util.WordUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the accessing of fields and the conversion of names, which are
+ * invoked for every column of every row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectionBenchmark {
+
+    private Member member;
+
+    @Setup
+    public void setup() {
+        member = BenchmarkDatabase.newMember(0);
+    }
+
+    @Benchmark
+    public Object read() {
+        return PropertyUtils.read(member, "name");
+    }
+
+    @Benchmark
+    public Member write() {
+        PropertyUtils.write(member, "name", "Member");
+        return member;
+    }
+
+    @Benchmark
+    public String underscore() {
+        return WordUtil.underscore("extendedAttributes");
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.example.domains.Member;
+import com.github.braisdom.objsql.example.domains.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading the related objects and stitching them to the base objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RelationBenchmark {
+
+    private static final int ORDERS_PER_MEMBER = 10;
+
+    @Param({"1000", "10000"})
+    private int memberCount;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        database = BenchmarkDatabase.create();
+        database.insertMembers(memberCount);
+        database.insertOrders(memberCount, ORDERS_PER_MEMBER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.drop();
+    }
+
+    @Benchmark
+    public List<Member> hasMany() throws SQLException {
+        return Member.queryAll(Member.HAS_MANY_ORDERS);
+    }
+
+    @Benchmark
+    public List<Order> belongsTo() throws SQLException {
+        return Order.queryAll(Order.BELONGS_TO_MEMBER);
+    }
+}
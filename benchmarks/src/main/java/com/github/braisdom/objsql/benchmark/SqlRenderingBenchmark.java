@@ -0,0 +1,51 @@
+package com.github.braisdom.objsql.benchmark;
+
+import com.github.braisdom.objsql.DatabaseType;
+import com.github.braisdom.objsql.example.domains.Member;
+import com.github.braisdom.objsql.example.domains.Order;
+import com.github.braisdom.objsql.sql.DefaultExpressionContext;
+import com.github.braisdom.objsql.sql.SQLSyntaxException;
+import com.github.braisdom.objsql.sql.Select;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.braisdom.objsql.sql.function.Ansi.sum;
+
+/**
+ * Benchmarks rendering the SQL of DSL, with the literals inlined and bound as parameters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlRenderingBenchmark {
+
+    private Select<Member> select;
+
+    @Setup
+    public void setup() {
+        Member.Table member = Member.asTable();
+        Order.Table order = Order.asTable();
+
+        select = new Select<>(member);
+        select.project(member.id, member.name, sum(order.amount).as("total_amount"))
+                .leftOuterJoin(order, order.memberId.eq(member.id))
+                .where(member.gender.eq(0).and(member.name.in("Joe", "Jack", "Ralph")))
+                .groupBy(member.id, member.name)
+                .orderBy(member.name.asc())
+                .limit(20);
+    }
+
+    @Benchmark
+    public String inline() throws SQLSyntaxException {
+        return select.toSql(new DefaultExpressionContext(DatabaseType.SQLite));
+    }
+
+    @Benchmark
+    public String parameterized() throws SQLSyntaxException {
+        return select.toSql(new DefaultExpressionContext(DatabaseType.SQLite, true));
+    }
+}
@@ -16,9 +16,17 @@
  */
 package com.github.braisdom.objsql;
 
+import com.github.braisdom.objsql.annotations.PrimaryKey;
+import com.github.braisdom.objsql.transition.ColumnTransition;
+
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The class provides abstracted method of SQL construction.
@@ -31,6 +39,11 @@ public abstract class AbstractPersistence<T> implements Persistence<T> {
     private static final String UPDATE_STATEMENT = "UPDATE %s SET %s WHERE %s";
     private static final String DELETE_STATEMENT = "DELETE FROM %s WHERE %s";
 
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+    private static final int MAX_CACHED_MULTI_ROW_SQL = 16;
+
+    private static final Map<TemplateKey, SQLTemplate> sqlTemplates = new ConcurrentHashMap<>();
+
     protected final DomainModelDescriptor domainModelDescriptor;
 
     public AbstractPersistence(Class<T> domainClass) {
@@ -43,7 +56,225 @@ public abstract class AbstractPersistence<T> implements Persistence<T> {
         this.domainModelDescriptor = domainModelDescriptor;
     }
 
+    @Override
+    public CompletableFuture<T> insertAsync(T dirtyObject, boolean skipValidation) {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        return Databases.supplyAsync(dataSourceName, () -> insert(dirtyObject, skipValidation));
+    }
+
+    @Override
+    public CompletableFuture<T> updateAsync(Object id, T dirtyObject, boolean skipValidation) {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        return Databases.supplyAsync(dataSourceName, () -> update(id, dirtyObject, skipValidation));
+    }
+
+    /**
+     * The quoted SQL of a domain model in a database, which is built once only,
+     * the statements operated by primary key are bound with parameters.
+     */
+    protected static final class SQLTemplate {
+
+        private final String tableName;
+        private final String[] insertableColumns;
+        private final String[] quotedInsertableColumns;
+        private final String insertValues;
+        private final String insertSql;
+        private final Map<Integer, String> multiRowInsertSqls = new ConcurrentHashMap<>();
+        private final String[] updatableColumns;
+        private final String[] quotedUpdatableColumns;
+        private final String primaryPredicate;
+        private final String updateSql;
+        private final String deleteSql;
+        private final Map<String, ColumnTransition.SinkingConverter> sinkingConverters;
+
+        private SQLTemplate(AbstractPersistence<?> persistence, Quoter quoter, String databaseName) {
+            DomainModelDescriptor domainModelDescriptor = persistence.domainModelDescriptor;
+            PrimaryKey primaryKey = domainModelDescriptor.getPrimaryKey();
+
+            this.tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
+            this.insertableColumns = domainModelDescriptor.getInsertableColumns();
+            this.quotedInsertableColumns = quoter.quoteColumnNames(databaseName, insertableColumns);
+            this.insertValues = persistence.formatInsertValues(insertableColumns);
+            this.insertSql = persistence.formatInsertSql(tableName, quotedInsertableColumns, insertValues);
+            this.updatableColumns = domainModelDescriptor.getUpdatableColumns();
+            this.quotedUpdatableColumns = quoter.quoteColumnNames(databaseName, updatableColumns);
+
+            if (primaryKey == null) {
+                this.primaryPredicate = null;
+                this.updateSql = null;
+                this.deleteSql = null;
+            } else {
+                this.primaryPredicate = String.format("%s = ?",
+                        quoter.quoteColumnName(databaseName, primaryKey.name()));
+                this.updateSql = updatableColumns.length == 0 ? null : persistence.formatUpdateSql(tableName,
+                        formatUpdates(quotedUpdatableColumns, null), primaryPredicate);
+                this.deleteSql = persistence.formatDeleteSql(tableName, primaryPredicate);
+            }
+
+            this.sinkingConverters = new HashMap<>();
+            DatabaseType databaseType = DatabaseType.of(databaseName);
+            for (String[] columnNames : new String[][]{insertableColumns, updatableColumns}) {
+                for (String columnName : columnNames) {
+                    String fieldName = domainModelDescriptor.getFieldName(columnName);
+                    ColumnTransition columnTransition = fieldName == null ? null
+                            : domainModelDescriptor.getColumnTransition(fieldName);
+                    ColumnTransition.SinkingConverter sinkingConverter = columnTransition == null ? null
+                            : columnTransition.prepareSinking(databaseType);
+                    if (sinkingConverter != null)
+                        sinkingConverters.put(columnName, sinkingConverter);
+                }
+            }
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public String[] getInsertableColumns() {
+            return insertableColumns;
+        }
+
+        public String getInsertSql() {
+            return insertSql;
+        }
+
+        public String[] getUpdatableColumns() {
+            return updatableColumns;
+        }
+
+        public String[] getQuotedUpdatableColumns() {
+            return quotedUpdatableColumns;
+        }
+
+        public String getPrimaryPredicate() {
+            return primaryPredicate;
+        }
+
+        /**
+         * Returns the "UPDATE ... WHERE primary_key = ?" for all updatable columns.
+         */
+        public String getUpdateSql() {
+            return updateSql;
+        }
+
+        /**
+         * Returns the "DELETE ... WHERE primary_key = ?".
+         */
+        public String getDeleteSql() {
+            return deleteSql;
+        }
+
+        /**
+         * Returns the converter prepared by the transition of column for the database,
+         * or null if the column has no transition or the transition is not prepared.
+         */
+        public ColumnTransition.SinkingConverter getSinkingConverter(String columnName) {
+            return sinkingConverters.get(columnName);
+        }
+    }
+
+    private static final class TemplateKey {
+
+        private final Class persistenceClass;
+        private final Class domainModelClass;
+        private final String databaseName;
+        private final String[] insertableColumns;
+        private final int hashCode;
+
+        TemplateKey(Class persistenceClass, Class domainModelClass, String databaseName, String[] insertableColumns) {
+            this.persistenceClass = persistenceClass;
+            this.domainModelClass = domainModelClass;
+            this.databaseName = databaseName;
+            this.insertableColumns = insertableColumns;
+            this.hashCode = Objects.hash(persistenceClass, domainModelClass, databaseName)
+                    * 31 + Arrays.hashCode(insertableColumns);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TemplateKey)) return false;
+            TemplateKey key = (TemplateKey) o;
+            return persistenceClass.equals(key.persistenceClass)
+                    && domainModelClass.equals(key.domainModelClass)
+                    && Objects.equals(databaseName, key.databaseName)
+                    && Arrays.equals(insertableColumns, key.insertableColumns);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Returns the quoted SQL of the domain model in given database. The templates of
+     * <code>BeanModelDescriptor</code> are cached by the domain model class and the database,
+     * the others will be built at each time because they may be described by their own state.
+     */
+    protected SQLTemplate getSQLTemplate(String databaseName) {
+        Quoter quoter = Databases.getQuoter();
+        if (!BeanModelDescriptor.class.equals(domainModelDescriptor.getClass()))
+            return new SQLTemplate(this, quoter, databaseName);
+
+        TemplateKey key = new TemplateKey(getClass(), domainModelDescriptor.getDomainModelClass(),
+                databaseName, domainModelDescriptor.getInsertableColumns());
+        SQLTemplate sqlTemplate = sqlTemplates.get(key);
+        if (sqlTemplate == null) {
+            if (sqlTemplates.size() >= MAX_CACHED_TEMPLATES)
+                sqlTemplates.clear();
+            sqlTemplate = new SQLTemplate(this, quoter, databaseName);
+            sqlTemplates.putIfAbsent(key, sqlTemplate);
+        }
+        return sqlTemplate;
+    }
+
+    /**
+     * Discards the cached templates, it is required when the quoter changed.
+     */
+    static void clearSQLTemplates() {
+        sqlTemplates.clear();
+    }
+
+    /**
+     * Joins the quoted columns as "column=?,...", only the columns whose index are
+     * included in <code>columnIndexes</code>, or all columns if it is null.
+     */
+    protected static String formatUpdates(String[] quotedColumnNames, int[] columnIndexes) {
+        StringBuilder updates = new StringBuilder();
+        int count = columnIndexes == null ? quotedColumnNames.length : columnIndexes.length;
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                updates.append(',');
+            updates.append(quotedColumnNames[columnIndexes == null ? i : columnIndexes[i]]).append("=?");
+        }
+        return updates.toString();
+    }
+
+    /**
+     * Returns the INSERT with the values of multiple rows, such as
+     * "INSERT INTO t (a,b) VALUES (?,?),(?,?)", the statements of a few row counts
+     * will be cached in the template.
+     */
+    protected String formatInsertSql(SQLTemplate sqlTemplate, int rowCount) {
+        if (rowCount == 1)
+            return sqlTemplate.insertSql;
+
+        String sql = sqlTemplate.multiRowInsertSqls.get(rowCount);
+        if (sql == null) {
+            sql = formatInsertSql(sqlTemplate.tableName, sqlTemplate.quotedInsertableColumns,
+                    String.join("),(", Collections.nCopies(rowCount, sqlTemplate.insertValues)));
+            if (sqlTemplate.multiRowInsertSqls.size() < MAX_CACHED_MULTI_ROW_SQL)
+                sqlTemplate.multiRowInsertSqls.putIfAbsent(rowCount, sql);
+        }
+        return sql;
+    }
+
     protected String formatInsertSql(String tableName, String[] columnNames, String[] quotedColumnNames) {
+        return formatInsertSql(tableName, quotedColumnNames, formatInsertValues(columnNames));
+    }
+
+    protected String formatInsertValues(String[] columnNames) {
         String[] valuesPlaceHolder = Arrays.stream(columnNames)
                 .map(columnName -> {
                     String fieldName = domainModelDescriptor.getFieldName(columnName);
@@ -52,7 +283,7 @@ public abstract class AbstractPersistence<T> implements Persistence<T> {
                         return invariableValue.get();
                     else return "?";
                 }).toArray(String[]::new);
-        return formatInsertSql(tableName, quotedColumnNames, String.join(",", valuesPlaceHolder));
+        return String.join(",", valuesPlaceHolder);
     }
 
     protected String formatInsertSql(String tableName, String[] columnNames, String values) {
@@ -16,9 +16,15 @@
  */
 package com.github.braisdom.objsql;
 
+import com.github.braisdom.objsql.relation.Relationship;
+
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * The class provides the default implementations of structure of SQL
@@ -30,10 +36,13 @@ public abstract class AbstractQuery<T> implements Query<T> {
 
     protected int limit = -1;
     protected int offset = -1;
+    protected int fetchSize = -1;
+    protected int relationParallelism = 1;
 
     protected String projection;
     protected String filter;
     protected Object[] params;
+    protected Object[] seekValues;
     protected String orderBy;
     protected String groupBy;
     protected String having;
@@ -71,6 +80,12 @@ public abstract class AbstractQuery<T> implements Query<T> {
         return this;
     }
 
+    @Override
+    public Query seekAfter(Object... lastKeyValues) {
+        this.seekValues = lastKeyValues;
+        return this;
+    }
+
     @Override
     public Query groupBy(String groupBy) {
         this.groupBy = groupBy;
@@ -89,6 +104,34 @@ public abstract class AbstractQuery<T> implements Query<T> {
         return this;
     }
 
+    @Override
+    public Query fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    @Override
+    public void forEach(Consumer<T> consumer) throws SQLException {
+        Objects.requireNonNull(consumer, "The consumer cannot be null");
+        try (Stream<T> stream = stream()) {
+            stream.forEach(consumer);
+        }
+    }
+
+    @Override
+    public Query relationParallelism(int relationParallelism) {
+        if (relationParallelism < 1)
+            throw new IllegalArgumentException("The relationParallelism must be greater than 0");
+        this.relationParallelism = relationParallelism;
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<List<T>> executeAsync(Relationship... relationships) {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        return Databases.supplyAsync(dataSourceName, () -> execute(relationships));
+    }
+
     protected String getTableName(Class tableClass) {
         return Tables.getTableName(tableClass);
     }
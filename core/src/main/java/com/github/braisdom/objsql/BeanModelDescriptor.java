@@ -16,23 +16,19 @@
  */
 package com.github.braisdom.objsql;
 
-import com.github.braisdom.objsql.annotations.Column;
 import com.github.braisdom.objsql.annotations.DomainModel;
 import com.github.braisdom.objsql.annotations.PrimaryKey;
-import com.github.braisdom.objsql.annotations.Transient;
-import com.github.braisdom.objsql.reflection.ClassUtils;
 import com.github.braisdom.objsql.reflection.PropertyUtils;
+import com.github.braisdom.objsql.reflection.ReflectionException;
 import com.github.braisdom.objsql.transition.ColumnTransition;
-import com.github.braisdom.objsql.util.StringUtil;
-import com.github.braisdom.objsql.util.WordUtil;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.math.BigDecimal;
+import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.sql.JDBCType;
 import java.sql.SQLType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The default implementation for <code>DomainModelDescriptor</code> with JavaBean
@@ -41,21 +37,13 @@ import java.util.*;
  */
 public class BeanModelDescriptor<T> implements DomainModelDescriptor<T> {
 
-    private final static List<Class> COLUMNIZABLE_FIELD_TYPES = Arrays.asList(new Class[]{
-            String.class, char.class,
-            Long.class, long.class,
-            Integer.class, int.class,
-            Short.class, short.class,
-            Float.class, float.class,
-            Double.class, double.class,
-            BigInteger.class, BigDecimal.class
-    });
-
     private final Class<T> domainModelClass;
-    private final Map<String, ColumnTransition> columnTransitionMap;
-    private final Map<String, Field> columnToField;
+    private final ModelMetadata<T> modelMetadata;
+    private final DomainModelAccessor<T> accessor;
     private final boolean skipPrimaryKeyOnInserting;
-    private final boolean autoGeneratedPrimaryKey;
+    private final boolean columnHooksOverridden;
+
+    private static final Map<Class, Boolean> columnHooksOverriddenCache = new ConcurrentHashMap<>();
 
     private class DefaultFieldValue implements FieldValue {
 
@@ -104,30 +92,29 @@ public class BeanModelDescriptor<T> implements DomainModelDescriptor<T> {
     public BeanModelDescriptor(Class<T> domainModelClass, boolean skipPrimaryKeyOnInserting) {
         Objects.requireNonNull(domainModelClass, "The domainModelClass cannot be null");
 
-        if (Tables.getPrimaryKey(domainModelClass) == null)
+        ModelMetadata<T> modelMetadata = ModelMetadata.of(domainModelClass);
+        Objects.requireNonNull(modelMetadata.getDomainModel(), "The domainModelClass must have the DomainModel annotation");
+        if (modelMetadata.getPrimaryKey() == null)
             throw new DomainModelException(String.format("The %s has no primary key", domainModelClass.getSimpleName()));
 
-        DomainModel domainModel = domainModelClass.getAnnotation(DomainModel.class);
-
         this.domainModelClass = domainModelClass;
+        this.modelMetadata = modelMetadata;
+        this.accessor = modelMetadata.getAccessor();
         this.skipPrimaryKeyOnInserting = skipPrimaryKeyOnInserting;
-        this.columnTransitionMap = new HashMap<>();
-        this.columnToField = new HashMap<>();
-
-        this.autoGeneratedPrimaryKey = domainModel.autoGeneratedPrimaryKey();
-
-        prepareColumnToPropertyOverrides(domainModelClass);
-        instantiateColumnTransitionMap(domainModelClass.getDeclaredFields());
+        this.columnHooksOverridden = getClass() != BeanModelDescriptor.class
+                && columnHooksOverriddenCache.computeIfAbsent(getClass(), BeanModelDescriptor::overridesColumnHooks);
     }
 
     @Override
     public T newInstance() {
-        return ClassUtils.createNewInstance(domainModelClass);
+        if (accessor != null)
+            return accessor.newInstance();
+        return modelMetadata.newInstance();
     }
 
     @Override
     public void setGeneratedKey(T bean, Object primaryKeyValue) {
-        Field primaryField = Tables.getPrimaryField(domainModelClass);
+        Field primaryField = modelMetadata.getPrimaryField();
         if (primaryKeyValue instanceof BigInteger)
             primaryKeyValue = Long.valueOf(primaryKeyValue.toString());
         setFieldValue(bean, primaryField.getName(), primaryKeyValue);
@@ -145,224 +132,159 @@ public class BeanModelDescriptor<T> implements DomainModelDescriptor<T> {
 
     @Override
     public String[] getColumns() {
-        return Arrays.stream(getColumnizableFields(domainModelClass, true, true))
-                .map(field -> getColumnName(field)).toArray(String[]::new);
+        if (columnHooksOverridden)
+            return toColumnNames(getColumnizableFields(domainModelClass, true, true));
+        return modelMetadata.getColumns();
     }
 
     @Override
     public String getTableName() {
-        return Tables.getTableName(domainModelClass);
+        return modelMetadata.getTableName();
     }
 
     @Override
     public PrimaryKey getPrimaryKey() {
-        return Tables.getPrimaryKey(domainModelClass);
+        return modelMetadata.getPrimaryKey();
     }
 
     @Override
     public Object getPrimaryValue(Object domainObject) {
-        return PropertyUtils.read(domainObject, getPrimaryKey().name());
+        return readFieldValue(domainObject, getPrimaryKey().name());
     }
 
     @Override
     public boolean skipNullOnUpdate() {
-        return domainModelClass.getAnnotation(DomainModel.class).skipNullValueOnUpdating();
+        return modelMetadata.getDomainModel().skipNullValueOnUpdating();
     }
 
     @Override
     public String[] getInsertableColumns() {
-        return Arrays.stream(getColumnizableFields(domainModelClass, true, false))
-                .filter(field -> skipPrimaryKeyOnInserting ? field.getAnnotation(PrimaryKey.class) == null : true)
-                .filter(field -> autoGeneratedPrimaryKey ? field.getAnnotation(PrimaryKey.class) == null : true)
-                .map(field -> getColumnName(field)).toArray(String[]::new);
+        if (columnHooksOverridden) {
+            boolean skipPrimaryKey = skipPrimaryKeyOnInserting || modelMetadata.getDomainModel().autoGeneratedPrimaryKey();
+            return toColumnNames(Arrays.stream(getColumnizableFields(domainModelClass, true, false))
+                    .filter(field -> !skipPrimaryKey || field.getAnnotation(PrimaryKey.class) == null)
+                    .toArray(Field[]::new));
+        }
+        return modelMetadata.getInsertableColumns(skipPrimaryKeyOnInserting);
     }
 
     @Override
     public String[] getUpdatableColumns() {
-        return Arrays.stream(getColumnizableFields(domainModelClass, false, true))
-                .filter(field -> field.getAnnotation(PrimaryKey.class) == null)
-                .map(field -> getColumnName(field)).toArray(String[]::new);
+        if (columnHooksOverridden)
+            return toColumnNames(Arrays.stream(getColumnizableFields(domainModelClass, false, true))
+                    .filter(field -> field.getAnnotation(PrimaryKey.class) == null)
+                    .toArray(Field[]::new));
+        return modelMetadata.getUpdatableColumns();
     }
 
     @Override
     public String getFieldName(String fieldName) {
-        Field field = columnToField.get(fieldName);
+        Field field = modelMetadata.getFieldByColumn(fieldName);
         return field == null ? null : field.getName();
     }
 
     @Override
     public Optional<String> getFieldDefaultValue(String fieldName) {
-        try {
-            DomainModel domainModel = domainModelClass.getAnnotation(DomainModel.class);
-            Field field = domainModelClass.getDeclaredField(fieldName);
-
-            if(field.getName().equals(domainModel.primaryFieldName())
-                    && !WordUtil.isEmpty(domainModel.primaryKeyDefaultValue()))
-                return Optional.of(domainModel.primaryKeyDefaultValue());
-
-            Column column = field.getAnnotation(Column.class);
-            if (column != null && !WordUtil.isEmpty(column.defaultValue()))
-                return Optional.of(column.defaultValue());
-            return Optional.empty();
-        } catch (NoSuchFieldException ex) {
-            throw new IllegalArgumentException(ex.getMessage(), ex);
-        }
+        modelMetadata.getFieldOrThrow(fieldName);
+        return modelMetadata.getDefaultValue(fieldName);
     }
 
     @Override
     public boolean hasDefaultValue(String fieldName) {
-        try {
-            DomainModel domainModel = domainModelClass.getAnnotation(DomainModel.class);
-            Field field = domainModelClass.getDeclaredField(fieldName);
-
-            if(field.getName().equals(domainModel.primaryFieldName()))
-                return !WordUtil.isEmpty(domainModel.primaryKeyDefaultValue());
-
-            Column column = field.getAnnotation(Column.class);
-            if (column != null)
-                return !WordUtil.isEmpty(column.defaultValue());
-            return false;
-        } catch (NoSuchFieldException ex) {
-            throw new IllegalArgumentException(ex.getMessage(), ex);
-        }
+        modelMetadata.getFieldOrThrow(fieldName);
+        return modelMetadata.hasDefaultValue(fieldName);
     }
 
     @Override
     public FieldValue getFieldValue(Object bean, String fieldName) {
-        try {
-            Object value = PropertyUtils.read(bean, fieldName);
-
-            DomainModel domainModel = domainModelClass.getAnnotation(DomainModel.class);
-            Field field = domainModelClass.getDeclaredField(fieldName);
+        modelMetadata.getFieldOrThrow(fieldName);
+        Object value = readFieldValue(bean, fieldName);
 
-            if (domainModel.primaryFieldName().equals(fieldName)) {
-                String primaryValue = domainModel.primaryKeyDefaultValue();
-                return new DefaultFieldValue(JDBCType.NULL, primaryValue);
-            }
-
-            if (value == null)
-                return new DefaultFieldValue(null);
+        DomainModel domainModel = modelMetadata.getDomainModel();
+        if (domainModel.primaryFieldName().equals(fieldName)) {
+            String primaryValue = domainModel.primaryKeyDefaultValue();
+            return new DefaultFieldValue(JDBCType.NULL, primaryValue);
+        }
 
-            Column column = field.getAnnotation(Column.class);
-            if (column != null) {
-                return new DefaultFieldValue(column.sqlType(), value);
-            }
+        if (value == null)
+            return new DefaultFieldValue(null);
 
-            return new DefaultFieldValue(value);
-        } catch (NoSuchFieldException ex) {
-            throw new IllegalArgumentException(ex.getMessage(), ex);
-        }
+        return new DefaultFieldValue(modelMetadata.getSQLType(fieldName), value);
     }
 
     @Override
     public Class getFieldType(String fieldName) {
-        try {
-            if (fieldName == null) return null;
-            Field field = domainModelClass.getDeclaredField(fieldName);
-            return field == null ? null : field.getType();
-        } catch (NoSuchFieldException ex) {
-            throw new IllegalStateException(ex.getMessage(), ex);
-        }
+        if (fieldName == null) return null;
+        Field field = modelMetadata.getField(fieldName);
+        if (field == null)
+            throw new IllegalStateException(fieldName);
+        return field.getType();
     }
 
     @Override
     public void setFieldValue(T modelObject, String fieldName, Object fieldValue) {
-        PropertyUtils.write(modelObject, fieldName, fieldValue);
+        if (accessor == null) {
+            PropertyUtils.write(modelObject, fieldName, fieldValue);
+            return;
+        }
+
+        try {
+            accessor.setFieldValue(modelObject, fieldName, fieldValue);
+        } catch (ClassCastException | IllegalArgumentException ex) {
+            throw new ReflectionException(String.format("Failed to write: %s, value: %s",
+                    fieldName, fieldValue), ex);
+        }
     }
 
     @Override
     public boolean isTransitable(String fieldName) {
-        return columnTransitionMap.get(fieldName) != null;
+        return modelMetadata.getColumnTransition(fieldName) != null;
     }
 
     @Override
     public ColumnTransition getColumnTransition(String fieldName) {
-        return columnTransitionMap.get(fieldName);
+        return modelMetadata.getColumnTransition(fieldName);
     }
 
+    private Object readFieldValue(Object bean, String fieldName) {
+        if (accessor == null)
+            return PropertyUtils.read(bean, fieldName);
+        return accessor.getFieldValue((T) bean, fieldName);
+    }
+
+    /**
+     * The columns are read from <code>ModelMetadata</code> directly, only if a subclass
+     * overrides one of <code>getColumnizableFields</code>, <code>getColumnName</code>
+     * and <code>isColumnizable</code>, they will be computed by the methods for each call.
+     */
     protected Field[] getColumnizableFields(Class domainModelClass, boolean insertable, boolean updatable) {
-        DomainModel domainModel = (DomainModel) domainModelClass.getAnnotation(DomainModel.class);
-        Field primaryField = Tables.getPrimaryField(domainModelClass);
-        Field[] fields = domainModelClass.getDeclaredFields();
-
-        if (domainModel.allFieldsPersistent()) {
-            return Arrays.stream(fields).filter(field -> {
-                Column column = field.getAnnotation(Column.class);
-                Transient transientAnnotation = field.getAnnotation(Transient.class);
-                if (!Modifier.isStatic(field.getModifiers()) && transientAnnotation == null) {
-                    if (column == null)
-                        return isColumnizable(field);
-                    else {
-                        return ensureColumnizable(column, field, primaryField, insertable, updatable);
-                    }
-                } else return false;
-            }).toArray(Field[]::new);
-        } else {
-            return Arrays.stream(fields).filter(field -> {
-                Column column = field.getAnnotation(Column.class);
-                Transient transientAnnotation = field.getAnnotation(Transient.class);
-                if (!Modifier.isStatic(field.getModifiers()) && transientAnnotation == null) {
-                    if (column == null)
-                        return false;
-                    else
-                        return ensureColumnizable(column, field, primaryField, insertable, updatable);
-                } else return false;
-            }).toArray(Field[]::new);
-        }
+        ModelMetadata<?> modelMetadata = ModelMetadata.of((Class<?>) domainModelClass);
+        if (columnHooksOverridden)
+            return modelMetadata.getColumnizableFields(insertable, updatable, this::isColumnizable);
+        return modelMetadata.getColumnizableFields(insertable, updatable);
     }
 
     protected String getColumnName(Field field) {
-        Column column = field.getAnnotation(Column.class);
-        if (column != null && !StringUtil.isBlank(column.name()))
-            return column.name();
-        else return WordUtil.underscore(field.getName());
+        return ModelMetadata.of(field.getDeclaringClass()).getColumnName(field.getName());
     }
 
     protected boolean isColumnizable(Field field) {
-        return COLUMNIZABLE_FIELD_TYPES.contains(field.getType());
+        return ModelMetadata.isColumnizable(field.getType());
     }
 
-    private boolean ensureColumnizable(Column column, Field field, Field primaryField,
-                                       boolean insertable, boolean updatable) {
-        if (insertable && updatable)
-            return true;
-        else if (insertable) {
-            return column.insertable();
-        } else if (updatable) {
-            return (updatable && column.updatable() && !field.equals(primaryField));
-        } else return false;
+    private String[] toColumnNames(Field[] fields) {
+        return Arrays.stream(fields).map(this::getColumnName).toArray(String[]::new);
     }
 
-    private void prepareColumnToPropertyOverrides(Class<T> rowClass) {
-        Field[] fields = rowClass.getDeclaredFields();
-        Arrays.stream(fields).forEach(field -> {
-            PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
-            Column column = field.getAnnotation(Column.class);
-
-            if (primaryKey != null) {
-                String columnName = StringUtil.isBlank(primaryKey.name())
-                        ? WordUtil.underscore(field.getName()) : primaryKey.name();
-                columnToField.put(columnName, field);
-                columnToField.put(columnName.toUpperCase(), field);
-            } else if (column != null) {
-                String columnName = StringUtil.isBlank(column.name())
-                        ? WordUtil.underscore(field.getName()) : column.name();
-                columnToField.put(columnName.toUpperCase(), field);
-                columnToField.put(columnName, field);
-            } else {
-                columnToField.put(WordUtil.underscore(field.getName()), field);
-                columnToField.put(WordUtil.underscore(field.getName()).toUpperCase(), field);
+    private static boolean overridesColumnHooks(Class descriptorClass) {
+        for (Class clazz = descriptorClass; clazz != BeanModelDescriptor.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                String methodName = method.getName();
+                if (methodName.equals("getColumnizableFields") || methodName.equals("getColumnName")
+                        || methodName.equals("isColumnizable"))
+                    return true;
             }
-        });
-    }
-
-    private Map<String, ColumnTransition> instantiateColumnTransitionMap(Field[] fields) {
-        Arrays.stream(fields).forEach(field -> {
-            Column column = field.getAnnotation(Column.class);
-            if (column != null && !column.transition().equals(ColumnTransition.class))
-                columnTransitionMap.put(field.getName(), ClassUtils.createNewInstance(column.transition()));
-        });
-
-        return columnTransitionMap;
+        }
+        return false;
     }
 }
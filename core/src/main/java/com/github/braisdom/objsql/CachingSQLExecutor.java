@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.DomainModel;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A decorator of <code>SQLExecutor</code> which caches the query results of the domain
+ * models annotated with <code>@DomainModel(cacheable = true)</code> in the process. The results
+ * are cached by the SQL and parameters, and evicted by the time to live or the least
+ * recently used when the cache is full.<br/>
+ *
+ * The results of a table will be invalidated when the table is written through the executor,
+ * such as <code>Persistence</code>, <code>Tables.execute</code> and <code>Databases.execute</code>,
+ * and all results will be invalidated if the table written cannot be recognized. Only the
+ * queries which read the table of domain model only are cached, the queries with joins,
+ * subqueries or lists of tables are executed directly, because they will not be invalidated
+ * when the other tables are written.
+ * The objects are copied when cached and when returned, so that the objects of a query,
+ * whose relations are set or loaded lazily, can be changed without affecting the others.
+ *
+ * <pre>
+ *     Databases.installSqlExecutor(new CachingSQLExecutor(new DefaultSQLExecutor(),
+ *          1024, 60, TimeUnit.SECONDS));
+ * </pre>
+ */
+public class CachingSQLExecutor<T> implements SQLExecutor<T> {
+
+    private static final Pattern WRITTEN_TABLE_PATTERN = Pattern.compile("^\\s*(?:INSERT\\s+(?:IGNORE\\s+)?INTO" +
+            "|REPLACE\\s+INTO|MERGE\\s+INTO|UPDATE|DELETE\\s+FROM|TRUNCATE\\s+TABLE|TRUNCATE)\\s+([^\\s(,;]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern READ_TABLE_PATTERN = Pattern.compile("\\b(FROM|JOIN)\\s+([^\\s(,;]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABLE_LIST_PATTERN = Pattern.compile("\\bFROM\\s+[^\\s(,;]+" +
+            "(?:\\s+(?:AS\\s+)?[\\w$`\"\\[\\]]+)?\\s*,", Pattern.CASE_INSENSITIVE);
+    // The tables written are recorded by name, the unrecognized ones by the marker
+    private static final String UNKNOWN_TABLE = "\u0000";
+
+    private final SQLExecutor<T> delegate;
+    private final int maxSize;
+    private final long timeToLiveNanos;
+    private final Map<CacheKey, CacheEntry> entries;
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Map<Connection, Set<String>> uncommittedTables = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private static final class CacheKey {
+
+        private final Class domainModelClass;
+        private final String sql;
+        private final Object[] params;
+        private final int hashCode;
+
+        CacheKey(Class domainModelClass, String sql, Object[] params) {
+            this.domainModelClass = domainModelClass;
+            this.sql = sql;
+            this.params = params == null ? new Object[0] : params.clone();
+            this.hashCode = Objects.hash(domainModelClass, sql) * 31 + Arrays.deepHashCode(this.params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey key = (CacheKey) o;
+            return domainModelClass.equals(key.domainModelClass) && sql.equals(key.sql)
+                    && Arrays.deepEquals(params, key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final List rows;
+        private final String tableName;
+        private final long tableVersion;
+        private final long globalVersion;
+        private final long expiredAt;
+
+        CacheEntry(List rows, String tableName, long tableVersion, long globalVersion, long expiredAt) {
+            this.rows = rows;
+            this.tableName = tableName;
+            this.tableVersion = tableVersion;
+            this.globalVersion = globalVersion;
+            this.expiredAt = expiredAt;
+        }
+    }
+
+    public CachingSQLExecutor(SQLExecutor<T> delegate, int maxSize, long timeToLive, TimeUnit timeUnit) {
+        Objects.requireNonNull(delegate, "The delegate cannot be null");
+        Objects.requireNonNull(timeUnit, "The timeUnit cannot be null");
+        if (maxSize < 1)
+            throw new IllegalArgumentException("The maxSize must be greater than 0");
+        if (timeToLive <= 0)
+            throw new IllegalArgumentException("The timeToLive must be greater than 0");
+
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = timeUnit.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > CachingSQLExecutor.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public List<T> query(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                         Object... params) throws SQLException {
+        Class domainModelClass = tableRowAdapter.getDomainModelClass();
+
+        // The uncommitted changes in the connection cannot be seen in others
+        if (!isCacheable(domainModelClass) || uncommittedTables.containsKey(connection))
+            return delegate.query(connection, sql, tableRowAdapter, params);
+
+        String tableName = normalizeTableName(tableRowAdapter.getTableName());
+        if (!readsTableOnly(sql, tableName))
+            return delegate.query(connection, sql, tableRowAdapter, params);
+
+        CacheKey cacheKey = new CacheKey(domainModelClass, sql, params);
+        long tableVersion = getTableVersion(tableName).get();
+        long currentGlobalVersion = globalVersion.get();
+
+        CacheEntry cacheEntry;
+        synchronized (entries) {
+            cacheEntry = entries.get(cacheKey);
+        }
+
+        if (cacheEntry != null && cacheEntry.tableVersion == tableVersion
+                && cacheEntry.globalVersion == currentGlobalVersion && cacheEntry.expiredAt - System.nanoTime() > 0) {
+            hitCount.incrementAndGet();
+            return copyRows(domainModelClass, cacheEntry.rows);
+        }
+
+        missCount.incrementAndGet();
+        List<T> rows = delegate.query(connection, sql, tableRowAdapter, params);
+
+        // The rows loaded before an invalidation will not be cached
+        if (getTableVersion(tableName).get() == tableVersion && globalVersion.get() == currentGlobalVersion) {
+            CacheEntry newEntry = new CacheEntry(copyRows(domainModelClass, rows), tableName, tableVersion,
+                    currentGlobalVersion, System.nanoTime() + timeToLiveNanos);
+            synchronized (entries) {
+                entries.put(cacheKey, newEntry);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public Stream<T> stream(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                            int fetchSize, Object... params) throws SQLException {
+        return delegate.stream(connection, sql, tableRowAdapter, fetchSize, params);
+    }
+
+    @Override
+    public Object queryScalar(Connection connection, String sql, Object... params) throws SQLException {
+        return delegate.queryScalar(connection, sql, params);
+    }
+
+    @Override
+    public List<Object[]> queryRows(Connection connection, String sql, Object... params) throws SQLException {
+        return delegate.queryRows(connection, sql, params);
+    }
+
+    @Override
+    public T insert(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                    Object... params) throws SQLException {
+        try {
+            return delegate.insert(connection, sql, tableRowAdapter, params);
+        } finally {
+            invalidate(connection, sql);
+        }
+    }
+
+    @Override
+    public int[] insert(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                        Object[][] params) throws SQLException {
+        try {
+            return delegate.insert(connection, sql, tableRowAdapter, params);
+        } finally {
+            invalidate(connection, sql);
+        }
+    }
+
+    @Override
+    public Object[] insertRows(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                               Object... params) throws SQLException {
+        try {
+            return delegate.insertRows(connection, sql, tableRowAdapter, params);
+        } finally {
+            invalidate(connection, sql);
+        }
+    }
+
+    @Override
+    public int execute(Connection connection, String sql, Object... params) throws SQLException {
+        try {
+            return delegate.execute(connection, sql, params);
+        } finally {
+            invalidate(connection, sql);
+        }
+    }
+
+    @Override
+    public void executed(Connection connection, String sql) {
+        try {
+            delegate.executed(connection, sql);
+        } finally {
+            invalidate(connection, sql);
+        }
+    }
+
+    /**
+     * Invalidates the tables changed in the connection again, because the queries of other
+     * connections may cache the rows before the changes committed.
+     */
+    @Override
+    public void releaseConnection(Connection connection) {
+        try {
+            delegate.releaseConnection(connection);
+        } finally {
+            Set<String> tableNames = uncommittedTables.remove(connection);
+            if (tableNames != null && tableNames.contains(UNKNOWN_TABLE))
+                invalidateAll();
+            else if (tableNames != null)
+                tableNames.forEach(this::invalidate);
+        }
+    }
+
+    /**
+     * Invalidates the cached results of the table.
+     */
+    public void invalidate(String tableName) {
+        if (tableName == null)
+            invalidateAll();
+        else
+            getTableVersion(normalizeTableName(tableName)).incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        globalVersion.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    protected boolean isCacheable(Class domainModelClass) {
+        DomainModel domainModel = ModelMetadata.of(domainModelClass).getDomainModel();
+        return domainModel != null && domainModel.cacheable();
+    }
+
+    private List<T> copyRows(Class domainModelClass, List<T> rows) {
+        ModelMetadata<T> modelMetadata = ModelMetadata.of(domainModelClass);
+        List<T> copiedRows = new ArrayList<>(rows.size());
+        for (T row : rows)
+            copiedRows.add(modelMetadata.copy(row));
+        return copiedRows;
+    }
+
+    private void invalidate(Connection connection, String sql) {
+        Matcher matcher = WRITTEN_TABLE_PATTERN.matcher(sql);
+        String tableName = matcher.find() ? normalizeTableName(matcher.group(1)) : null;
+
+        invalidate(tableName);
+        if (!isAutoCommit(connection))
+            uncommittedTables.computeIfAbsent(connection, c -> ConcurrentHashMap.newKeySet())
+                    .add(tableName == null ? UNKNOWN_TABLE : tableName);
+    }
+
+    /**
+     * Returns true if the SQL reads from the table only, that is, the table is the
+     * only one after FROM, and there is no JOIN or other FROM in subqueries.
+     */
+    private static boolean readsTableOnly(String sql, String tableName) {
+        Matcher matcher = READ_TABLE_PATTERN.matcher(sql);
+        if (!matcher.find() || !"FROM".equalsIgnoreCase(matcher.group(1))
+                || !normalizeTableName(matcher.group(2)).equals(tableName) || matcher.find())
+            return false;
+        return !TABLE_LIST_PATTERN.matcher(sql).find();
+    }
+
+    private AtomicLong getTableVersion(String tableName) {
+        return tableVersions.computeIfAbsent(tableName, name -> new AtomicLong());
+    }
+
+    private static boolean isAutoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private static String normalizeTableName(String tableName) {
+        String unquotedName = tableName.replaceAll("[`\"\\[\\]]", "");
+        int schemaIndex = unquotedName.lastIndexOf('.');
+        return unquotedName.substring(schemaIndex + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -23,26 +23,82 @@ public enum DatabaseType {
     MySQL("MySQL"),
     PostgreSQL("PostgreSQL"),
     Oracle("Oracle"),
-    MsSqlServer("MsSqlServer"),
+    MsSqlServer("MsSqlServer", "Microsoft SQL Server"),
     MariaDB("MariaDB"),
     SQLite("SQLite"),
-    H2Database("H2Database"),
+    H2Database("H2Database", "H2"),
     Clickhouse("Clickhouse"),
-    Hive("hive"),
+    Hive("hive", "Apache Hive"),
     All("All"),
     Unknown("Unknown");
 
     private String name;
+    private String[] productNames;
 
-    DatabaseType(String name) {
+    /**
+     * @param productNames the names reported by <code>DatabaseMetaData.getDatabaseProductName()</code>
+     *                     which differ from the name
+     */
+    DatabaseType(String name, String... productNames) {
         this.name = name;
+        this.productNames = productNames;
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Returns true if the name equals the name of type, or the name of database product
+     * reported by JDBC driver, such as "Microsoft SQL Server" for <code>MsSqlServer</code>.
+     */
     public boolean nameEquals(String name) {
-        return this.name.equalsIgnoreCase(name);
+        if (this.name.equalsIgnoreCase(name))
+            return true;
+        for (String productName : productNames) {
+            if (productName.equalsIgnoreCase(name))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the clause for skipping and limiting the rows in the syntax of database,
+     * the offset or limit less than 1 will be ignored.
+     */
+    public String formatPagination(int offset, int limit) {
+        StringBuilder clause = new StringBuilder();
+        if (this == Oracle || this == MsSqlServer) {
+            if (offset > 0 || limit > 0)
+                clause.append(" OFFSET ").append(Math.max(offset, 0)).append(" ROWS");
+            if (limit > 0)
+                clause.append(" FETCH NEXT ").append(limit).append(" ROWS ONLY");
+            return clause.toString();
+        }
+
+        if (limit > 0)
+            clause.append(" LIMIT ").append(limit);
+        else if (offset > 0 && (this == MySQL || this == MariaDB))
+            clause.append(" LIMIT 18446744073709551615");
+        else if (offset > 0 && this == SQLite)
+            clause.append(" LIMIT -1");
+
+        if (offset > 0)
+            clause.append(" OFFSET ").append(offset);
+        return clause.toString();
+    }
+
+    /**
+     * Returns the type of the database product name reported by JDBC driver,
+     * or <code>Unknown</code> if absent.
+     *
+     * @see #nameEquals(String)
+     */
+    public static DatabaseType of(String databaseName) {
+        for (DatabaseType databaseType : values()) {
+            if (databaseType.nameEquals(databaseName))
+                return databaseType;
+        }
+        return Unknown;
     }
 }
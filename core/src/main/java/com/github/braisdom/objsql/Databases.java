@@ -19,11 +19,29 @@ package com.github.braisdom.objsql;
 import com.github.braisdom.objsql.jdbc.DbUtils;
 import com.github.braisdom.objsql.util.StringUtil;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class consists exclusively of utility methods that operate of behavior of database.
@@ -49,11 +67,23 @@ public final class Databases {
      */
     private static ThreadLocal<Connection> connectionThreadLocal = new ThreadLocal<>();
 
+    /**
+     * Holds the name of data source which the current thread is executing in,
+     * the statements are attributed to it in the metrics.
+     */
+    private static ThreadLocal<String> dataSourceNameThreadLocal = new ThreadLocal<>();
+
     /**
      * Quoting name of table or column by various database type.
      */
     private static Quoter quoter;
 
+    /**
+     * The database product names by data source name, the database of a data source
+     * is resolved once only, because some drivers make a round trip for it.
+     */
+    private static final Map<String, String> databaseProductNames = new ConcurrentHashMap<>();
+
     /**
      * The LoggerFactory is definied for too many Log frameworks appearing,
      * the ObjectiveSql can't decide which one to use
@@ -64,6 +94,13 @@ public final class Databases {
 
     private static PersistenceFactory persistenceFactory;
 
+    /**
+     * Provides the executors of asynchronous operations by data source.
+     */
+    private static ExecutorFactory executorFactory;
+
+    private static MetricsRecorder metricsRecorder;
+
     /**
      * Represents a logic of data process, it will provide the connection and sql
      * executor of database, and the concrete logic will be ignored the behavior
@@ -97,13 +134,30 @@ public final class Databases {
         connectionThreadLocal.set(connection);
     }
 
+    /**
+     * Returns the connection held by current thread, such as the connection of
+     * transaction, or null if absent.
+     */
+    public static Connection getCurrentThreadConnection() {
+        return connectionThreadLocal.get();
+    }
+
     public static void clearCurrentThreadConnection() {
         connectionThreadLocal.remove();
     }
 
+    /**
+     * Returns the name of data source which the current thread is executing in,
+     * or null if absent.
+     */
+    public static String getCurrentDataSourceName() {
+        return dataSourceNameThreadLocal.get();
+    }
+
     public static void installConnectionFactory(ConnectionFactory connectionFactory) {
         Objects.requireNonNull(connectionFactory, "The connectionFactory cannot be null");
         Databases.connectionFactory = connectionFactory;
+        databaseProductNames.clear();
     }
 
     public static void installSqlExecutor(SQLExecutor sqlExecutor) {
@@ -126,17 +180,30 @@ public final class Databases {
         Databases.loggerFactory = loggerFactory;
     }
 
+    public static void installExecutorFactory(ExecutorFactory executorFactory) {
+        Objects.requireNonNull(executorFactory, "The executorFactory cannot be null");
+        Databases.executorFactory = executorFactory;
+    }
+
+    public static void installMetricsRecorder(MetricsRecorder metricsRecorder) {
+        Objects.requireNonNull(metricsRecorder, "The metricsRecorder cannot be null");
+        Databases.metricsRecorder = metricsRecorder;
+    }
+
     public static void installQuoter(Quoter quoter) {
         Objects.requireNonNull(quoter, "The quoter cannot be null");
         Databases.quoter = quoter;
+        AbstractPersistence.clearSQLTemplates();
     }
 
     public static <R> R executeTransactionally(String dataSourceName, TransactionalExecutor<R> executor) throws SQLException {
         Connection connection = null;
+        String previousDataSourceName = dataSourceNameThreadLocal.get();
         try {
             connection = Databases.getConnectionFactory().getConnection(dataSourceName);
             connection.setAutoCommit(false);
             connectionThreadLocal.set(connection);
+            dataSourceNameThreadLocal.set(dataSourceName);
             R result = executor.apply();
             connection.commit();
             return result;
@@ -148,7 +215,8 @@ public final class Databases {
             throw new RollbackCauseException(ex.getMessage(), ex);
         } finally {
             connectionThreadLocal.remove();
-            DbUtils.close(connection);
+            restoreDataSourceName(previousDataSourceName);
+            closeConnection(connection);
         }
     }
 
@@ -158,9 +226,13 @@ public final class Databases {
 
     public static void truncateTable(String dataSourceName, String tableName) throws SQLException {
         execute(dataSourceName, (connection, sqlExecutor) -> {
-            String databaseName = connection.getMetaData().getDatabaseProductName();
+            String databaseName = getDatabaseProductName(dataSourceName, connection);
             String quotedTableName = getQuoter().quoteTableName(databaseName, tableName);
-            connection.createStatement().execute(String.format("TRUNCATE TABLE %s", quotedTableName));
+            String sql = String.format("TRUNCATE TABLE %s", quotedTableName);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+            sqlExecutor.executed(connection, sql);
             return null;
         });
     }
@@ -171,7 +243,10 @@ public final class Databases {
 
     public static void execute(String dataSourceName, String sql) throws SQLException {
         execute(dataSourceName, (connection, sqlExecutor) -> {
-            connection.createStatement().execute(sql);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+            sqlExecutor.executed(connection, sql);
             return null;
         });
     }
@@ -186,25 +261,115 @@ public final class Databases {
 
         Connection connection = connectionThreadLocal.get();
         SQLExecutor<T> sqlExecutor = getSqlExecutor();
+        String previousDataSourceName = dataSourceNameThreadLocal.get();
 
-        if (connection == null) {
-            try {
-                connection = getConnectionFactory().getConnection(dataSourceName);
+        try {
+            dataSourceNameThreadLocal.set(dataSourceName);
+            if (connection == null) {
+                try {
+                    connection = getConnectionFactory().getConnection(dataSourceName);
+                    return databaseInvoke.apply(connection, sqlExecutor);
+                } finally {
+                    closeConnection(connection);
+                }
+            } else {
                 return databaseInvoke.apply(connection, sqlExecutor);
-            } finally {
-                DbUtils.close(connection);
             }
-        } else {
-            return databaseInvoke.apply(connection, sqlExecutor);
+        } finally {
+            restoreDataSourceName(previousDataSourceName);
         }
     }
 
+    /**
+     * Opens a stream in the connection of current thread, or a new connection which
+     * will be closed when the stream is closed, so the stream must be consumed
+     * in a try-with-resources block.
+     */
+    public static <T> Stream<T> stream(String dataSourceName,
+                                       DatabaseInvoke<T, Stream<T>> databaseInvoke) throws SQLException {
+        Objects.requireNonNull(dataSourceName, "The datasourceName cannot be null");
+        Objects.requireNonNull(databaseInvoke, "The databaseInvoke cannot be null");
+
+        Connection connection = connectionThreadLocal.get();
+        SQLExecutor<T> sqlExecutor = getSqlExecutor();
+        String previousDataSourceName = dataSourceNameThreadLocal.get();
+
+        try {
+            dataSourceNameThreadLocal.set(dataSourceName);
+            if (connection == null) {
+                Connection newConnection = getConnectionFactory().getConnection(dataSourceName);
+                try {
+                    return databaseInvoke.apply(newConnection, sqlExecutor)
+                            .onClose(() -> closeConnectionQuietly(newConnection));
+                } catch (SQLException | RuntimeException ex) {
+                    closeConnectionQuietly(newConnection);
+                    throw ex;
+                }
+            } else {
+                return databaseInvoke.apply(connection, sqlExecutor);
+            }
+        } finally {
+            restoreDataSourceName(previousDataSourceName);
+        }
+    }
+
+    public static <T, R> CompletableFuture<R> executeAsync(DatabaseInvoke<T, R> databaseInvoke) {
+        return executeAsync(ConnectionFactory.DEFAULT_DATA_SOURCE_NAME, databaseInvoke);
+    }
+
+    /**
+     * Executes the logic in the executor of data source with a new connection, the
+     * connection of current thread will not be shared with it, so it cannot take
+     * part in the transaction of caller.
+     *
+     * @see ExecutorFactory
+     */
+    public static <T, R> CompletableFuture<R> executeAsync(String dataSourceName,
+                                                          DatabaseInvoke<T, R> databaseInvoke) {
+        Objects.requireNonNull(databaseInvoke, "The databaseInvoke cannot be null");
+        return supplyAsync(dataSourceName, () -> execute(dataSourceName, databaseInvoke));
+    }
+
+    /**
+     * Runs the task in the executor of data source, the checked exception thrown
+     * by the task completes the future with a <code>CompletionException</code>.
+     */
+    public static <R> CompletableFuture<R> supplyAsync(String dataSourceName, Callable<R> callable) {
+        Objects.requireNonNull(dataSourceName, "The datasourceName cannot be null");
+        Objects.requireNonNull(callable, "The callable cannot be null");
+
+        Executor executor = getExecutorFactory().getExecutor(dataSourceName);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return callable.call();
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    private static void restoreDataSourceName(String dataSourceName) {
+        if (dataSourceName == null)
+            dataSourceNameThreadLocal.remove();
+        else
+            dataSourceNameThreadLocal.set(dataSourceName);
+    }
+
+    /**
+     * @deprecated the statements are measured by <code>MetricsRecorder</code> in
+     * <code>DefaultSQLExecutor</code>.
+     * @see MetricsRecorder
+     */
+    @Deprecated
     public static <R> R sqlBenchmarking(Benchmarkable<R> benchmarkable, Logger logger,
                                         String message, Object... params) throws SQLException {
         try {
-            long begin = System.currentTimeMillis();
+            long begin = System.nanoTime();
             R result = benchmarkable.apply();
-            logger.info(System.currentTimeMillis() - begin, message, params);
+            if (logger.isInfoEnabled())
+                logger.info(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), message, params);
             return result;
         } catch (Exception ex) {
             if (ex instanceof SQLException)
@@ -222,6 +387,41 @@ public final class Databases {
         }
     }
 
+    private static void closeConnection(Connection connection) throws SQLException {
+        if (connection != null) {
+            getSqlExecutor().releaseConnection(connection);
+            PrimaryKeyCache.releaseConnection(connection);
+        }
+        DbUtils.close(connection);
+    }
+
+    private static void closeConnectionQuietly(Connection connection) {
+        try {
+            closeConnection(connection);
+        } catch (SQLException ex) {
+            // quiet
+        }
+    }
+
+    /**
+     * Returns the database product name of the data source, which will be read from
+     * the metadata of given connection at the first time only.
+     */
+    public static String getDatabaseProductName(String dataSourceName, Connection connection) throws SQLException {
+        Objects.requireNonNull(connection, "The connection cannot be null");
+
+        if (dataSourceName == null)
+            return connection.getMetaData().getDatabaseProductName();
+
+        String databaseName = databaseProductNames.get(dataSourceName);
+        if (databaseName == null) {
+            databaseName = connection.getMetaData().getDatabaseProductName();
+            if (databaseName != null)
+                databaseProductNames.put(dataSourceName, databaseName);
+        }
+        return databaseName;
+    }
+
     public static String getDefaultDataSourceName() {
         return ConnectionFactory.DEFAULT_DATA_SOURCE_NAME;
     }
@@ -281,6 +481,18 @@ public final class Databases {
         return loggerFactory;
     }
 
+    public static MetricsRecorder getMetricsRecorder() {
+        if (metricsRecorder == null)
+            metricsRecorder = new DefaultMetricsRecorder();
+        return metricsRecorder;
+    }
+
+    public static ExecutorFactory getExecutorFactory() {
+        if (executorFactory == null)
+            executorFactory = new DefaultExecutorFactory();
+        return executorFactory;
+    }
+
     public static ConnectionFactory getConnectionFactory() {
         if (connectionFactory == null)
             throw new IllegalStateException("The connectionFactory cannot be null");
@@ -288,6 +500,62 @@ public final class Databases {
     }
 }
 
+/**
+ * Creates an executor for each data source, which runs the tasks in virtual threads
+ * if the runtime supports them (Java 21+), otherwise in a fixed pool of daemon threads.
+ * <p>
+ * The fixed pool has <code>availableProcessors * 2</code> threads and a queue of
+ * {@value #QUEUE_CAPACITY} tasks, so the connections opened by the asynchronous tasks
+ * are bounded. The idle threads exit after a minute, and a task is run in the caller
+ * thread if the queue is full, which slows down the submitting instead of rejecting.
+ * An <code>ExecutorFactory</code> should be installed if the pool of data source is
+ * smaller than the threads.
+ */
+class DefaultExecutorFactory implements ExecutorFactory {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final MethodHandle newVirtualThreadExecutor = findVirtualThreadExecutor();
+
+    private final Map<String, Executor> executors = new ConcurrentHashMap<>();
+
+    @Override
+    public Executor getExecutor(String dataSourceName) {
+        return executors.computeIfAbsent(dataSourceName, this::createExecutor);
+    }
+
+    private Executor createExecutor(String dataSourceName) {
+        if (newVirtualThreadExecutor != null) {
+            try {
+                return (ExecutorService) newVirtualThreadExecutor.invoke();
+            } catch (Throwable ex) {
+                // Falls back to the platform threads
+            }
+        }
+
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, String.format("%s-async-%d",
+                    dataSourceName, threadNumber.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static MethodHandle findVirtualThreadExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            return null;
+        }
+    }
+}
+
 class LoggerImpl implements Logger {
 
     private final Class<?> clazz;
@@ -298,22 +566,34 @@ class LoggerImpl implements Logger {
         logger = java.util.logging.Logger.getLogger(clazz.getName());
     }
 
+    @Override
+    public boolean isInfoEnabled() {
+        return logger.isLoggable(Level.INFO);
+    }
+
     @Override
     public void debug(long elapsedTime, String sql, Object[] params) {
-        String[] paramStrings = Arrays.stream(params).map(param -> String.valueOf(param)).toArray(String[]::new);
-        String paramString = String.join(",", paramStrings);
-        String log = String.format("[%dms] %s, with: [%s]", elapsedTime, sql, String.join(",",
-                paramString.length() > 100 ? StringUtil.truncate(paramString, 99) : paramString));
-        logger.logp(Level.CONFIG, clazz.getName(), "", log);
+        if (logger.isLoggable(Level.CONFIG))
+            logger.logp(Level.CONFIG, clazz.getName(), "", formatLog(elapsedTime, sql, params));
     }
 
     @Override
     public void info(long elapsedTime, String sql, Object[] params) {
-        String[] paramStrings = Arrays.stream(params).map(param -> String.valueOf(param)).toArray(String[]::new);
-        String paramString = String.join(",", paramStrings);
-        String log = String.format("[%dms] %s, with: [%s]", elapsedTime, sql, String.join(",",
-                paramString.length() > 100 ? StringUtil.truncate(paramString, 99) : paramString));
-        logger.logp(Level.INFO, clazz.getName(), "", log);
+        if (logger.isLoggable(Level.INFO))
+            logger.logp(Level.INFO, clazz.getName(), "", formatLog(elapsedTime, sql, params));
+    }
+
+    @Override
+    public void warn(long elapsedTime, String sql, Object[] params) {
+        if (logger.isLoggable(Level.WARNING))
+            logger.logp(Level.WARNING, clazz.getName(), "", formatLog(elapsedTime, sql, params));
+    }
+
+    private String formatLog(long elapsedTime, String sql, Object[] params) {
+        String paramString = params == null ? "" : Arrays.stream(params)
+                .map(param -> String.valueOf(param)).collect(Collectors.joining(","));
+        return String.format("[%dms] %s, with: [%s]", elapsedTime, sql,
+                paramString.length() > 100 ? StringUtil.truncate(paramString, 99) : paramString);
     }
 
     @Override
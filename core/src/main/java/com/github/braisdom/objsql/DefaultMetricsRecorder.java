@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Records the metrics of statements in the process, by the fingerprint of statement and
+ * by data source. The number of fingerprints is bounded, each one takes about 3KB, and the
+ * statements beyond it will be counted into the metrics of <code>OTHER_STATEMENTS</code>
+ * of the data source.<br/>
+ *
+ * The statements slower than the threshold will be logged with the SQL in the calling
+ * thread, and the snapshots of metrics can be exposed as a report, such as:
+ * <pre>
+ *     DefaultMetricsRecorder metricsRecorder = new DefaultMetricsRecorder();
+ *     metricsRecorder.setSlowQueryThreshold(200, TimeUnit.MILLISECONDS);
+ *     Databases.installMetricsRecorder(metricsRecorder);
+ *     ...
+ *     List&lt;StatementMetrics.Snapshot&gt; snapshots = metricsRecorder.getSnapshots();
+ * </pre>
+ *
+ * @see SQLFingerprint
+ */
+public class DefaultMetricsRecorder implements MetricsRecorder {
+
+    public static final String OTHER_STATEMENTS = "<other statements>";
+
+    private static final String UNKNOWN_DATA_SOURCE = "<unknown>";
+    private static final int DEFAULT_MAX_STATEMENTS = 1024;
+
+    private final Logger logger = Databases.getLoggerFactory().create(DefaultMetricsRecorder.class);
+    private final int maxStatements;
+    private volatile long slowQueryThresholdNanos = Long.MAX_VALUE;
+    private final Map<StatementKey, StatementMetrics> statementMetrics = new ConcurrentHashMap<>();
+    private final Map<String, StatementMetrics> dataSourceMetrics = new ConcurrentHashMap<>();
+
+    private static final class StatementKey {
+
+        private final String dataSourceName;
+        private final String fingerprint;
+        private final int hashCode;
+
+        StatementKey(String dataSourceName, String fingerprint) {
+            this.dataSourceName = dataSourceName;
+            this.fingerprint = fingerprint;
+            this.hashCode = 31 * dataSourceName.hashCode() + fingerprint.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey key = (StatementKey) o;
+            return dataSourceName.equals(key.dataSourceName) && fingerprint.equals(key.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    public DefaultMetricsRecorder() {
+        this(DEFAULT_MAX_STATEMENTS);
+    }
+
+    public DefaultMetricsRecorder(int maxStatements) {
+        if (maxStatements < 1)
+            throw new IllegalArgumentException("The maxStatements must be greater than 0");
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Logs the statements which elapsed the threshold at least, the slow queries
+     * will not be logged by default. The statements are logged in the thread which
+     * executes them, so the threshold should be high enough to keep the logging rare.
+     */
+    public void setSlowQueryThreshold(long threshold, TimeUnit timeUnit) {
+        Objects.requireNonNull(timeUnit, "The timeUnit cannot be null");
+        this.slowQueryThresholdNanos = threshold <= 0 ? Long.MAX_VALUE : timeUnit.toNanos(threshold);
+    }
+
+    @Override
+    public void recordExecution(String dataSourceName, String sql, long elapsedNanos, int rowCount, int batchSize) {
+        String dataSource = dataSourceName == null ? UNKNOWN_DATA_SOURCE : dataSourceName;
+        getStatementMetrics(dataSource, sql).recordExecution(elapsedNanos, rowCount, batchSize);
+        getDataSourceMetrics(dataSource).recordExecution(elapsedNanos, rowCount, batchSize);
+
+        if (elapsedNanos >= slowQueryThresholdNanos)
+            logger.warn(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql, new Object[0]);
+    }
+
+    @Override
+    public void recordError(String dataSourceName, String sql, long elapsedNanos, Throwable throwable) {
+        String dataSource = dataSourceName == null ? UNKNOWN_DATA_SOURCE : dataSourceName;
+        getStatementMetrics(dataSource, sql).recordError(elapsedNanos);
+        getDataSourceMetrics(dataSource).recordError(elapsedNanos);
+    }
+
+    /**
+     * Returns the snapshots of statements, which are sorted by the total time elapsed
+     * in descending order, so that the statements dominating the time of database
+     * are in front.
+     */
+    public List<StatementMetrics.Snapshot> getSnapshots() {
+        return statementMetrics.values().stream()
+                .map(StatementMetrics::snapshot)
+                .sorted(Comparator.comparingLong(StatementMetrics.Snapshot::getTotalNanos).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the metrics of statements recorded, which are alive and continue counting.
+     */
+    public List<StatementMetrics> getStatementMetrics() {
+        return new ArrayList<>(statementMetrics.values());
+    }
+
+    public Collection<StatementMetrics> getDataSourceMetrics() {
+        return new ArrayList<>(dataSourceMetrics.values());
+    }
+
+    public void reset() {
+        statementMetrics.clear();
+        dataSourceMetrics.clear();
+    }
+
+    protected StatementMetrics getStatementMetrics(String dataSourceName, String sql) {
+        Objects.requireNonNull(sql, "The sql cannot be null");
+
+        String fingerprint = SQLFingerprint.of(sql);
+        StatementMetrics metrics = statementMetrics.get(new StatementKey(dataSourceName, fingerprint));
+        if (metrics != null)
+            return metrics;
+
+        String statement = statementMetrics.size() < maxStatements ? fingerprint : OTHER_STATEMENTS;
+        return statementMetrics.computeIfAbsent(new StatementKey(dataSourceName, statement),
+                key -> new StatementMetrics(key.dataSourceName, key.fingerprint));
+    }
+
+    protected StatementMetrics getDataSourceMetrics(String dataSourceName) {
+        StatementMetrics metrics = dataSourceMetrics.get(dataSourceName);
+        if (metrics == null)
+            metrics = dataSourceMetrics.computeIfAbsent(dataSourceName, name -> new StatementMetrics(name, null));
+        return metrics;
+    }
+}
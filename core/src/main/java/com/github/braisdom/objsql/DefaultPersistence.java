@@ -21,11 +21,13 @@ import com.github.braisdom.objsql.transition.ColumnTransition;
 import com.github.braisdom.objsql.util.ArrayUtil;
 import com.github.braisdom.objsql.util.StringUtil;
 
-import java.sql.DatabaseMetaData;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.stream.IntStream;
 
+import static com.github.braisdom.objsql.DatabaseType.*;
 import static com.github.braisdom.objsql.util.FunctionWithThrowable.castFunctionWithThrowable;
 
 /**
@@ -35,6 +37,11 @@ import static com.github.braisdom.objsql.util.FunctionWithThrowable.castFunction
  */
 public class DefaultPersistence<T> extends AbstractPersistence<T> {
 
+    /**
+     * The rows in one statement when the objects are inserted without a chunk size.
+     */
+    public static final int DEFAULT_INSERT_CHUNK_SIZE = 1000;
+
     public DefaultPersistence(Class<T> domainClass) {
         super(domainClass);
     }
@@ -66,16 +73,11 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
 
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            DatabaseMetaData metaData = connection.getMetaData();
-            Quoter quoter = Databases.getQuoter();
-
-            String databaseName = metaData.getDatabaseProductName();
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
-            String[] columnNames = domainModelDescriptor.getInsertableColumns();
-            String[] quotedColumnNames = quoter.quoteColumnNames(databaseName, columnNames);
+            String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+            SQLTemplate sqlTemplate = getSQLTemplate(databaseName);
 
-            String sql = formatInsertSql(tableName, columnNames, quotedColumnNames);
-            Object[] values = filterValues(metaData, dirtyObject, columnNames);
+            String sql = sqlTemplate.getInsertSql();
+            Object[] values = filterValues(connection, sqlTemplate, dirtyObject, sqlTemplate.getInsertableColumns());
 
             T domainObject = (T) sqlExecutor.insert(connection, sql, domainModelDescriptor, values);
             Object primaryValue = Tables.getPrimaryValue(domainObject);
@@ -87,9 +89,21 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
         });
     }
 
+    /**
+     * Inserts the objects in chunks of <code>DEFAULT_INSERT_CHUNK_SIZE</code> rows.
+     *
+     * @see #insert(Object[], int, boolean)
+     */
     @Override
     public int[] insert(final T[] dirtyObjects, final boolean skipValidation) throws SQLException {
+        return insert(dirtyObjects, DEFAULT_INSERT_CHUNK_SIZE, skipValidation);
+    }
+
+    @Override
+    public int[] insert(final T[] dirtyObjects, final int chunkSize, final boolean skipValidation) throws SQLException {
         Objects.requireNonNull(dirtyObjects, "The dirtyObject cannot be null");
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunkSize must be greater than 0");
 
         if (!skipValidation) {
             Validator.Violation[] violations = Tables.validate(dirtyObjects);
@@ -97,46 +111,117 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
                 throw new ValidationException(violations);
         }
 
+        if (dirtyObjects.length == 0)
+            return new int[0];
+
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            DatabaseMetaData metaData = connection.getMetaData();
-            Quoter quoter = Databases.getQuoter();
-
-            String databaseName = metaData.getDatabaseProductName();
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
-            String[] columnNames = domainModelDescriptor.getInsertableColumns();
-            String[] quotedColumnNames = quoter.quoteColumnNames(databaseName, columnNames);
-            String sql = formatInsertSql(tableName, columnNames, quotedColumnNames);
-
-            Object[][] values = new Object[dirtyObjects.length][];
-            for (int i = 0; i < dirtyObjects.length; i++) {
-                Object[] rowValues = filterValues(metaData, dirtyObjects[i], columnNames);
-                values[i] = new Object[rowValues.length];
-                for (int t = 0; t < rowValues.length; t++) {
-                    values[i][t] = rowValues[t];
+            String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+            SQLTemplate sqlTemplate = getSQLTemplate(databaseName);
+            String[] columnNames = sqlTemplate.getInsertableColumns();
+            int parameterCount = (int) Arrays.stream(columnNames)
+                    .filter(columnName -> !domainModelDescriptor
+                            .hasDefaultValue(domainModelDescriptor.getFieldName(columnName))).count();
+            // The chunk is shrunk by the limit of bind parameters in one multi-row INSERT
+            int maxRows = Math.min(chunkSize, getMaxInsertRows(databaseName, parameterCount));
+            int rowsPerChunk = maxRows > 0 ? maxRows : chunkSize;
+            int[] results = new int[dirtyObjects.length];
+
+            for (int offset = 0; offset < dirtyObjects.length; offset += rowsPerChunk) {
+                int rowCount = Math.min(rowsPerChunk, dirtyObjects.length - offset);
+
+                if (maxRows > 0) {
+                    Object[] values = new Object[rowCount * parameterCount];
+                    for (int i = 0; i < rowCount; i++) {
+                        Object[] rowValues = filterValues(connection, sqlTemplate,
+                                dirtyObjects[offset + i], columnNames);
+                        System.arraycopy(rowValues, 0, values, i * parameterCount, parameterCount);
+                    }
+
+                    String sql = formatInsertSql(sqlTemplate, rowCount);
+                    Object[] generatedKeys = sqlExecutor.insertRows(connection, sql, domainModelDescriptor, values);
+                    writeGeneratedKeys(dirtyObjects, offset, rowCount, generatedKeys);
+                    Arrays.fill(results, offset, offset + rowCount, 1);
+                } else {
+                    Object[][] values = new Object[rowCount][];
+                    for (int i = 0; i < rowCount; i++)
+                        values[i] = filterValues(connection, sqlTemplate, dirtyObjects[offset + i], columnNames);
+
+                    int[] chunkResults = sqlExecutor.insert(connection, sqlTemplate.getInsertSql(),
+                            domainModelDescriptor, values);
+                    System.arraycopy(chunkResults, 0, results, offset, Math.min(rowCount, chunkResults.length));
                 }
             }
-            return sqlExecutor.insert(connection, sql, domainModelDescriptor, values);
+            return results;
         });
     }
 
-    private Object[] filterValues(DatabaseMetaData metaData, T dirtyObject, String[] columnNames) {
+    /**
+     * Returns the maximum rows in one multi-row INSERT by the limit of bind parameters
+     * of the database, or 0 if the database does not support it, then the rows
+     * will be inserted in JDBC batch.
+     */
+    protected int getMaxInsertRows(String databaseName, int parametersPerRow) {
+        int maxParameters;
+        int maxRows = Integer.MAX_VALUE;
+
+        if (MySQL.nameEquals(databaseName) || MariaDB.nameEquals(databaseName)
+                || H2Database.nameEquals(databaseName) || Clickhouse.nameEquals(databaseName))
+            maxParameters = 65535;
+        else if (PostgreSQL.nameEquals(databaseName))
+            maxParameters = 32767;
+        else if (SQLite.nameEquals(databaseName))
+            maxParameters = 999;
+        else if (MsSqlServer.nameEquals(databaseName)) {
+            maxParameters = 2100;
+            maxRows = 1000;
+        } else return 0;
+
+        return parametersPerRow == 0 ? maxRows : Math.min(maxRows, maxParameters / parametersPerRow);
+    }
+
+    private void writeGeneratedKeys(T[] dirtyObjects, int offset, int rowCount, Object[] generatedKeys) {
+        // Some databases return the key of last row only, the keys cannot be matched to rows
+        if (domainModelDescriptor.getPrimaryKey() == null || generatedKeys.length != rowCount)
+            return;
+
+        for (int i = 0; i < rowCount; i++) {
+            T dirtyObject = dirtyObjects[offset + i];
+            if (generatedKeys[i] != null && domainModelDescriptor.getPrimaryValue(dirtyObject) == null)
+                domainModelDescriptor.setGeneratedKey(dirtyObject, generatedKeys[i]);
+        }
+    }
+
+    private Object[] filterValues(Connection connection, SQLTemplate sqlTemplate,
+                                  T dirtyObject, String[] columnNames) {
         return Arrays.stream(columnNames)
                 .filter(columnName -> {
                     String fieldName = domainModelDescriptor.getFieldName(columnName);
                     return !domainModelDescriptor.hasDefaultValue(fieldName);
                 })
-                .map(castFunctionWithThrowable(columnName -> {
-                    String fieldName = domainModelDescriptor.getFieldName(columnName);
-                    FieldValue fieldValue = domainModelDescriptor.getFieldValue(dirtyObject, fieldName);
-
-                    ColumnTransition<T> columnTransition = domainModelDescriptor
-                            .getColumnTransition(fieldName);
-                    if (columnTransition != null) {
-                        return columnTransition.sinking(metaData, dirtyObject,
-                                domainModelDescriptor, fieldName, fieldValue);
-                    } else return fieldValue;
-                })).toArray(Object[]::new);
+                .map(castFunctionWithThrowable(columnName ->
+                        sinkValue(connection, sqlTemplate, dirtyObject, columnName)))
+                .toArray(Object[]::new);
+    }
+
+    /**
+     * Transforms the field value of column by the converter prepared for the database,
+     * or by the transition of field if it is not prepared.
+     */
+    private Object sinkValue(Connection connection, SQLTemplate sqlTemplate,
+                             T dirtyObject, String columnName) throws SQLException {
+        String fieldName = domainModelDescriptor.getFieldName(columnName);
+        FieldValue fieldValue = domainModelDescriptor.getFieldValue(dirtyObject, fieldName);
+
+        ColumnTransition.SinkingConverter sinkingConverter = sqlTemplate.getSinkingConverter(columnName);
+        if (sinkingConverter != null)
+            return sinkingConverter.sink(fieldValue);
+
+        ColumnTransition<T> columnTransition = domainModelDescriptor.getColumnTransition(fieldName);
+        if (columnTransition != null) {
+            return columnTransition.sinking(connection.getMetaData(), dirtyObject,
+                    domainModelDescriptor, fieldName, fieldValue);
+        } else return fieldValue;
     }
 
     @Override
@@ -153,46 +238,44 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
         PrimaryKey primaryKey = domainModelDescriptor.getPrimaryKey();
         ensurePrimaryKeyNotNull(primaryKey);
 
-        Quoter quoter = Databases.getQuoter();
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            DatabaseMetaData metaData = connection.getMetaData();
-            String[] rawColumnNames = domainModelDescriptor.getUpdatableColumns();
-
-            String[] columnNames = Arrays.stream(rawColumnNames)
-                    .filter(rawColumnName -> {
-                        if (domainModelDescriptor.skipNullOnUpdate()) {
-                            String fieldName = domainModelDescriptor.getFieldName(rawColumnName);
+            String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+            SQLTemplate sqlTemplate = getSQLTemplate(databaseName);
+            String[] updatableColumns = sqlTemplate.getUpdatableColumns();
+
+            int[] columnIndexes = null;
+            if (domainModelDescriptor.skipNullOnUpdate()) {
+                columnIndexes = IntStream.range(0, updatableColumns.length)
+                        .filter(i -> {
+                            String fieldName = domainModelDescriptor.getFieldName(updatableColumns[i]);
                             return !domainModelDescriptor.getFieldValue(dirtyObject, fieldName).isNull();
-                        } else return true;
-                    }).toArray(String[]::new);
+                        }).toArray();
+                if (columnIndexes.length == updatableColumns.length)
+                    columnIndexes = null;
+            }
+
+            String[] columnNames = columnIndexes == null ? updatableColumns : Arrays.stream(columnIndexes)
+                    .mapToObj(i -> updatableColumns[i]).toArray(String[]::new);
+            if (columnNames.length == 0)
+                throw new PersistenceException(String.format("Empty updates for %s ",
+                        domainModelDescriptor.getTableName()));
 
             Object[] values = Arrays.stream(columnNames)
-                    .map(castFunctionWithThrowable(columnName -> {
-                        String fieldName = domainModelDescriptor.getFieldName(columnName);
-                        ColumnTransition<T> columnTransition = domainModelDescriptor
-                                .getColumnTransition(fieldName);
-                        FieldValue fieldValue = domainModelDescriptor.getFieldValue(dirtyObject, fieldName);
-                        if (columnTransition != null)
-                            return columnTransition.sinking(connection.getMetaData(), dirtyObject,
-                                    domainModelDescriptor, fieldName, fieldValue);
-                        else return fieldValue;
-                    })).toArray(Object[]::new);
-
-            String databaseName = metaData.getDatabaseProductName();
-            String[] quotedColumnNames = quoter.quoteColumnNames(databaseName, columnNames);
-            StringBuilder updatesSql = new StringBuilder();
-            Arrays.stream(quotedColumnNames).forEach(columnName ->
-                    updatesSql.append(columnName).append("=").append("?").append(","));
-
-            ensureNotBlank(updatesSql.toString(), "updates");
-            updatesSql.delete(updatesSql.length() - 1, updatesSql.length());
-
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
-            String sql = formatUpdateSql(tableName, updatesSql.toString(), String.format("%s = ?",
-                    quoter.quoteColumnName(databaseName, primaryKey.name())));
-
-            sqlExecutor.execute(connection, sql, ArrayUtil.appendElement(Object.class, values, id));
+                    .map(castFunctionWithThrowable(columnName ->
+                            sinkValue(connection, sqlTemplate, dirtyObject, columnName)))
+                    .toArray(Object[]::new);
+
+            String sql = columnIndexes == null ? sqlTemplate.getUpdateSql()
+                    : formatUpdateSql(sqlTemplate.getTableName(),
+                    formatUpdates(sqlTemplate.getQuotedUpdatableColumns(), columnIndexes),
+                    sqlTemplate.getPrimaryPredicate());
+
+            try {
+                sqlExecutor.execute(connection, sql, ArrayUtil.appendElement(Object.class, values, id));
+            } finally {
+                PrimaryKeyCache.invalidate(connection, domainModelDescriptor.getDomainModelClass(), id);
+            }
 
             return dirtyObject;
         });
@@ -206,14 +289,17 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
         ensureNotBlank(updates, "updates");
         ensureNotBlank(updates, "predication");
 
-        Quoter quoter = Databases.getQuoter();
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
 
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            String databaseName = connection.getMetaData().getDatabaseProductName();
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
+            String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+            String tableName = getSQLTemplate(databaseName).getTableName();
             String sql = formatUpdateSql(tableName, updates, predication);
-            return sqlExecutor.execute(connection, sql);
+            try {
+                return sqlExecutor.execute(connection, sql);
+            } finally {
+                PrimaryKeyCache.invalidate(connection, domainModelDescriptor.getDomainModelClass(), null);
+            }
         });
     }
 
@@ -222,13 +308,16 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
         Objects.requireNonNull(predication, "The criteria cannot be null");
         ensureNotBlank(predication, "predication");
 
-        Quoter quoter = Databases.getQuoter();
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            String databaseName = connection.getMetaData().getDatabaseProductName();
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
+            String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+            String tableName = getSQLTemplate(databaseName).getTableName();
             String sql = formatDeleteSql(tableName, predication);
-            return sqlExecutor.execute(connection, sql);
+            try {
+                return sqlExecutor.execute(connection, sql);
+            } finally {
+                PrimaryKeyCache.invalidate(connection, domainModelDescriptor.getDomainModelClass(), null);
+            }
         });
     }
 
@@ -239,15 +328,16 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
         PrimaryKey primaryKey = domainModelDescriptor.getPrimaryKey();
         ensurePrimaryKeyNotNull(primaryKey);
 
-        Quoter quoter = Databases.getQuoter();
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            String databaseName = connection.getMetaData().getDatabaseProductName();
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
-            String quotedPrimaryName = quoter.quoteColumnName(databaseName, primaryKey.name());
-            String sql = formatDeleteSql(tableName, String.format("%s = %s", quotedPrimaryName, quoter.quoteValue(id)));
+            String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+            String sql = getSQLTemplate(databaseName).getDeleteSql();
 
-            return sqlExecutor.execute(connection, sql);
+            try {
+                return sqlExecutor.execute(connection, sql, id);
+            } finally {
+                PrimaryKeyCache.invalidate(connection, domainModelDescriptor.getDomainModelClass(), id);
+            }
         });
     }
 
@@ -256,8 +346,13 @@ public class DefaultPersistence<T> extends AbstractPersistence<T> {
         Objects.requireNonNull(sql, "The sql cannot be null");
 
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
-        return Databases.execute(dataSourceName, (connection, sqlExecutor) ->
-                sqlExecutor.execute(connection, sql));
+        return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
+            try {
+                return sqlExecutor.execute(connection, sql);
+            } finally {
+                PrimaryKeyCache.invalidate(connection, domainModelDescriptor.getDomainModelClass(), null);
+            }
+        });
     }
 
     private void ensurePrimaryKeyNotNull(PrimaryKey primaryKey) throws PersistenceException {
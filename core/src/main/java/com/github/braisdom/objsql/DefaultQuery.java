@@ -16,14 +16,19 @@
  */
 package com.github.braisdom.objsql;
 
+import com.github.braisdom.objsql.relation.LazyRelationLoader;
 import com.github.braisdom.objsql.relation.Relationship;
 import com.github.braisdom.objsql.relation.RelationshipNetwork;
 import com.github.braisdom.objsql.util.StringUtil;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * The default implementation of <code>Query</code> with JavaBean
@@ -32,6 +37,10 @@ import java.util.Objects;
 public class DefaultQuery<T> extends AbstractQuery<T> {
 
     private static final String SELECT_STATEMENT = "SELECT %s FROM %s";
+    private static final String COUNT_STATEMENT = "SELECT COUNT(*) FROM (%s) T";
+    private static final String COUNT_PROJECTION = "COUNT(*)";
+    private static final Pattern SEEK_KEY_PATTERN = Pattern
+            .compile("^([\\w$.`\"\\[\\]]+)(?:\\s+(ASC|DESC))?$", Pattern.CASE_INSENSITIVE);
 
     public DefaultQuery(Class<T> domainModelClass) {
         super(domainModelClass);
@@ -39,22 +48,31 @@ public class DefaultQuery<T> extends AbstractQuery<T> {
 
     @Override
     public List<T> execute(Relationship... relationships) throws SQLException {
-        Quoter quoter = Databases.getQuoter();
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
         return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
-            String databaseName = connection.getMetaData().getDatabaseProductName();
-            String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
-            String sql = createQuerySQL(tableName, projection, filter, groupBy,
-                    having, orderBy, offset, limit);
-            List rows = sqlExecutor.query(connection, sql, domainModelDescriptor, params);
+            List<Object> queryParams = new ArrayList<>();
+            String sql = createQuerySQL(dataSourceName, connection, queryParams);
+            List rows = sqlExecutor.query(connection, sql, domainModelDescriptor, queryParams.toArray());
 
             if (relationships.length > 0 && rows.size() > 0)
-                new RelationshipNetwork(connection, domainModelDescriptor).process(rows, relationships);
+                new RelationshipNetwork(connection, domainModelDescriptor, relationParallelism)
+                        .process(rows, relationships);
 
+            LazyRelationLoader.attach(domainModelDescriptor.getDomainModelClass(), rows);
             return rows;
         });
     }
 
+    @Override
+    public Stream<T> stream() throws SQLException {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        return Databases.stream(dataSourceName, (connection, sqlExecutor) -> {
+            List<Object> queryParams = new ArrayList<>();
+            String sql = createQuerySQL(dataSourceName, connection, queryParams);
+            return sqlExecutor.stream(connection, sql, domainModelDescriptor, fetchSize, queryParams.toArray());
+        });
+    }
+
     @Override
     public T queryFirst(Relationship... relationships) throws SQLException {
         List<T> results = execute(relationships);
@@ -63,8 +81,165 @@ public class DefaultQuery<T> extends AbstractQuery<T> {
         return null;
     }
 
-    private String createQuerySQL(String tableName, String projections, String filter, String groupBy,
-                                  String having, String orderBy, int offset, int limit) {
+    @Override
+    public <R> R executeScalar(Class<R> resultClass) throws SQLException {
+        Objects.requireNonNull(resultClass, "The resultClass cannot be null");
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        Object scalar = Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
+            List<Object> queryParams = new ArrayList<>();
+            String sql = createQuerySQL(dataSourceName, connection, queryParams);
+            return sqlExecutor.queryScalar(connection, sql, queryParams.toArray());
+        });
+        return convertScalar(scalar, resultClass);
+    }
+
+    /**
+     * Counts the rows in the table directly, or counts the rows of the query as a
+     * derived table if it is grouped or paginated.
+     */
+    @Override
+    public long count() throws SQLException {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        Object count = Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
+            List<Object> queryParams = new ArrayList<>();
+            boolean paginated = offset > 0 || limit > 0;
+            String sql = StringUtil.isBlank(groupBy) && StringUtil.isBlank(having) && !paginated
+                    ? createQuerySQL(dataSourceName, connection, queryParams, COUNT_PROJECTION, false)
+                    : String.format(COUNT_STATEMENT, createQuerySQL(dataSourceName, connection,
+                    queryParams, projection, paginated));
+            return sqlExecutor.queryScalar(connection, sql, queryParams.toArray());
+        });
+        return count == null ? 0L : ((Number) count).longValue();
+    }
+
+    @Override
+    public List<Object[]> executeRows() throws SQLException {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
+            List<Object> queryParams = new ArrayList<>();
+            String sql = createQuerySQL(dataSourceName, connection, queryParams);
+            return sqlExecutor.queryRows(connection, sql, queryParams.toArray());
+        });
+    }
+
+    private <R> R convertScalar(Object scalar, Class<R> resultClass) {
+        if (scalar == null || resultClass.isInstance(scalar))
+            return (R) scalar;
+
+        if (scalar instanceof Number) {
+            Number number = (Number) scalar;
+            if (Long.class.equals(resultClass))
+                return (R) Long.valueOf(number.longValue());
+            else if (Integer.class.equals(resultClass))
+                return (R) Integer.valueOf(number.intValue());
+            else if (Double.class.equals(resultClass))
+                return (R) Double.valueOf(number.doubleValue());
+            else if (Float.class.equals(resultClass))
+                return (R) Float.valueOf(number.floatValue());
+            else if (BigDecimal.class.equals(resultClass))
+                return (R) new BigDecimal(number.toString());
+            else if (BigInteger.class.equals(resultClass))
+                return (R) new BigDecimal(number.toString()).toBigInteger();
+        }
+
+        if (String.class.equals(resultClass))
+            return (R) scalar.toString();
+
+        throw new ClassCastException(String.format("The %s cannot be converted to %s",
+                scalar.getClass().getName(), resultClass.getName()));
+    }
+
+    private String createQuerySQL(String dataSourceName, Connection connection,
+                                  List<Object> queryParams) throws SQLException {
+        return createQuerySQL(dataSourceName, connection, queryParams, projection, true);
+    }
+
+    private String createQuerySQL(String dataSourceName, Connection connection, List<Object> queryParams,
+                                  String projection, boolean ordered) throws SQLException {
+        Quoter quoter = Databases.getQuoter();
+        String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+        DatabaseType databaseType = DatabaseType.of(databaseName);
+        String tableName = quoter.quoteTableName(databaseName, domainModelDescriptor.getTableName());
+        String queryFilter = filter;
+        String queryOrderBy = orderBy;
+
+        if (params != null)
+            queryParams.addAll(Arrays.asList(params));
+
+        if (seekValues != null && seekValues.length > 0) {
+            if (StringUtil.isBlank(queryOrderBy))
+                queryOrderBy = quoter.quoteColumnName(databaseName, domainModelDescriptor.getPrimaryKey().name());
+            String seekFilter = createSeekFilter(databaseType, queryOrderBy, queryParams);
+            queryFilter = StringUtil.isBlank(queryFilter) ? seekFilter
+                    : String.format("(%s) AND (%s)", queryFilter, seekFilter);
+        }
+
+        return createQuerySQL(databaseType, tableName, projection, queryFilter, groupBy,
+                having, ordered ? queryOrderBy : null, offset, limit);
+    }
+
+    /**
+     * Creates the predicate of rows after the seek values in the order. The row value
+     * comparison, such as "(a, b) > (?, ?)", is used in the databases which match it
+     * with indexes, otherwise the comparison is expanded as
+     * "a >= ? AND (a > ? OR (a = ? AND b > ?))", whose leading condition
+     * limits the range of index scanning. The keys must be plain columns, the expressions
+     * such as "COALESCE(a, b) DESC" cannot be compared with the values of row.
+     */
+    private String createSeekFilter(DatabaseType databaseType, String orderBy, List<Object> queryParams) {
+        String[] orders = orderBy.split(",");
+        if (orders.length != seekValues.length)
+            throw new IllegalArgumentException(String.format("The seek values %s mismatch the order '%s'",
+                    Arrays.toString(seekValues), orderBy));
+
+        String[] keys = new String[orders.length];
+        boolean[] descending = new boolean[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            Matcher matcher = SEEK_KEY_PATTERN.matcher(orders[i].trim());
+            if (!matcher.matches())
+                throw new IllegalArgumentException(String.format("The order '%s' cannot be sought, " +
+                        "the keys should be columns with an optional ASC or DESC", orderBy));
+            keys[i] = matcher.group(1);
+            descending[i] = "DESC".equalsIgnoreCase(matcher.group(2));
+        }
+
+        boolean sameDirection = true;
+        for (boolean keyDescending : descending)
+            sameDirection &= keyDescending == descending[0];
+
+        if (keys.length > 1 && sameDirection
+                && (databaseType == DatabaseType.PostgreSQL || databaseType == DatabaseType.SQLite)) {
+            queryParams.addAll(Arrays.asList(seekValues));
+            return String.format("(%s) %s (%s)", String.join(", ", keys), descending[0] ? "<" : ">",
+                    String.join(", ", Collections.nCopies(keys.length, "?")));
+        }
+
+        StringBuilder seekFilter = new StringBuilder();
+        if (keys.length > 1) {
+            seekFilter.append(keys[0]).append(descending[0] ? " <= ?" : " >= ?").append(" AND ");
+            queryParams.add(seekValues[0]);
+        }
+
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            List<String> conditions = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                conditions.add(keys[j] + " = ?");
+                queryParams.add(seekValues[j]);
+            }
+            conditions.add(keys[i] + (descending[i] ? " < ?" : " > ?"));
+            queryParams.add(seekValues[i]);
+            alternatives.add(conditions.size() == 1 ? conditions.get(0)
+                    : String.format("(%s)", String.join(" AND ", conditions)));
+        }
+
+        if (alternatives.size() == 1)
+            return seekFilter.append(alternatives.get(0)).toString();
+        return seekFilter.append("(").append(String.join(" OR ", alternatives)).append(")").toString();
+    }
+
+    private String createQuerySQL(DatabaseType databaseType, String tableName, String projections, String filter,
+                                  String groupBy, String having, String orderBy, int offset, int limit) {
         Objects.requireNonNull(tableName, "The tableName cannot be null");
 
         StringBuilder sql = new StringBuilder();
@@ -86,11 +261,7 @@ public class DefaultQuery<T> extends AbstractQuery<T> {
         if (!StringUtil.isBlank(orderBy))
             sql.append(" ORDER BY ").append(orderBy);
 
-        if (offset > 0)
-            sql.append(" OFFSET ").append(offset);
-
-        if (limit > 0)
-            sql.append(" LIMIT ").append(limit);
+        sql.append(databaseType.formatPagination(offset, limit));
 
         return sql.toString();
     }
@@ -16,15 +16,23 @@
  */
 package com.github.braisdom.objsql;
 
+import com.github.braisdom.objsql.jdbc.DbUtils;
 import com.github.braisdom.objsql.jdbc.QueryRunner;
 import com.github.braisdom.objsql.jdbc.ResultSetHandler;
+import com.github.braisdom.objsql.jdbc.ResultSetIterator;
+import com.github.braisdom.objsql.jdbc.StatementCache;
+import com.github.braisdom.objsql.jdbc.handlers.ArrayListHandler;
+import com.github.braisdom.objsql.jdbc.handlers.ScalarHandler;
 import com.github.braisdom.objsql.reflection.PropertyUtils;
 import com.github.braisdom.objsql.transition.ColumnTransition;
+import com.github.braisdom.objsql.util.FunctionWithThrowable;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DefaultSQLExecutor<T> implements SQLExecutor<T> {
 
@@ -35,33 +43,148 @@ public class DefaultSQLExecutor<T> implements SQLExecutor<T> {
         queryRunner = new QueryRunner(true);
     }
 
+    /**
+     * Creates the executor with a cache of prepared statements, which reuses the
+     * statements in the same connection.
+     *
+     * @see StatementCache
+     */
+    public DefaultSQLExecutor(StatementCache statementCache) {
+        this();
+        queryRunner.setStatementCache(statementCache);
+    }
+
+    public StatementCache getStatementCache() {
+        return queryRunner.getStatementCache();
+    }
+
     @Override
     public List<T> query(Connection connection, String sql, TableRowAdapter tableRowAdapter,
                          Object... params) throws SQLException {
-        return Databases.sqlBenchmarking(() ->
-                queryRunner.query(connection, sql,
-                        new DomainModelListHandler(tableRowAdapter, connection.getMetaData()), params), logger, sql, params);
+        return measure(() -> queryRunner.query(connection, sql,
+                new DomainModelListHandler(tableRowAdapter, connection.getMetaData(), getDatabaseType(connection)),
+                params), sql, params, List::size, 1);
+    }
+
+    @Override
+    public Stream<T> stream(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                            int fetchSize, Object... params) throws SQLException {
+        ResultSet rs = measure(() -> queryRunner.queryCursor(connection, sql, fetchSize, params),
+                sql, params, cursor -> -1, 1);
+        try {
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            ResultSetMetaData metaData = rs.getMetaData();
+            RowMappingPlan rowMappingPlan = RowMappingPlan.compile(tableRowAdapter,
+                    getDatabaseType(connection), metaData);
+            Spliterator<Object[]> rows = Spliterators.spliteratorUnknownSize(new ResultSetIterator(rs),
+                    Spliterator.ORDERED | Spliterator.NONNULL);
+
+            return StreamSupport.stream(rows, false)
+                    .map(FunctionWithThrowable.castFunctionWithThrowable(row ->
+                            (T) rowMappingPlan.mapRow(row, tableRowAdapter, databaseMetaData, metaData)))
+                    .onClose(() -> closeCursor(rs));
+        } catch (SQLException | RuntimeException ex) {
+            closeCursor(rs);
+            throw ex;
+        }
+    }
+
+    @Override
+    public Object queryScalar(Connection connection, String sql, Object... params) throws SQLException {
+        return measure(() -> queryRunner.query(connection, sql, new ScalarHandler<>(), params),
+                sql, params, scalar -> 1, 1);
+    }
+
+    @Override
+    public List<Object[]> queryRows(Connection connection, String sql, Object... params) throws SQLException {
+        return measure(() -> queryRunner.query(connection, sql, new ArrayListHandler(), params),
+                sql, params, List::size, 1);
     }
 
     @Override
     public T insert(Connection connection, String sql, TableRowAdapter tableRowAdapter,
                     Object... params) throws SQLException {
-        return (T) Databases.sqlBenchmarking(() ->
-                queryRunner.insert(connection, sql,
-                        new DomainModelHandler(tableRowAdapter, connection.getMetaData()), params), logger, sql, params);
+        return (T) measure(() -> queryRunner.insert(connection, sql,
+                new DomainModelHandler(tableRowAdapter, connection.getMetaData()), params),
+                sql, params, domainObject -> 1, 1);
     }
 
     @Override
     public int[] insert(Connection connection, String sql, TableRowAdapter tableRowAdapter,
                         Object[][] params) throws SQLException {
-        return Databases.sqlBenchmarking(() ->
-                queryRunner.insertBatch(connection, sql, params), logger, sql, params);
+        return measure(() -> queryRunner.insertBatch(connection, sql, params),
+                sql, params, updateCounts -> updateCounts.length, params.length);
+    }
+
+    @Override
+    public Object[] insertRows(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                               Object... params) throws SQLException {
+        String primaryColumnName = tableRowAdapter instanceof DomainModelDescriptor
+                ? ((DomainModelDescriptor) tableRowAdapter).getPrimaryKey().name() : null;
+        return measure(() -> queryRunner.insert(connection, sql, new GeneratedKeysHandler(primaryColumnName), params),
+                sql, params, generatedKeys -> -1, 1);
     }
 
     @Override
     public int execute(Connection connection, String sql, Object... params) throws SQLException {
-        return Databases.sqlBenchmarking(() ->
-                queryRunner.update(connection, sql, params), logger, sql, params);
+        return measure(() -> queryRunner.update(connection, sql, params),
+                sql, params, updateCount -> updateCount, 1);
+    }
+
+    @Override
+    public void releaseConnection(Connection connection) {
+        StatementCache statementCache = queryRunner.getStatementCache();
+        if (statementCache != null)
+            statementCache.release(connection);
+    }
+
+    /**
+     * Measures the statement by <code>MetricsRecorder</code>, and logs it only if the
+     * logger enabled, so that the parameters will not be formatted in vain.
+     */
+    private <R> R measure(Execution<R> execution, String sql, Object[] params,
+                          ToIntFunction<R> rowCounter, int batchSize) throws SQLException {
+        MetricsRecorder metricsRecorder = Databases.getMetricsRecorder();
+        String dataSourceName = Databases.getCurrentDataSourceName();
+        long begin = System.nanoTime();
+        R result;
+
+        try {
+            result = execution.apply();
+        } catch (SQLException | IllegalArgumentException | ClassCastException | NullPointerException ex) {
+            metricsRecorder.recordError(dataSourceName, sql, System.nanoTime() - begin, ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            metricsRecorder.recordError(dataSourceName, sql, System.nanoTime() - begin, ex);
+            logger.error(ex.getMessage(), ex);
+            throw new SQLException(ex.getMessage(), ex);
+        }
+
+        long elapsedNanos = System.nanoTime() - begin;
+        metricsRecorder.recordExecution(dataSourceName, sql, elapsedNanos, rowCounter.applyAsInt(result), batchSize);
+        if (logger.isInfoEnabled())
+            logger.info(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql, params);
+        return result;
+    }
+
+    private static DatabaseType getDatabaseType(Connection connection) throws SQLException {
+        return DatabaseType.of(Databases.getDatabaseProductName(Databases.getCurrentDataSourceName(), connection));
+    }
+
+    @FunctionalInterface
+    private interface Execution<R> {
+        R apply() throws SQLException;
+    }
+
+    private void closeCursor(ResultSet rs) {
+        Statement statement = null;
+        try {
+            statement = rs.getStatement();
+        } catch (SQLException ex) {
+            logger.error(ex.getMessage(), ex);
+        } finally {
+            DbUtils.closeQuietly(null, statement, rs);
+        }
     }
 }
 
@@ -69,11 +192,13 @@ class DomainModelListHandler implements ResultSetHandler<List> {
 
     private final TableRowAdapter tableRowDescriptor;
     private final DatabaseMetaData databaseMetaData;
+    private final DatabaseType databaseType;
 
     public DomainModelListHandler(TableRowAdapter tableRowDescriptor,
-                                  DatabaseMetaData databaseMetaData) {
+                                  DatabaseMetaData databaseMetaData, DatabaseType databaseType) {
         this.tableRowDescriptor = tableRowDescriptor;
         this.databaseMetaData = databaseMetaData;
+        this.databaseType = databaseType;
     }
 
     @Override
@@ -82,46 +207,50 @@ class DomainModelListHandler implements ResultSetHandler<List> {
 
         if (!rs.next()) return results;
 
+        ResultSetMetaData metaData = rs.getMetaData();
+        RowMappingPlan rowMappingPlan = RowMappingPlan.compile(tableRowDescriptor, databaseType, metaData);
         do {
-            results.add(createBean(rs));
+            results.add(rowMappingPlan.mapRow(rs, tableRowDescriptor, databaseMetaData, metaData));
         } while (rs.next());
 
         return results;
     }
+}
 
-    private Object createBean(ResultSet rs) throws SQLException {
-        Object bean = tableRowDescriptor.newInstance();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
+/**
+ * Reads the generated keys of rows, the key is the column of primary key, such as the whole
+ * row returned by PostgreSQL, or the only column. No key will be returned if the column of
+ * primary key is absent in multiple columns.
+ */
+class GeneratedKeysHandler implements ResultSetHandler<Object[]> {
 
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnLabel(i);
-            String fieldName = tableRowDescriptor.getFieldName(columnName);
-            Object rawColumnValue = rs.getObject(columnName);
-
-            if (fieldName != null) {
-                if (tableRowDescriptor.isTransitable(fieldName)) {
-                    ColumnTransition columnTransition = tableRowDescriptor.getColumnTransition(fieldName);
-                    Object value = columnTransition == null ? rawColumnValue : columnTransition
-                            .rising(databaseMetaData, metaData, bean, tableRowDescriptor, fieldName, rawColumnValue);
-
-                    Class fieldType = tableRowDescriptor.getFieldType(fieldName);
-                    if (fieldType != null && value != null &&
-                            !fieldType.isAssignableFrom(value.getClass()))
-                        throw new ClassCastException(String.format("Inconsistent data types field:%s(%s) " +
-                                        "vs column:%s(%s) in %s", fieldName, fieldType.getName(), columnName,
-                                value.getClass().getName(), bean.getClass().getName()));
-
-                    tableRowDescriptor.setFieldValue(bean, fieldName, value);
-                } else
-                    tableRowDescriptor.setFieldValue(bean, fieldName, rawColumnValue);
-            } else {
-                if (PropertyUtils.supportRawAttribute(bean))
-                    PropertyUtils.writeRawAttribute(bean, columnName, rawColumnValue);
-            }
-        }
+    private final String primaryColumnName;
 
-        return bean;
+    public GeneratedKeysHandler(String primaryColumnName) {
+        this.primaryColumnName = primaryColumnName;
+    }
+
+    @Override
+    public Object[] handle(ResultSet rs) throws SQLException {
+        int keyIndex = findKeyIndex(rs.getMetaData());
+        List<Object> generatedKeys = new ArrayList<>();
+        if (keyIndex < 1)
+            return generatedKeys.toArray();
+
+        while (rs.next())
+            generatedKeys.add(rs.getObject(keyIndex));
+        return generatedKeys.toArray();
+    }
+
+    private int findKeyIndex(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        if (columnCount == 1)
+            return 1;
+        for (int i = 1; i <= columnCount && primaryColumnName != null; i++) {
+            if (primaryColumnName.equalsIgnoreCase(metaData.getColumnLabel(i)))
+                return i;
+        }
+        return -1;
     }
 }
 
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The validator of Bean Validation, the factory and validator are built once and
+ * shared by all threads, and the beans of a class without constraints are skipped.
+ */
+class DefaultValidator implements Validator {
+
+    private static final Validator.Violation[] NO_VIOLATIONS = new Validator.Violation[0];
+
+    private final Map<Class, Boolean> constrainedClasses = new ConcurrentHashMap<>();
+    private volatile javax.validation.Validator validator;
+
+    @Override
+    public Violation[] validate(Object bean) {
+        javax.validation.Validator validator = getValidator();
+        boolean constrained = constrainedClasses.computeIfAbsent(bean.getClass(),
+                beanClass -> validator.getConstraintsForClass(beanClass).isBeanConstrained());
+        if (!constrained)
+            return NO_VIOLATIONS;
+
+        Set<ConstraintViolation<Object>> rawViolations = validator.validate(bean);
+        return rawViolations.stream().map(violation ->
+                new Validator.Violation(violation.getRootBeanClass(), violation.getMessage(), violation.getInvalidValue(),
+                        violation.getPropertyPath().toString()))
+                .toArray(Validator.Violation[]::new);
+    }
+
+    private javax.validation.Validator getValidator() {
+        if (validator == null) {
+            synchronized (this) {
+                if (validator == null)
+                    validator = Validation.buildDefaultValidatorFactory().getValidator();
+            }
+        }
+        return validator;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+/**
+ * The field accessor generated by the annotation processor for every domain model
+ * as a nested class named <code>$Accessor</code>, it creates the instance and reads or
+ * writes the fields with a switch on the field name, so that no reflection is required
+ * for mapping rows.
+ *
+ * <p>The fields which have a customized getter or setter are not included in the switch,
+ * and are delegated to the <code>PropertyUtils</code> as before. The values of primitive
+ * fields are converted by <code>PropertyUtils.toPrimitiveValue</code>, so that the widening,
+ * such as an Integer written to a long field, is the same as the setters.</p>
+ *
+ * @param <T> the domain model class
+ * @see ModelMetadata#getAccessor()
+ */
+public interface DomainModelAccessor<T> {
+
+    /**
+     * The simple name of generated nested class, which cannot be declared in Java
+     * source by convention.
+     */
+    String CLASS_NAME = "$Accessor";
+
+    T newInstance();
+
+    Object getFieldValue(T bean, String fieldName);
+
+    void setFieldValue(T bean, String fieldName, Object value);
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A factory for the <code>Executor</code> which runs the asynchronous operations of
+ * a data source, such as <code>Query.executeAsync</code>. The executor should be bounded
+ * by the capacity of the connection pool of the data source, because each task
+ * holds a connection while running.
+ *
+ * @see Databases#installExecutorFactory(ExecutorFactory)
+ */
+@FunctionalInterface
+public interface ExecutorFactory {
+
+    /**
+     * Returns the executor for the data source, it will be invoked for each
+     * asynchronous operation, so the executor should be cached by the factory.
+     *
+     * @param dataSourceName the name of data source
+     * @return an executor for the data source
+     */
+    Executor getExecutor(String dataSourceName);
+}
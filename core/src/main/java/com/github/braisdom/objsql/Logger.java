@@ -22,9 +22,24 @@ package com.github.braisdom.objsql;
  */
 public interface Logger {
 
+    /**
+     * Returns false if the info will be discarded, so that the caller can
+     * skip formatting the SQL and parameters.
+     */
+    default boolean isInfoEnabled() {
+        return true;
+    }
+
     void debug(long elapsedTime, String sql, Object[] params);
 
     void info(long elapsedTime, String sql, Object[] params);
 
+    /**
+     * Logs the statement which needs attention, such as a slow query.
+     */
+    default void warn(long elapsedTime, String sql, Object[] params) {
+        info(elapsedTime, sql, params);
+    }
+
     void error(String message, Throwable throwable);
 }
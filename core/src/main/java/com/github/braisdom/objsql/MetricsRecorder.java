@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+/**
+ * It defines a extension point for recording the metrics of SQL statements, such as
+ * the latency, rows and errors. It is invoked for every statement executed by
+ * <code>DefaultSQLExecutor</code> in the calling thread, so the implementation should be
+ * lock-free and cheap, the work such as formatting or logging should be limited to the
+ * rare statements, or be handed off to another thread.
+ *
+ * @see DefaultMetricsRecorder
+ * @see Databases#installMetricsRecorder(MetricsRecorder)
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Records a statement executed successfully.
+     *
+     * @param dataSourceName the data source of statement, it may be null if unknown
+     * @param sql the SQL executed, the values are bound as parameters in general
+     * @param elapsedNanos the nanoseconds elapsed
+     * @param rowCount the rows queried or affected, -1 if unknown
+     * @param batchSize the number of parameter sets executed in batch, 1 for a single statement
+     */
+    void recordExecution(String dataSourceName, String sql, long elapsedNanos, int rowCount, int batchSize);
+
+    /**
+     * Records a statement failed.
+     */
+    void recordError(String dataSourceName, String sql, long elapsedNanos, Throwable throwable);
+}
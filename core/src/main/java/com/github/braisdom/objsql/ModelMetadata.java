@@ -0,0 +1,414 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.Column;
+import com.github.braisdom.objsql.annotations.DomainModel;
+import com.github.braisdom.objsql.annotations.PrimaryKey;
+import com.github.braisdom.objsql.annotations.Transient;
+import com.github.braisdom.objsql.reflection.ClassUtils;
+import com.github.braisdom.objsql.reflection.ReflectionException;
+import com.github.braisdom.objsql.relation.LazyRelationLoader;
+import com.github.braisdom.objsql.transition.ColumnTransition;
+import com.github.braisdom.objsql.util.StringUtil;
+import com.github.braisdom.objsql.util.WordUtil;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.JDBCType;
+import java.sql.SQLType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The immutable metadata of a domain model class, it is resolved from the annotations
+ * and fields only once, and shared by all descriptors, queries and persistences
+ * of the class, so that no reflection is required in the hot path.
+ *
+ * @param <T> the domain model class
+ * @since 1.3.8
+ */
+public final class ModelMetadata<T> {
+
+    private static final List<Class> COLUMNIZABLE_FIELD_TYPES = Arrays.asList(new Class[]{
+            String.class, char.class,
+            Long.class, long.class,
+            Integer.class, int.class,
+            Short.class, short.class,
+            Float.class, float.class,
+            Double.class, double.class,
+            BigInteger.class, BigDecimal.class
+    });
+
+    private static final Map<Class<?>, ModelMetadata<?>> metadataCache = new ConcurrentHashMap<>();
+
+    private final Class<T> domainModelClass;
+    private final DomainModel domainModel;
+    private final String tableName;
+    private final String dataSourceName;
+    private final PrimaryKey primaryKey;
+    private final Field primaryField;
+
+    private final Field[] fields;
+    private final Map<String, Field> fieldsByName;
+    private final Map<String, Field> columnToField;
+    private final Map<String, String> fieldToColumn;
+    private final Map<String, String> defaultValues;
+    private final Map<String, SQLType> sqlTypes;
+    private final Map<String, ColumnTransition> columnTransitions;
+
+    private final DomainModelAccessor<T> accessor;
+    private volatile Constructor<T> constructor;
+    private volatile Field[] instanceFields;
+
+    private final Field[] columnizableFields;
+    private final Field[] insertableFields;
+    private final Field[] updatableFields;
+
+    private final String[] columns;
+    private final String[] insertableColumns;
+    private final String[] insertableColumnsWithoutPrimaryKey;
+    private final String[] updatableColumns;
+
+    private ModelMetadata(Class<T> domainModelClass) {
+        this.domainModelClass = domainModelClass;
+        this.domainModel = domainModelClass.getAnnotation(DomainModel.class);
+
+        Field[] fields = domainModelClass.getDeclaredFields();
+        this.fields = fields;
+
+        this.primaryKey = resolvePrimaryKey(fields);
+        this.primaryField = resolvePrimaryField(fields);
+        this.fieldsByName = new HashMap<>();
+        this.columnToField = new HashMap<>();
+        this.fieldToColumn = new HashMap<>();
+        this.defaultValues = new HashMap<>();
+        this.sqlTypes = new HashMap<>();
+        this.columnTransitions = new HashMap<>();
+
+        for (Field field : fields) {
+            fieldsByName.put(field.getName(), field);
+            fieldToColumn.put(field.getName(), resolveColumnName(field));
+            prepareColumnToField(field);
+            prepareColumnAttributes(field);
+        }
+
+        if (domainModel == null) {
+            this.tableName = null;
+            this.dataSourceName = null;
+            this.columnizableFields = new Field[0];
+            this.insertableFields = new Field[0];
+            this.updatableFields = new Field[0];
+        } else {
+            this.tableName = StringUtil.isBlank(domainModel.tableName())
+                    ? WordUtil.tableize(domainModelClass.getSimpleName()) : domainModel.tableName();
+            this.dataSourceName = StringUtil.isBlank(domainModel.dataSource())
+                    ? ConnectionFactory.DEFAULT_DATA_SOURCE_NAME : domainModel.dataSource();
+            this.columnizableFields = filterColumnizableFields(true, true, field -> isColumnizable(field.getType()));
+            this.insertableFields = filterColumnizableFields(true, false, field -> isColumnizable(field.getType()));
+            this.updatableFields = filterColumnizableFields(false, true, field -> isColumnizable(field.getType()));
+        }
+
+        this.columns = toColumnNames(columnizableFields);
+        this.insertableColumns = toColumnNames(Arrays.stream(insertableFields)
+                .filter(field -> domainModel.autoGeneratedPrimaryKey() ? field.getAnnotation(PrimaryKey.class) == null : true)
+                .toArray(Field[]::new));
+        this.insertableColumnsWithoutPrimaryKey = toColumnNames(Arrays.stream(insertableFields)
+                .filter(field -> field.getAnnotation(PrimaryKey.class) == null)
+                .toArray(Field[]::new));
+        this.updatableColumns = toColumnNames(Arrays.stream(updatableFields)
+                .filter(field -> field.getAnnotation(PrimaryKey.class) == null)
+                .toArray(Field[]::new));
+        this.accessor = resolveAccessor();
+    }
+
+    /**
+     * Returns the metadata of the class, it will be resolved at the first time
+     * and cached for the lifetime of the application.
+     */
+    public static <T> ModelMetadata<T> of(Class<T> domainModelClass) {
+        Objects.requireNonNull(domainModelClass, "The domainModelClass cannot be null");
+        return (ModelMetadata<T>) metadataCache.computeIfAbsent(domainModelClass, ModelMetadata::new);
+    }
+
+    public static boolean isColumnizable(Class<?> fieldType) {
+        return COLUMNIZABLE_FIELD_TYPES.contains(fieldType);
+    }
+
+    public Class<T> getDomainModelClass() {
+        return domainModelClass;
+    }
+
+    /**
+     * Creates a new instance of the domain model with the no-arg constructor,
+     * the constructor is resolved and made accessible only once.
+     */
+    public T newInstance() {
+        try {
+            if (constructor == null) {
+                Constructor<T> declaredConstructor = domainModelClass.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+                constructor = declaredConstructor;
+            }
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ReflectionException("Failed to construct an instance of " + domainModelClass, e);
+        }
+    }
+
+    /**
+     * Creates a shallow copy of the domain object, the instance fields of the class and its
+     * superclasses are copied, except the raw attributes which are copied as a new map,
+     * so that the copy can be changed without affecting the original one. The loader of
+     * LAZY relations is not copied, because it is bound to the objects queried together.
+     */
+    public T copy(T bean) {
+        Objects.requireNonNull(bean, "The bean cannot be null");
+        T copy = newInstance();
+        try {
+            for (Field field : getInstanceFields()) {
+                Object value = field.get(bean);
+                field.set(copy, value instanceof RawAttributes ? ((RawAttributes) value).copy() : value);
+            }
+        } catch (IllegalAccessException e) {
+            throw new ReflectionException("Failed to copy an instance of " + domainModelClass, e);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the accessor generated by the annotation processor, or null if the
+     * domain model is not compiled with it.
+     */
+    public DomainModelAccessor<T> getAccessor() {
+        return accessor;
+    }
+
+    public DomainModel getDomainModel() {
+        return domainModel;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    public PrimaryKey getPrimaryKey() {
+        return primaryKey;
+    }
+
+    public Field getPrimaryField() {
+        return primaryField;
+    }
+
+    public Field getField(String fieldName) {
+        return fieldsByName.get(fieldName);
+    }
+
+    public Field getFieldOrThrow(String fieldName) {
+        Field field = fieldsByName.get(fieldName);
+        if (field == null)
+            throw new IllegalArgumentException(String.format("The %s has no field '%s'",
+                    domainModelClass.getSimpleName(), fieldName));
+        return field;
+    }
+
+    public Field getFieldByColumn(String columnName) {
+        return columnToField.get(columnName);
+    }
+
+    public String getColumnName(String fieldName) {
+        return fieldToColumn.get(fieldName);
+    }
+
+    public Optional<String> getDefaultValue(String fieldName) {
+        return Optional.ofNullable(defaultValues.get(fieldName));
+    }
+
+    public boolean hasDefaultValue(String fieldName) {
+        return defaultValues.containsKey(fieldName);
+    }
+
+    public SQLType getSQLType(String fieldName) {
+        return sqlTypes.get(fieldName);
+    }
+
+    public ColumnTransition getColumnTransition(String fieldName) {
+        return columnTransitions.get(fieldName);
+    }
+
+    public Field[] getColumnizableFields(boolean insertable, boolean updatable) {
+        if (insertable && updatable)
+            return columnizableFields.clone();
+        else if (insertable)
+            return insertableFields.clone();
+        else if (updatable)
+            return updatableFields.clone();
+        else return new Field[0];
+    }
+
+    /**
+     * Returns the columnizable fields whose types are determined by given predicate if
+     * they are not annotated by <code>@Column</code>, the fields will not be cached.
+     */
+    public Field[] getColumnizableFields(boolean insertable, boolean updatable, Predicate<Field> columnizable) {
+        if (domainModel == null || !(insertable || updatable))
+            return new Field[0];
+        return filterColumnizableFields(insertable, updatable, columnizable);
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public String[] getInsertableColumns(boolean skipPrimaryKey) {
+        return skipPrimaryKey ? insertableColumnsWithoutPrimaryKey.clone() : insertableColumns.clone();
+    }
+
+    public String[] getUpdatableColumns() {
+        return updatableColumns.clone();
+    }
+
+    private Field[] getInstanceFields() {
+        if (instanceFields == null) {
+            List<Field> resolvedFields = new ArrayList<>();
+            for (Class clazz = domainModelClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())
+                            || field.getName().equals(LazyRelationLoader.LOADER_FIELD_NAME))
+                        continue;
+                    field.setAccessible(true);
+                    resolvedFields.add(field);
+                }
+            }
+            instanceFields = resolvedFields.toArray(new Field[0]);
+        }
+        return instanceFields;
+    }
+
+    private DomainModelAccessor<T> resolveAccessor() {
+        if (domainModel == null)
+            return null;
+
+        for (Class<?> declaredClass : domainModelClass.getDeclaredClasses()) {
+            if (DomainModelAccessor.CLASS_NAME.equals(declaredClass.getSimpleName())
+                    && DomainModelAccessor.class.isAssignableFrom(declaredClass)
+                    && Modifier.isStatic(declaredClass.getModifiers()))
+                return (DomainModelAccessor<T>) ClassUtils.createNewInstance(declaredClass);
+        }
+        return null;
+    }
+
+    private PrimaryKey resolvePrimaryKey(Field[] fields) {
+        for (Field field : fields) {
+            PrimaryKey primaryKey = field.getDeclaredAnnotation(PrimaryKey.class);
+            if (primaryKey != null)
+                return primaryKey;
+        }
+        return null;
+    }
+
+    private Field resolvePrimaryField(Field[] fields) {
+        Field defaultField = null;
+        Field primaryField = null;
+
+        for (Field field : fields) {
+            if (field.getDeclaredAnnotation(PrimaryKey.class) != null)
+                primaryField = field;
+
+            if (Tables.DEFAULT_PRIMARY_KEY.equals(field.getName()))
+                defaultField = field;
+        }
+
+        return primaryField == null ? defaultField : primaryField;
+    }
+
+    private String resolveColumnName(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        if (column != null && !StringUtil.isBlank(column.name()))
+            return column.name();
+        else return WordUtil.underscore(field.getName());
+    }
+
+    private void prepareColumnToField(Field field) {
+        PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
+        Column column = field.getAnnotation(Column.class);
+
+        String columnName;
+        if (primaryKey != null)
+            columnName = StringUtil.isBlank(primaryKey.name())
+                    ? WordUtil.underscore(field.getName()) : primaryKey.name();
+        else if (column != null)
+            columnName = StringUtil.isBlank(column.name())
+                    ? WordUtil.underscore(field.getName()) : column.name();
+        else
+            columnName = WordUtil.underscore(field.getName());
+
+        columnToField.put(columnName, field);
+        columnToField.put(columnName.toUpperCase(), field);
+    }
+
+    private void prepareColumnAttributes(Field field) {
+        Column column = field.getAnnotation(Column.class);
+
+        if (domainModel != null && field.getName().equals(domainModel.primaryFieldName())) {
+            if (!WordUtil.isEmpty(domainModel.primaryKeyDefaultValue()))
+                defaultValues.put(field.getName(), domainModel.primaryKeyDefaultValue());
+        } else if (column != null && !WordUtil.isEmpty(column.defaultValue()))
+            defaultValues.put(field.getName(), column.defaultValue());
+
+        if (column != null) {
+            sqlTypes.put(field.getName(), column.sqlType());
+            if (!column.transition().equals(ColumnTransition.class))
+                columnTransitions.put(field.getName(), ClassUtils.createNewInstance(column.transition()));
+        } else sqlTypes.put(field.getName(), JDBCType.NULL);
+    }
+
+    private Field[] filterColumnizableFields(boolean insertable, boolean updatable, Predicate<Field> columnizable) {
+        return Arrays.stream(fields).filter(field -> {
+            Column column = field.getAnnotation(Column.class);
+            Transient transientAnnotation = field.getAnnotation(Transient.class);
+            if (!Modifier.isStatic(field.getModifiers()) && transientAnnotation == null) {
+                if (column == null)
+                    return domainModel.allFieldsPersistent() && columnizable.test(field);
+                else
+                    return ensureColumnizable(column, field, insertable, updatable);
+            } else return false;
+        }).toArray(Field[]::new);
+    }
+
+    private boolean ensureColumnizable(Column column, Field field, boolean insertable, boolean updatable) {
+        if (insertable && updatable)
+            return true;
+        else if (insertable) {
+            return column.insertable();
+        } else if (updatable) {
+            return column.updatable() && !field.equals(primaryField);
+        } else return false;
+    }
+
+    private String[] toColumnNames(Field[] fields) {
+        return Arrays.stream(fields).map(field -> fieldToColumn.get(field.getName())).toArray(String[]::new);
+    }
+}
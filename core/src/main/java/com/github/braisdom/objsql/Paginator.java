@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.reflection.PropertyUtils;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Iterates the rows of a table page by page in the order of keys, each page is
+ * queried after the keys of the last row in previous page by <code>Query.seekAfter</code>,
+ * so the cost of a page is independent of its position, which fits the exporting
+ * and synchronizing of large tables.
+ * <pre>
+ *     Paginator&lt;Member&gt; paginator = new Paginator&lt;&gt;(Member.class, 1000)
+ *          .where("status = ?", 1);
+ *     paginator.forEach(members -&gt; export(members));
+ * </pre>
+ *
+ * The rows are ordered by primary key by default, and the last key given in
+ * <code>orderBy</code> should be unique. A paginator is not thread-safe.
+ *
+ * @param <T>
+ * @see Query#seekAfter(Object...)
+ */
+public class Paginator<T> {
+
+    private final Class<T> domainModelClass;
+    private final int pageSize;
+
+    private String filter;
+    private Object[] params;
+    private String[] keyColumns;
+    private String[] keyFieldNames;
+    private Object[] lastKeyValues;
+    private boolean exhausted;
+
+    public Paginator(Class<T> domainModelClass, int pageSize) {
+        Objects.requireNonNull(domainModelClass, "The domainModelClass cannot be null");
+        if (pageSize < 1)
+            throw new IllegalArgumentException("The pageSize must be greater than 0");
+
+        this.domainModelClass = domainModelClass;
+        this.pageSize = pageSize;
+        this.keyColumns = new String[]{Tables.getPrimaryKey(domainModelClass).name()};
+        this.keyFieldNames = new String[]{Tables.getPrimaryField(domainModelClass).getName()};
+    }
+
+    public Paginator<T> where(String filter, Object... params) {
+        this.filter = filter;
+        this.params = params;
+        return this;
+    }
+
+    /**
+     * Orders the rows by given key columns, such as <code>orderBy("created_at DESC", "id DESC")</code>,
+     * each column should be mapped to a field of the domain model.
+     */
+    public Paginator<T> orderBy(String... keyColumns) {
+        if (keyColumns.length == 0)
+            throw new IllegalArgumentException("The keyColumns cannot be empty");
+
+        ModelMetadata modelMetadata = ModelMetadata.of(domainModelClass);
+        String[] keyFieldNames = new String[keyColumns.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            String columnName = keyColumns[i].trim().split("\\s+")[0];
+            Field field = modelMetadata.getFieldByColumn(columnName);
+            if (field == null)
+                throw new IllegalArgumentException(String.format("The %s has no field of column '%s'",
+                        domainModelClass.getSimpleName(), columnName));
+            keyFieldNames[i] = field.getName();
+        }
+
+        this.keyColumns = keyColumns;
+        this.keyFieldNames = keyFieldNames;
+        return this;
+    }
+
+    /**
+     * Starts the iteration after given key values, which are returned by
+     * <code>getLastKeyValues</code> in a previous iteration, so that an interrupted
+     * job can be resumed.
+     */
+    public Paginator<T> startAfter(Object... lastKeyValues) {
+        this.lastKeyValues = lastKeyValues;
+        this.exhausted = false;
+        return this;
+    }
+
+    public boolean hasNextPage() {
+        return !exhausted;
+    }
+
+    /**
+     * Returns the next page, or an empty list if all rows have been iterated.
+     */
+    public List<T> nextPage() throws SQLException {
+        if (exhausted)
+            return new ArrayList<>();
+
+        Query<T> query = Databases.getQueryFactory().createQuery(domainModelClass);
+        if (filter != null)
+            query.where(filter, params);
+        if (lastKeyValues != null)
+            query.seekAfter(lastKeyValues);
+        query.orderBy(String.join(", ", keyColumns));
+        query.limit(pageSize);
+
+        List<T> rows = query.execute();
+        if (rows.size() > 0)
+            lastKeyValues = readKeyValues(rows.get(rows.size() - 1));
+        exhausted = rows.size() < pageSize;
+        return rows;
+    }
+
+    /**
+     * Iterates all the remaining pages, the page consumed is not referenced by the
+     * paginator, so that only one page is held in memory.
+     */
+    public void forEach(Consumer<List<T>> consumer) throws SQLException {
+        Objects.requireNonNull(consumer, "The consumer cannot be null");
+        while (hasNextPage()) {
+            List<T> rows = nextPage();
+            if (rows.size() > 0)
+                consumer.accept(rows);
+        }
+    }
+
+    /**
+     * Returns the key values of the last row iterated, or the values given by
+     * <code>startAfter</code> if no row iterated.
+     */
+    public Object[] getLastKeyValues() {
+        return lastKeyValues;
+    }
+
+    private Object[] readKeyValues(T row) {
+        Object[] keyValues = new Object[keyFieldNames.length];
+        for (int i = 0; i < keyFieldNames.length; i++)
+            keyValues[i] = PropertyUtils.read(row, keyFieldNames[i]);
+        return keyValues;
+    }
+}
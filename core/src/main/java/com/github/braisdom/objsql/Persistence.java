@@ -17,6 +17,7 @@
 package com.github.braisdom.objsql;
 
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 public interface Persistence<T> {
 
@@ -26,8 +27,31 @@ public interface Persistence<T> {
 
     int[] insert(T[] dirtyObjects, boolean skipValidation) throws SQLException;
 
+    /**
+     * Inserts the objects chunk by chunk, at most <code>chunkSize</code> rows a time, so that
+     * the parameters of all objects are not held at once. The implementation may insert
+     * a chunk in one multi-row statement if the database supports it.
+     */
+    default int[] insert(T[] dirtyObjects, int chunkSize, boolean skipValidation) throws SQLException {
+        return insert(dirtyObjects, skipValidation);
+    }
+
     T update(Object id, T dirtyObject, boolean skipValidation) throws SQLException;
 
+    /**
+     * Inserts the object in the executor of its data source.
+     *
+     * @see Databases#installExecutorFactory(ExecutorFactory)
+     */
+    CompletableFuture<T> insertAsync(T dirtyObject, boolean skipValidation);
+
+    /**
+     * Updates the object in the executor of its data source.
+     *
+     * @see Databases#installExecutorFactory(ExecutorFactory)
+     */
+    CompletableFuture<T> updateAsync(Object id, T dirtyObject, boolean skipValidation);
+
     int update(String updates, String predication) throws SQLException;
 
     int delete(Object id) throws SQLException;
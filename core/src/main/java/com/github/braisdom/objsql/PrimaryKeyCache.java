@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.DomainModel;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The identity map of the domain objects loaded by primary key, which is enabled by
+ * <code>@DomainModel(primaryKeyCacheSize = ...)</code>. The objects are copied when cached
+ * and when returned, so that the objects returned can be changed and saved by the callers
+ * without affecting each other.<br/>
+ *
+ * The cached objects are invalidated when they are updated or deleted through
+ * <code>Persistence</code>, and all objects of the domain model are invalidated for
+ * the updates and deletes by predicate. The objects written in a transaction are
+ * invalidated again when the transaction finished.
+ *
+ * @see Tables#queryByPrimaryKey(Class, Object, Relationship...)
+ * @see Tables#queryByPrimaryKeys(Class, Object...)
+ */
+public final class PrimaryKeyCache<T> {
+
+    private static final PrimaryKeyCache DISABLED = new PrimaryKeyCache(null, 0, 0);
+
+    private static final Map<Class, PrimaryKeyCache> primaryKeyCaches = new ConcurrentHashMap<>();
+    private static final Map<Connection, List<Runnable>> uncommittedInvalidations = new ConcurrentHashMap<>();
+
+    private final ModelMetadata<T> modelMetadata;
+    private final int maxSize;
+    private final long timeToLiveNanos;
+    private final Map<Object, CacheEntry<T>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private static final class CacheEntry<T> {
+
+        private final T domainObject;
+        private final long expiredAt;
+
+        CacheEntry(T domainObject, long expiredAt) {
+            this.domainObject = domainObject;
+            this.expiredAt = expiredAt;
+        }
+    }
+
+    private PrimaryKeyCache(ModelMetadata<T> modelMetadata, int maxSize, long timeToLiveNanos) {
+        this.modelMetadata = modelMetadata;
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = timeToLiveNanos;
+    }
+
+    /**
+     * Returns the cache of the domain model, or null if the cache is not enabled.
+     */
+    public static <T> PrimaryKeyCache<T> of(Class<T> domainModelClass) {
+        Objects.requireNonNull(domainModelClass, "The domainModelClass cannot be null");
+
+        PrimaryKeyCache primaryKeyCache = primaryKeyCaches.computeIfAbsent(domainModelClass, clazz -> {
+            DomainModel domainModel = (DomainModel) clazz.getAnnotation(DomainModel.class);
+            if (domainModel == null || domainModel.primaryKeyCacheSize() <= 0)
+                return DISABLED;
+            return new PrimaryKeyCache(ModelMetadata.of(clazz), domainModel.primaryKeyCacheSize(),
+                    TimeUnit.SECONDS.toNanos(Math.max(1, domainModel.primaryKeyCacheTimeToLive())));
+        });
+        return primaryKeyCache == DISABLED ? null : primaryKeyCache;
+    }
+
+    /**
+     * Returns a copy of the object cached, or null if it is absent or expired.
+     */
+    public T get(Object primaryKey) {
+        CacheEntry<T> cacheEntry = entries.get(normalizeKey(primaryKey));
+        if (cacheEntry == null)
+            return null;
+        if (cacheEntry.expiredAt - System.nanoTime() <= 0) {
+            entries.remove(normalizeKey(primaryKey), cacheEntry);
+            return null;
+        }
+        return modelMetadata.copy(cacheEntry.domainObject);
+    }
+
+    /**
+     * Returns the version of cache, which will be changed by the invalidations.
+     * The objects loaded should be cached only if the version is not changed while loading.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void put(Object primaryKey, T domainObject, long loadedVersion) {
+        if (primaryKey == null || domainObject == null)
+            return;
+
+        if (entries.size() >= maxSize) {
+            long now = System.nanoTime();
+            entries.values().removeIf(cacheEntry -> cacheEntry.expiredAt - now <= 0);
+            if (entries.size() >= maxSize)
+                entries.clear();
+        }
+
+        entries.put(normalizeKey(primaryKey), new CacheEntry<>(modelMetadata.copy(domainObject),
+                System.nanoTime() + timeToLiveNanos));
+
+        // The object may be loaded before an invalidation
+        if (version.get() != loadedVersion)
+            entries.remove(normalizeKey(primaryKey));
+    }
+
+    public void invalidate(Object primaryKey) {
+        version.incrementAndGet();
+        entries.remove(normalizeKey(primaryKey));
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Invalidates the object changed in the connection, and again when the connection is
+     * released if it is in a transaction, because the old state may be loaded by others
+     * before the transaction committed.
+     */
+    static void invalidate(Connection connection, Class domainModelClass, Object primaryKey) {
+        PrimaryKeyCache primaryKeyCache = of(domainModelClass);
+        if (primaryKeyCache != null) {
+            Runnable invalidation = primaryKey == null ? primaryKeyCache::invalidateAll
+                    : () -> primaryKeyCache.invalidate(primaryKey);
+            invalidation.run();
+            if (isInTransaction(connection))
+                uncommittedInvalidations.computeIfAbsent(connection, c -> new ArrayList<>()).add(invalidation);
+        }
+    }
+
+    static void releaseConnection(Connection connection) {
+        List<Runnable> invalidations = uncommittedInvalidations.remove(connection);
+        if (invalidations != null)
+            invalidations.forEach(Runnable::run);
+    }
+
+    private static boolean isInTransaction(Connection connection) {
+        try {
+            return !connection.getAutoCommit();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+
+    static Object normalizeKey(Object primaryKey) {
+        if (primaryKey instanceof BigDecimal) {
+            try {
+                return ((BigDecimal) primaryKey).longValueExact();
+            } catch (ArithmeticException ex) {
+                return primaryKey;
+            }
+        } else if (primaryKey instanceof Integer || primaryKey instanceof Long
+                || primaryKey instanceof Short || primaryKey instanceof Byte)
+            return ((Number) primaryKey).longValue();
+        return primaryKey;
+    }
+}
@@ -20,6 +20,9 @@ import com.github.braisdom.objsql.relation.Relationship;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * A programmable structure for SQL statement.
@@ -41,7 +44,72 @@ public interface Query<T> {
 
     Query orderBy(String orderBy);
 
+    /**
+     * Queries the rows after the given key values in the order, instead of skipping
+     * the rows by offset, so that the cost of a page is independent of its position.
+     * The keys are the columns of <code>orderBy</code>, such as "created_at DESC, id",
+     * or the primary key if no order given. The keys must be plain columns, the last
+     * key should be unique and the values of keys should not be null.
+     *
+     * <pre>
+     *     List&lt;Member&gt; nextPage = Member.createQuery()
+     *          .orderBy("id").seekAfter(lastMember.getId()).limit(100).execute();
+     * </pre>
+     *
+     * @param lastKeyValues the key values of last row in previous page, in the order of keys
+     * @see Paginator
+     */
+    Query seekAfter(Object... lastKeyValues);
+
+    /**
+     * Sets the number of rows fetched from the database in a round trip
+     * by <code>stream</code> and <code>forEach</code>.
+     */
+    Query fetchSize(int fetchSize);
+
+    /**
+     * Sets the maximum number of relation queries loaded concurrently, each one in a
+     * separate connection from <code>ConnectionFactory</code>. The relations are loaded
+     * in the connection of query one by one by default, or in a transaction.
+     */
+    Query relationParallelism(int relationParallelism);
+
     List<T> execute(Relationship... relationships) throws SQLException;
 
+    /**
+     * Executes the query in the executor of its data source, the query should not
+     * be changed until the future is completed.
+     *
+     * @see Databases#installExecutorFactory(ExecutorFactory)
+     */
+    CompletableFuture<List<T>> executeAsync(Relationship... relationships);
+
+    /**
+     * Returns the rows as a lazy stream over a forward-only cursor, instead of
+     * materializing them in a list. The stream holds the database resources until
+     * it is closed, so it must be consumed in a try-with-resources block.
+     */
+    Stream<T> stream() throws SQLException;
+
+    void forEach(Consumer<T> consumer) throws SQLException;
+
     T queryFirst(Relationship... relationships) throws SQLException;
+
+    /**
+     * Returns the first column of the first row converted to the given class, such
+     * as <code>select("SUM(amount)").executeScalar(BigDecimal.class)</code>, or null if
+     * no row. The row will not be mapped to a domain object.
+     */
+    <R> R executeScalar(Class<R> resultClass) throws SQLException;
+
+    /**
+     * Returns the number of rows matched by the query, without mapping them.
+     */
+    long count() throws SQLException;
+
+    /**
+     * Returns the rows as arrays of column values in the order of projection,
+     * without mapping them to domain objects.
+     */
+    List<Object[]> executeRows() throws SQLException;
 }
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import java.util.*;
+
+/**
+ * The raw attributes of a row, which are the values of columns without mapped field.
+ * The column names and their indexes are resolved once by <code>RowMappingPlan</code>
+ * and shared by all rows of the result set, so that a row holds its values in an array
+ * only. The attributes put by other names are held in a <code>HashMap</code> created lazily.
+ */
+final class RawAttributes extends AbstractMap<String, Object> {
+
+    private static final Object ABSENT = new Object();
+
+    private final Layout layout;
+    private final Object[] values;
+    private Map<String, Object> extraAttributes;
+
+    /**
+     * The names of raw columns and their indexes in the values, the first column wins
+     * if the names are duplicated, as <code>ResultSet.getObject(label)</code> returns
+     * the value of first column with the label.
+     */
+    static final class Layout {
+
+        private final String[] names;
+        private final Map<String, Integer> indexes;
+
+        Layout(String[] names) {
+            this.names = names;
+            this.indexes = new HashMap<>();
+            for (int i = 0; i < names.length; i++)
+                indexes.putIfAbsent(names[i], i);
+        }
+
+        int size() {
+            return names.length;
+        }
+    }
+
+    RawAttributes(Layout layout, Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Returns a copy of the attributes sharing the layout only.
+     */
+    RawAttributes copy() {
+        RawAttributes copy = new RawAttributes(layout, values.clone());
+        if (extraAttributes != null)
+            copy.extraAttributes = new HashMap<>(extraAttributes);
+        return copy;
+    }
+
+    @Override
+    public Object get(Object name) {
+        Integer index = layout.indexes.get(name);
+        if (index != null)
+            return values[index] == ABSENT ? null : values[index];
+        return extraAttributes == null ? null : extraAttributes.get(name);
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        Integer index = layout.indexes.get(name);
+        if (index != null)
+            return values[index] != ABSENT;
+        return extraAttributes != null && extraAttributes.containsKey(name);
+    }
+
+    @Override
+    public Object put(String name, Object value) {
+        Integer index = layout.indexes.get(name);
+        if (index != null) {
+            Object oldValue = values[index];
+            values[index] = value;
+            return oldValue == ABSENT ? null : oldValue;
+        }
+        if (extraAttributes == null)
+            extraAttributes = new HashMap<>();
+        return extraAttributes.put(name, value);
+    }
+
+    @Override
+    public Object remove(Object name) {
+        Integer index = layout.indexes.get(name);
+        if (index != null) {
+            Object oldValue = values[index];
+            values[index] = ABSENT;
+            return oldValue == ABSENT ? null : oldValue;
+        }
+        return extraAttributes == null ? null : extraAttributes.remove(name);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = extraAttributes == null ? 0 : extraAttributes.size();
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != ABSENT && layout.indexes.get(layout.names[i]) == i)
+                        size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int nextIndex = -1;
+        private int lastIndex = -1;
+        private Iterator<Entry<String, Object>> extraIterator;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                nextIndex++;
+            } while (nextIndex < values.length && (values[nextIndex] == ABSENT
+                    || layout.indexes.get(layout.names[nextIndex]) != nextIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextIndex < values.length)
+                return true;
+            if (extraIterator == null && extraAttributes != null)
+                extraIterator = extraAttributes.entrySet().iterator();
+            return extraIterator != null && extraIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            if (extraIterator != null)
+                return extraIterator.next();
+
+            lastIndex = nextIndex;
+            advance();
+            return new SimpleEntry<String, Object>(layout.names[lastIndex], values[lastIndex]) {
+                private final int index = lastIndex;
+
+                @Override
+                public Object setValue(Object value) {
+                    values[index] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (extraIterator != null)
+                extraIterator.remove();
+            else if (lastIndex >= 0 && values[lastIndex] != ABSENT)
+                values[lastIndex] = ABSENT;
+            else
+                throw new IllegalStateException();
+        }
+    }
+}
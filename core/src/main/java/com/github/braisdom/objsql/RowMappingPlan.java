@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.reflection.PropertyUtils;
+import com.github.braisdom.objsql.transition.ColumnTransition;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled mapping from the columns of a <code>ResultSet</code> to the fields of
+ * a domain model. The column labels, field names, field types and transitions are
+ * resolved once by column index, so that mapping a row is a tight indexed loop
+ * without any access to <code>ResultSetMetaData</code>.
+ *
+ * <p>The plans for <code>BeanModelDescriptor</code> are cached by the domain model class,
+ * the database and the shape of the result set, because the mapping depends on them only.</p>
+ */
+final class RowMappingPlan {
+
+    private static final int MAX_CACHED_PLANS = 1024;
+    private static final int SKIPPED_COLUMN = -2;
+
+    private static final Map<Shape, RowMappingPlan> planCache = new ConcurrentHashMap<>();
+
+    private final String[] columnNames;
+    private final String[] fieldNames;
+    private final boolean[] transitables;
+    private final Class[] fieldTypes;
+    private final ColumnTransition[] columnTransitions;
+    private final ColumnTransition.RisingConverter[] risingConverters;
+    private final int[] rawIndexes;
+    private final RawAttributes.Layout rawAttributesLayout;
+
+    private static final class Shape {
+
+        private final Class domainModelClass;
+        private final DatabaseType databaseType;
+        private final String[] columnNames;
+        private final int[] columnTypes;
+        private final int hashCode;
+
+        Shape(Class domainModelClass, DatabaseType databaseType, String[] columnNames, int[] columnTypes) {
+            this.domainModelClass = domainModelClass;
+            this.databaseType = databaseType;
+            this.columnNames = columnNames;
+            this.columnTypes = columnTypes;
+            this.hashCode = 31 * (31 * domainModelClass.hashCode() + databaseType.hashCode())
+                    + Arrays.hashCode(columnNames);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Shape)) return false;
+            Shape shape = (Shape) o;
+            return domainModelClass.equals(shape.domainModelClass)
+                    && databaseType == shape.databaseType
+                    && Arrays.equals(columnNames, shape.columnNames)
+                    && Arrays.equals(columnTypes, shape.columnTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private RowMappingPlan(TableRowAdapter tableRowAdapter, DatabaseType databaseType, String[] columnNames,
+                           ResultSetMetaData metaData) throws SQLException {
+        int columnCount = columnNames.length;
+
+        this.columnNames = columnNames;
+        this.fieldNames = new String[columnCount];
+        this.transitables = new boolean[columnCount];
+        this.fieldTypes = new Class[columnCount];
+        this.columnTransitions = new ColumnTransition[columnCount];
+        this.risingConverters = new ColumnTransition.RisingConverter[columnCount];
+
+        this.rawIndexes = new int[columnCount];
+
+        // The field is mapped from the first column of its label only, as ResultSet.getObject(label)
+        // does case-insensitively, the duplicated columns such as the "id" of "SELECT a.*, b.*"
+        // are skipped.
+        Set<String> mappedColumnNames = new HashSet<>();
+        List<String> rawColumnNames = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            String fieldName = tableRowAdapter.getFieldName(columnNames[i]);
+            if (fieldName != null && !mappedColumnNames.add(columnNames[i].toLowerCase(Locale.ROOT))) {
+                rawIndexes[i] = SKIPPED_COLUMN;
+                continue;
+            }
+            fieldNames[i] = fieldName;
+            rawIndexes[i] = fieldName == null ? rawColumnNames.size() : -1;
+            if (fieldName == null)
+                rawColumnNames.add(columnNames[i]);
+            else if (tableRowAdapter.isTransitable(fieldName)) {
+                transitables[i] = true;
+                columnTransitions[i] = tableRowAdapter.getColumnTransition(fieldName);
+                fieldTypes[i] = tableRowAdapter.getFieldType(fieldName);
+                if (columnTransitions[i] != null)
+                    risingConverters[i] = columnTransitions[i].prepare(databaseType, metaData, i + 1);
+            }
+        }
+        this.rawAttributesLayout = rawColumnNames.isEmpty() ? null
+                : new RawAttributes.Layout(rawColumnNames.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the mapping plan for the shape of given <code>ResultSetMetaData</code>,
+     * the column labels and types will be read once only, and the transitions are
+     * prepared for the columns of the database.
+     *
+     * @param databaseType the type resolved from the cached product name of data source
+     * @see Databases#getDatabaseProductName(String, java.sql.Connection)
+     */
+    static RowMappingPlan compile(TableRowAdapter tableRowAdapter, DatabaseType databaseType,
+                                  ResultSetMetaData metaData) throws SQLException {
+        Objects.requireNonNull(tableRowAdapter, "The tableRowAdapter cannot be null");
+        int columnCount = metaData.getColumnCount();
+        String[] columnNames = new String[columnCount];
+        int[] columnTypes = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnNames[i] = metaData.getColumnLabel(i + 1);
+            columnTypes[i] = metaData.getColumnType(i + 1);
+        }
+
+        // Other adapters may map the columns by their own state, so only the plans of
+        // BeanModelDescriptor, which depend on the domain model class only, can be shared.
+        if (!BeanModelDescriptor.class.equals(tableRowAdapter.getClass()))
+            return new RowMappingPlan(tableRowAdapter, databaseType, columnNames, metaData);
+
+        Shape shape = new Shape(tableRowAdapter.getDomainModelClass(), databaseType, columnNames, columnTypes);
+        RowMappingPlan rowMappingPlan = planCache.get(shape);
+        if (rowMappingPlan == null) {
+            if (planCache.size() >= MAX_CACHED_PLANS)
+                planCache.clear();
+            rowMappingPlan = new RowMappingPlan(tableRowAdapter, databaseType, columnNames, metaData);
+            planCache.putIfAbsent(shape, rowMappingPlan);
+        }
+        return rowMappingPlan;
+    }
+
+    Object mapRow(ResultSet rs, TableRowAdapter tableRowAdapter, DatabaseMetaData databaseMetaData,
+                  ResultSetMetaData metaData) throws SQLException {
+        return mapRow(rs, null, tableRowAdapter, databaseMetaData, metaData);
+    }
+
+    /**
+     * Maps a row which has been read into an array by column index, such as
+     * the rows of <code>ResultSetIterator</code>.
+     */
+    Object mapRow(Object[] columnValues, TableRowAdapter tableRowAdapter, DatabaseMetaData databaseMetaData,
+                  ResultSetMetaData metaData) throws SQLException {
+        return mapRow(null, columnValues, tableRowAdapter, databaseMetaData, metaData);
+    }
+
+    private Object mapRow(ResultSet rs, Object[] columnValues, TableRowAdapter tableRowAdapter,
+                          DatabaseMetaData databaseMetaData, ResultSetMetaData metaData) throws SQLException {
+        Object bean = tableRowAdapter.newInstance();
+        // The values of columns without mapped field are collected in an array, and set
+        // into the bean as a whole if it supports, otherwise they are set one by one.
+        Object[] rawValues = rawAttributesLayout != null && PropertyUtils.supportRawAttributes(bean)
+                ? new Object[rawAttributesLayout.size()] : null;
+
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (rawIndexes[i] == SKIPPED_COLUMN)
+                continue;
+            String fieldName = fieldNames[i];
+            Object rawColumnValue = columnValues == null ? rs.getObject(i + 1) : columnValues[i];
+
+            if (fieldName != null) {
+                if (transitables[i]) {
+                    ColumnTransition columnTransition = columnTransitions[i];
+                    Object value;
+                    if (risingConverters[i] != null)
+                        value = risingConverters[i].rise(rawColumnValue);
+                    else
+                        value = columnTransition == null ? rawColumnValue : columnTransition
+                                .rising(databaseMetaData, metaData, bean, tableRowAdapter, fieldName, rawColumnValue);
+
+                    Class fieldType = fieldTypes[i];
+                    if (fieldType != null && value != null &&
+                            !fieldType.isAssignableFrom(value.getClass()))
+                        throw new ClassCastException(String.format("Inconsistent data types field:%s(%s) " +
+                                        "vs column:%s(%s) in %s", fieldName, fieldType.getName(), columnNames[i],
+                                value.getClass().getName(), bean.getClass().getName()));
+
+                    tableRowAdapter.setFieldValue(bean, fieldName, value);
+                } else
+                    tableRowAdapter.setFieldValue(bean, fieldName, rawColumnValue);
+            } else if (rawValues != null)
+                rawValues[rawIndexes[i]] = rawColumnValue;
+            else if (PropertyUtils.supportRawAttribute(bean))
+                PropertyUtils.writeRawAttribute(bean, columnNames[i], rawColumnValue);
+        }
+
+        if (rawValues != null)
+            PropertyUtils.writeRawAttributes(bean, new RawAttributes(rawAttributesLayout, rawValues));
+
+        return bean;
+    }
+}
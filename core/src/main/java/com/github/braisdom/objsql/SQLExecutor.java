@@ -19,6 +19,7 @@ package com.github.braisdom.objsql;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * This class is a extension point for ObjectiveSql, who will be customized
@@ -31,6 +32,31 @@ public interface SQLExecutor<T> {
     List<T> query(Connection connection, String sql,
                   TableRowAdapter tableRowAdapter, Object... params) throws SQLException;
 
+    /**
+     * Executes the query with a forward-only and read-only cursor, the rows will be
+     * mapped lazily while the stream is consumed. The stream must be closed for
+     * releasing the cursor, but the connection is left to the caller.
+     */
+    default Stream<T> stream(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                             int fetchSize, Object... params) throws SQLException {
+        throw new UnsupportedOperationException("The stream is unsupported");
+    }
+
+    /**
+     * Returns the first column of the first row, or null if no row, without mapping
+     * the row to a domain object.
+     */
+    default Object queryScalar(Connection connection, String sql, Object... params) throws SQLException {
+        throw new UnsupportedOperationException("The queryScalar is unsupported");
+    }
+
+    /**
+     * Returns the rows as arrays of column values, without mapping them to domain objects.
+     */
+    default List<Object[]> queryRows(Connection connection, String sql, Object... params) throws SQLException {
+        throw new UnsupportedOperationException("The queryRows is unsupported");
+    }
+
     default T insert(Connection connection, String sql,
              TableRowAdapter tableRowAdapter, Object... params) throws SQLException {
         throw new UnsupportedOperationException("The insert is unsupported");
@@ -41,7 +67,34 @@ public interface SQLExecutor<T> {
         throw new UnsupportedOperationException("The insert is unsupported");
     }
 
+    /**
+     * Executes an INSERT with the values of multiple rows in one statement, the
+     * <code>params</code> are the values of all rows in order.
+     *
+     * @return the generated keys in the order of rows, it may be less than
+     * the rows if the database cannot return all of them
+     */
+    default Object[] insertRows(Connection connection, String sql,
+                                TableRowAdapter tableRowAdapter, Object... params) throws SQLException {
+        throw new UnsupportedOperationException("The insert of multiple rows is unsupported");
+    }
+
     default int execute(Connection connection, String sql, Object... params) throws SQLException {
         throw new UnsupportedOperationException("The execute is unsupported");
     };
+
+    /**
+     * Notifies that the SQL has been executed in the connection directly, without
+     * the executor, such as the DDL or TRUNCATE executed by <code>Databases</code>.
+     */
+    default void executed(Connection connection, String sql) {
+    }
+
+    /**
+     * Releases the resources associated with the connection, such as the cached
+     * statements. It is invoked before the connection opened by <code>Databases</code>
+     * is closed.
+     */
+    default void releaseConnection(Connection connection) {
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes the SQL into a fingerprint which represents the shape of statement,
+ * the literals are replaced with <code>?</code>, the comments are removed, the whitespaces
+ * are collapsed, and the lists of parameters are collapsed into <code>(?, ...)</code>,
+ * such as:
+ * <pre>
+ *     SELECT * FROM members WHERE name = 'Smith' AND id IN (1, 2, 3)
+ *     => SELECT * FROM members WHERE name = ? AND id IN (?, ...)
+ * </pre>
+ * So that the statements with different values or IN lists are aggregated together.
+ */
+public final class SQLFingerprint {
+
+    private static final int MAX_CACHED_FINGERPRINTS = 4096;
+
+    private static final Pattern PARAMETER_LIST_PATTERN = Pattern.compile("\\( ?\\?(?: ?, ?\\?)* ?\\)");
+    private static final Pattern REPEATED_LIST_PATTERN = Pattern.compile("\\(\\?, \\.\\.\\.\\)(?: ?, ?\\(\\?, \\.\\.\\.\\))+");
+
+    private static final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+
+    private SQLFingerprint() {
+    }
+
+    /**
+     * Returns the fingerprint of SQL, the fingerprints of recent SQL are cached,
+     * because the same SQL is executed repeatedly in general.
+     */
+    public static String of(String sql) {
+        Objects.requireNonNull(sql, "The sql cannot be null");
+
+        String fingerprint = fingerprintCache.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            if (fingerprintCache.size() >= MAX_CACHED_FINGERPRINTS)
+                fingerprintCache.clear();
+            fingerprintCache.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder fingerprint = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i)))
+                    i++;
+                appendSpace(fingerprint);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n')
+                    i++;
+                appendSpace(fingerprint);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                appendSpace(fingerprint);
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                fingerprint.append('?');
+            } else if (c == '"' || c == '`' || c == '[') {
+                int end = skipQuoted(sql, i, c == '[' ? ']' : c);
+                fingerprint.append(sql, i, end);
+                i = end;
+            } else if (Character.isDigit(c) && !isIdentifierPart(fingerprint)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.'
+                        || ((sql.charAt(i) == '+' || sql.charAt(i) == '-') && isExponent(sql, i))))
+                    i++;
+                fingerprint.append('?');
+            } else {
+                fingerprint.append(c);
+                i++;
+            }
+        }
+
+        String collapsed = PARAMETER_LIST_PATTERN.matcher(fingerprint.toString().trim()).replaceAll("(?, ...)");
+        return REPEATED_LIST_PATTERN.matcher(collapsed).replaceAll("(?, ...), ...");
+    }
+
+    private static int skipQuoted(String sql, int begin, char quote) {
+        int i = begin + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == quote) {
+                // The doubled quote is an escaped quote
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote && quote != ']')
+                    i += 2;
+                else
+                    return i + 1;
+            } else
+                i++;
+        }
+        return sql.length();
+    }
+
+    private static void appendSpace(StringBuilder fingerprint) {
+        if (fingerprint.length() > 0 && fingerprint.charAt(fingerprint.length() - 1) != ' ')
+            fingerprint.append(' ');
+    }
+
+    private static boolean isIdentifierPart(StringBuilder fingerprint) {
+        if (fingerprint.length() == 0)
+            return false;
+        char c = fingerprint.charAt(fingerprint.length() - 1);
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isExponent(String sql, int i) {
+        char c = sql.charAt(i - 1);
+        return (c == 'e' || c == 'E') && i >= 2 && Character.isDigit(sql.charAt(i - 2));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a statement fingerprint or a data source, which are counted by striped
+ * counters, so that the statements executed concurrently will not contend.
+ *
+ * @see SQLFingerprint
+ */
+public final class StatementMetrics {
+
+    private final String dataSourceName;
+    private final String fingerprint;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder rowCount = new LongAdder();
+    private final LongAdder batchSize = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    public StatementMetrics(String dataSourceName, String fingerprint) {
+        this.dataSourceName = dataSourceName;
+        this.fingerprint = fingerprint;
+    }
+
+    public void recordExecution(long elapsedNanos, int rows, int batch) {
+        record(elapsedNanos);
+        if (rows > 0)
+            rowCount.add(rows);
+        batchSize.add(batch);
+    }
+
+    public void recordError(long elapsedNanos) {
+        record(elapsedNanos);
+        errorCount.increment();
+    }
+
+    private void record(long elapsedNanos) {
+        count.increment();
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+        latencyHistogram.record(elapsedNanos);
+    }
+
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    /**
+     * Returns the fingerprint of statements, or null if it is the metrics of a data source.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public long getRowCount() {
+        return rowCount.sum();
+    }
+
+    /**
+     * Returns the total number of parameter sets executed, which is greater than
+     * the count if the statements are executed in batch.
+     */
+    public long getBatchSize() {
+        return batchSize.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    public long getPercentileNanos(double percentile) {
+        return Math.min(latencyHistogram.getPercentile(percentile), getMaxNanos());
+    }
+
+    /**
+     * Returns a consistent copy of the metrics, which will not change
+     * while the statements are executed.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    public static final class Snapshot {
+
+        private final String dataSourceName;
+        private final String fingerprint;
+        private final long count;
+        private final long errorCount;
+        private final long rowCount;
+        private final long batchSize;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+
+        private Snapshot(StatementMetrics metrics) {
+            this.dataSourceName = metrics.dataSourceName;
+            this.fingerprint = metrics.fingerprint;
+            this.count = metrics.getCount();
+            this.errorCount = metrics.getErrorCount();
+            this.rowCount = metrics.getRowCount();
+            this.batchSize = metrics.getBatchSize();
+            this.totalNanos = metrics.getTotalNanos();
+            this.maxNanos = metrics.getMaxNanos();
+            this.p50Nanos = metrics.getPercentileNanos(50);
+            this.p95Nanos = metrics.getPercentileNanos(95);
+            this.p99Nanos = metrics.getPercentileNanos(99);
+        }
+
+        public String getDataSourceName() {
+            return dataSourceName;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getBatchSize() {
+            return batchSize;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP95Nanos() {
+            return p95Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[count=%d, errors=%d, rows=%d, total=%dms, mean=%dus, p50=%dus, " +
+                            "p95=%dus, p99=%dus, max=%dus] %s", dataSourceName, count, errorCount, rowCount,
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos), TimeUnit.NANOSECONDS.toMicros(getMeanNanos()),
+                    TimeUnit.NANOSECONDS.toMicros(p50Nanos), TimeUnit.NANOSECONDS.toMicros(p95Nanos),
+                    TimeUnit.NANOSECONDS.toMicros(p99Nanos), TimeUnit.NANOSECONDS.toMicros(maxNanos),
+                    fingerprint == null ? "" : fingerprint);
+        }
+    }
+}
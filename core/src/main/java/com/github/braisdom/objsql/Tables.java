@@ -16,19 +16,17 @@
  */
 package com.github.braisdom.objsql;
 
-import com.github.braisdom.objsql.annotations.Column;
-import com.github.braisdom.objsql.annotations.DomainModel;
 import com.github.braisdom.objsql.annotations.PrimaryKey;
 import com.github.braisdom.objsql.reflection.PropertyUtils;
-import com.github.braisdom.objsql.util.StringUtil;
-import com.github.braisdom.objsql.util.WordUtil;
+import com.github.braisdom.objsql.relation.LazyRelationLoader;
+import com.github.braisdom.objsql.relation.Relationship;
 
-import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
 import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Utility methods relates to the database table.
@@ -41,49 +39,32 @@ public final class Tables {
     public static final String DEFAULT_PRIMARY_KEY = "id";
     public static final String DEFAULT_KEY_SUFFIX = "id";
 
-    private static Validator validator = bean -> {
-        javax.validation.Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
-        Set<ConstraintViolation<Object>> rawViolations = validator.validate(bean);
+    private static final int MAX_PRIMARY_KEYS_IN_LIST = 512;
 
-        return rawViolations.stream().map(violation ->
-                new Validator.Violation(violation.getRootBeanClass(), violation.getMessage(), violation.getInvalidValue(),
-                        violation.getPropertyPath().toString()))
-                .toArray(Validator.Violation[]::new);
-    };
+    private static Validator validator = new DefaultValidator();
+
+    private static volatile int parallelValidationThreshold = 0;
 
     public static final String getTableName(Class baseClass) {
         Objects.requireNonNull(baseClass, "The baseClass cannot be null");
-        DomainModel domainModel = (DomainModel) baseClass.getAnnotation(DomainModel.class);
+        ModelMetadata modelMetadata = ModelMetadata.of(baseClass);
 
-        Objects.requireNonNull(domainModel, "The baseClass must have the DomainModel annotation");
+        Objects.requireNonNull(modelMetadata.getDomainModel(), "The baseClass must have the DomainModel annotation");
 
-        if (!StringUtil.isBlank(domainModel.tableName()))
-            return domainModel.tableName();
-        else
-            return WordUtil.tableize(baseClass.getSimpleName());
+        return modelMetadata.getTableName();
     }
 
     public static final String getDataSourceName(Class baseClass) {
         Objects.requireNonNull(baseClass, "The baseClass cannot be null");
-        DomainModel domainModel = (DomainModel) baseClass.getAnnotation(DomainModel.class);
+        ModelMetadata modelMetadata = ModelMetadata.of(baseClass);
 
-        Objects.requireNonNull(domainModel, "The baseClass must have the DomainModel annotation");
+        Objects.requireNonNull(modelMetadata.getDomainModel(), "The baseClass must have the DomainModel annotation");
 
-        if (!StringUtil.isBlank(domainModel.dataSource()))
-            return domainModel.dataSource();
-        else
-            return ConnectionFactory.DEFAULT_DATA_SOURCE_NAME;
+        return modelMetadata.getDataSourceName();
     }
 
     public static final PrimaryKey getPrimaryKey(Class tableClass) {
-        Field[] fields = tableClass.getDeclaredFields();
-        for (Field field : fields) {
-            PrimaryKey primaryKey = field.getDeclaredAnnotation(PrimaryKey.class);
-            if (primaryKey != null) {
-                return primaryKey;
-            }
-        }
-        return null;
+        return ModelMetadata.of(tableClass).getPrimaryKey();
     }
 
     public static final boolean isPrimaryField(Field field) {
@@ -107,37 +88,14 @@ public final class Tables {
     }
 
     public static final Field getPrimaryField(Class tableClass) {
-        Field[] fields = tableClass.getDeclaredFields();
-
-        Field defaultField = null;
-        Field primaryField = null;
-
-        for (Field field : fields) {
-            PrimaryKey primaryKey = field.getDeclaredAnnotation(PrimaryKey.class);
-            if (primaryKey != null)
-                primaryField = field;
-
-            if (DEFAULT_PRIMARY_KEY.equals(field.getName()))
-                defaultField = field;
-        }
-
-        return primaryField == null ? defaultField : primaryField;
+        return ModelMetadata.of(tableClass).getPrimaryField();
     }
 
     public static final String getColumnName(Class tableClass, String fieldName) {
-        try {
-            Field field = tableClass.getDeclaredField(fieldName);
-            Column column = field.getDeclaredAnnotation(Column.class);
-
-            if (column != null) {
-                if (!WordUtil.isEmpty(column.name()))
-                    return column.name();
-            }
-
-            return WordUtil.underscore(field.getName());
-        } catch (NoSuchFieldException ex) {
-            throw new DomainModelException(ex.getMessage(), ex);
-        }
+        String columnName = ModelMetadata.of(tableClass).getColumnName(fieldName);
+        if (columnName == null)
+            throw new DomainModelException(fieldName);
+        return columnName;
     }
 
     public static Validator getValidator() {
@@ -154,15 +112,55 @@ public final class Tables {
         return violations;
     }
 
+    /**
+     * Sets the minimum number of beans validated in parallel on the common fork-join pool,
+     * the beans are validated one by one if the threshold is less than 1, which is the
+     * default. The validator installed must be thread-safe to validate in parallel.
+     */
+    public static final void setParallelValidationThreshold(int parallelValidationThreshold) {
+        Tables.parallelValidationThreshold = parallelValidationThreshold;
+    }
+
     public static final Validator.Violation[] validate(Object[] beans) {
+        return validate(beans, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Validates the beans and stops after the violations reach <code>maxViolations</code>,
+     * the violations returned are in the order of beans, but they may not be the first
+     * ones of the beans if validated in parallel.
+     */
+    public static final Validator.Violation[] validate(Object[] beans, int maxViolations) {
+        if (maxViolations < 1)
+            throw new IllegalArgumentException("The maxViolations must be greater than 0");
+
         Validator validator = getValidator();
+        Validator.Violation[][] beanViolations = new Validator.Violation[beans.length][];
+        int threshold = parallelValidationThreshold;
+        if (threshold > 0 && beans.length >= threshold) {
+            AtomicInteger violationCount = new AtomicInteger();
+            IntStream.range(0, beans.length).parallel().forEach(i -> {
+                if (violationCount.get() < maxViolations) {
+                    beanViolations[i] = validator.validate(beans[i]);
+                    violationCount.addAndGet(beanViolations[i].length);
+                }
+            });
+        } else {
+            int violationCount = 0;
+            for (int i = 0; i < beans.length && violationCount < maxViolations; i++) {
+                beanViolations[i] = validator.validate(beans[i]);
+                violationCount += beanViolations[i].length;
+            }
+        }
+
         List<Validator.Violation> violationList = new ArrayList<>();
-        for (Object bean : beans) {
-            Validator.Violation[] violations = validator.validate(bean);
-            if (violations.length > 0)
+        for (Validator.Violation[] violations : beanViolations) {
+            if (violations != null)
                 violationList.addAll(Arrays.asList(violations));
         }
-        return violationList.toArray(violationList.toArray(new Validator.Violation[]{}));
+        if (violationList.size() > maxViolations)
+            violationList = violationList.subList(0, maxViolations);
+        return violationList.toArray(new Validator.Violation[violationList.size()]);
     }
 
     public static final <T> List<T> query(Class<T> domainModelClass, String sql, Object... params) throws SQLException {
@@ -171,34 +169,119 @@ public final class Tables {
 
     public static final <T> List<T> query(DomainModelDescriptor<T> domainModelDescriptor, String sql, Object... params) throws SQLException {
         String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
-        return (List<T>) Databases.execute(dataSourceName, (connection, sqlExecutor) ->
+        List<T> rows = (List<T>) Databases.execute(dataSourceName, (connection, sqlExecutor) ->
                 sqlExecutor.query(connection, sql, domainModelDescriptor, params));
+        LazyRelationLoader.attach(domainModelDescriptor.getDomainModelClass(), rows);
+        return rows;
     }
 
     public static final int execute(Class<?> domainModelClass, String sql, Object... params) throws SQLException {
         String dataSourceName = Tables.getDataSourceName(domainModelClass);
-        return Databases.execute(dataSourceName, (connection, sqlExecutor) ->
-                sqlExecutor.execute(connection, sql, params));
+        return Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
+            try {
+                return sqlExecutor.execute(connection, sql, params);
+            } finally {
+                PrimaryKeyCache.invalidate(connection, domainModelClass, null);
+            }
+        });
+    }
+
+    /**
+     * Queries the domain object by primary key, which will be cached by <code>PrimaryKeyCache</code>
+     * if the domain model enabled and no relationship is loaded. The object returned from the
+     * cache is a copy, which can be changed and saved.
+     */
+    public static final <T> T queryByPrimaryKey(Class<T> domainModelClass, Object primaryKey,
+                                                Relationship... relationships) throws SQLException {
+        PrimaryKeyCache<T> primaryKeyCache = primaryKey == null || relationships.length > 0
+                ? null : getPrimaryKeyCache(domainModelClass);
+        if (primaryKeyCache != null) {
+            T domainObject = primaryKeyCache.get(primaryKey);
+            if (domainObject != null) {
+                LazyRelationLoader.attach(domainModelClass, Collections.singletonList(domainObject));
+                return domainObject;
+            }
+        }
+
+        long cacheVersion = primaryKeyCache == null ? 0 : primaryKeyCache.getVersion();
+        Query<T> query = Databases.getQueryFactory().createQuery(domainModelClass);
+        query.where(String.format("%s = ?", getPrimaryColumnName(domainModelClass)), primaryKey);
+        T domainObject = query.queryFirst(relationships);
+
+        if (primaryKeyCache != null)
+            primaryKeyCache.put(primaryKey, domainObject, cacheVersion);
+        return domainObject;
+    }
+
+    /**
+     * Queries the domain objects by primary keys, the objects cached by <code>PrimaryKeyCache</code>
+     * will be returned directly, and the others will be loaded in one statement.
+     *
+     * @return the domain objects in the order of primary keys, the absent ones will be skipped
+     */
+    public static final <T> List<T> queryByPrimaryKeys(Class<T> domainModelClass,
+                                                       Object... primaryKeys) throws SQLException {
+        Objects.requireNonNull(primaryKeys, "The primaryKeys cannot be null");
+
+        PrimaryKeyCache<T> primaryKeyCache = getPrimaryKeyCache(domainModelClass);
+        Map<Object, T> domainObjects = new LinkedHashMap<>();
+        List<T> cachedObjects = new ArrayList<>();
+        List<Object> absentKeys = new ArrayList<>();
+        for (Object primaryKey : primaryKeys) {
+            Object normalizedKey = PrimaryKeyCache.normalizeKey(primaryKey);
+            if (primaryKey == null || domainObjects.containsKey(normalizedKey))
+                continue;
+
+            T domainObject = primaryKeyCache == null ? null : primaryKeyCache.get(primaryKey);
+            domainObjects.put(normalizedKey, domainObject);
+            if (domainObject == null)
+                absentKeys.add(primaryKey);
+            else
+                cachedObjects.add(domainObject);
+        }
+        LazyRelationLoader.attach(domainModelClass, cachedObjects);
+
+        long cacheVersion = primaryKeyCache == null ? 0 : primaryKeyCache.getVersion();
+        String primaryColumnName = getPrimaryColumnName(domainModelClass);
+        Field primaryField = getPrimaryField(domainModelClass);
+        for (int offset = 0; offset < absentKeys.size(); offset += MAX_PRIMARY_KEYS_IN_LIST) {
+            Object[] keys = absentKeys.subList(offset, Math.min(absentKeys.size(),
+                    offset + MAX_PRIMARY_KEYS_IN_LIST)).toArray();
+            String placeHolders = String.join(",", Collections.nCopies(keys.length, "?"));
+            Query<T> query = Databases.getQueryFactory().createQuery(domainModelClass);
+            query.where(String.format("%s IN (%s)", primaryColumnName, placeHolders), keys);
+            List<T> rows = query.execute();
+
+            for (T row : rows) {
+                Object primaryValue = PropertyUtils.read(row, primaryField.getName());
+                domainObjects.put(PrimaryKeyCache.normalizeKey(primaryValue), row);
+                if (primaryKeyCache != null)
+                    primaryKeyCache.put(primaryValue, row, cacheVersion);
+            }
+        }
+
+        return domainObjects.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static <T> PrimaryKeyCache<T> getPrimaryKeyCache(Class<T> domainModelClass) {
+        // The uncommitted changes in the transaction cannot be seen by others
+        if (Databases.getCurrentThreadConnection() != null)
+            return null;
+        return PrimaryKeyCache.of(domainModelClass);
+    }
+
+    private static String getPrimaryColumnName(Class domainModelClass) {
+        PrimaryKey primaryKey = getPrimaryKey(domainModelClass);
+        if (primaryKey == null || getPrimaryField(domainModelClass) == null)
+            throw new DomainModelException(String.format("The %s has no primary key",
+                    domainModelClass.getSimpleName()));
+        return primaryKey.name();
     }
 
     public static final Long count(Class<?> domainModelClass, String predicate, Object... params) throws SQLException {
         Query<?> query = Databases.getQueryFactory().createQuery(domainModelClass);
-        String countAlias = "count_rows";
-        List rows = query.select("COUNT(*) AS " + countAlias).where(predicate, params).execute();
-
-        if (rows.size() > 0) {
-            Map<String, Object> countRowsMap = PropertyUtils.getRawAttributes(rows.get(0));
-            Object count = countRowsMap.get(countRowsMap.keySet().toArray()[0]);
-            if (count == null)
-                return 0L;
-            else if (count instanceof Long)
-                return (Long) count;
-            else if (count instanceof Integer)
-                return Long.valueOf((Integer) count);
-            else if(count instanceof BigDecimal)
-                return ((BigDecimal)count).longValue();
-            else return 0L;
-        } else return 0L;
+        query.where(predicate, params);
+        return query.count();
     }
 
     public static final String encodeDefaultKey(String name) {
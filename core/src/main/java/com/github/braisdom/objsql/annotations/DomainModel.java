@@ -125,4 +125,27 @@ public @interface DomainModel {
      * @since 1.3.6
      */
     boolean autoGeneratedPrimaryKey() default false;
+
+    /**
+     * Indicates the query results of the domain model can be cached by
+     * <code>CachingSQLExecutor</code>, it is suitable for the read-mostly data only.
+     *
+     * @return
+     * @see com.github.braisdom.objsql.CachingSQLExecutor
+     */
+    boolean cacheable() default false;
+
+    /**
+     * The maximum number of domain objects cached by primary key, the objects loaded by
+     * <code>queryByPrimaryKey</code> will be cached if it is greater than 0.
+     *
+     * @return
+     * @see com.github.braisdom.objsql.PrimaryKeyCache
+     */
+    int primaryKeyCacheSize() default 0;
+
+    /**
+     * The seconds of domain objects cached by primary key.
+     */
+    int primaryKeyCacheTimeToLive() default 60;
 }
@@ -16,6 +16,7 @@
  */
 package com.github.braisdom.objsql.annotations;
 
+import com.github.braisdom.objsql.relation.FetchType;
 import com.github.braisdom.objsql.relation.RelationType;
 import com.github.braisdom.objsql.relation.Relationship;
 
@@ -93,4 +94,14 @@ public @interface Relation {
     String foreignFieldName() default "";
 
     String condition() default "";
+
+    /**
+     * Returns when the relation field will be filled, the LAZY relation will be
+     * loaded at the first access of the getter generated, for all objects
+     * queried together with the object.
+     *
+     * @return
+     * @see FetchType
+     */
+    FetchType fetch() default FetchType.EXPLICIT;
 }
@@ -240,13 +240,37 @@ public final class APTBuilder {
         return fields.toArray(new JCVariableDecl[]{});
     }
 
-    public JCMethodDecl newGetter(JCVariableDecl field) {
+    public JCMethodDecl[] getMethods() {
+        java.util.List<JCMethodDecl> methods = new ArrayList();
+        List<JCTree> members = classDecl.defs;
+        for (JCTree member : members) {
+            if (member instanceof JCMethodDecl) {
+                methods.add((JCMethodDecl) member);
+            }
+        }
+
+        return methods.toArray(new JCMethodDecl[]{});
+    }
+
+    public boolean hasTypeParameters() {
+        return classDecl.typarams.nonEmpty();
+    }
+
+    public String getGetterName(JCVariableDecl field) {
         String fieldName = field.name.toString();
-        String getterName;
         if (isBoolean(field.vartype))
-            getterName = Utils.camelize(String.format("%s_%s", "is", fieldName), true);
+            return Utils.camelize(String.format("%s_%s", "is", fieldName), true);
         else
-            getterName = Utils.camelize(String.format("%s_%s", "get", fieldName), true);
+            return Utils.camelize(String.format("%s_%s", "get", fieldName), true);
+    }
+
+    public String getSetterName(JCVariableDecl field) {
+        return Utils.camelize(String.format("%s_%s", "set", field.name.toString()), true);
+    }
+
+    public JCMethodDecl newGetter(JCVariableDecl field) {
+        String fieldName = field.name.toString();
+        String getterName = getGetterName(field);
 
         JCStatement returnStatement = treeMaker.Return(treeMaker.Select(varRef("this"), toName(fieldName)));
 
@@ -257,7 +281,7 @@ public final class APTBuilder {
 
     public JCMethodDecl newSetter(JCVariableDecl field, boolean returnThis) {
         String fieldName = field.name.toString();
-        String setterName = Utils.camelize(String.format("%s_%s", "set", fieldName), true);
+        String setterName = getSetterName(field);
 
         ListBuffer<JCStatement> statements = new ListBuffer<JCStatement>();
         JCExpression fieldRef = treeMaker.Select(varRef("this"), toName(fieldName));
@@ -3,12 +3,15 @@ package com.github.braisdom.objsql.apt;
 import com.github.braisdom.objsql.*;
 import com.github.braisdom.objsql.annotations.DomainModel;
 import com.github.braisdom.objsql.annotations.PrimaryKey;
+import com.github.braisdom.objsql.annotations.Relation;
 import com.github.braisdom.objsql.annotations.Transient;
 import com.github.braisdom.objsql.sql.AbstractTable;
 import com.github.braisdom.objsql.sql.Column;
 import com.github.braisdom.objsql.sql.DefaultColumn;
 import com.github.braisdom.objsql.reflection.ClassUtils;
 import com.github.braisdom.objsql.reflection.PropertyUtils;
+import com.github.braisdom.objsql.relation.FetchType;
+import com.github.braisdom.objsql.relation.LazyRelationLoader;
 import com.github.braisdom.objsql.relation.Relationship;
 import com.github.braisdom.objsql.sql.Select;
 import com.sun.tools.javac.code.Flags;
@@ -17,19 +20,24 @@ import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.*;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
 import org.mangosdk.spi.ProviderFor;
 
 import javax.annotation.processing.Processor;
 import java.lang.annotation.Annotation;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 @ProviderFor(Processor.class)
 public class DomainModelCodeGenerator extends DomainModelProcessor {
 
     @Override
     public void handle(AnnotationValues annotationValues, JCTree ast, APTBuilder aptBuilder) {
+        JCMethodDecl[] declaredMethods = aptBuilder.getMethods();
+
         handleSetterGetter(annotationValues, aptBuilder);
         handlePrimary(annotationValues, aptBuilder);
         handleTableName(aptBuilder);
@@ -60,6 +68,7 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
         handleNewInstanceFrom1Method(aptBuilder);
         handleRawAttributesField(aptBuilder);
         handleInnerTableClass(aptBuilder);
+        handleInnerAccessorClass(declaredMethods, aptBuilder);
     }
 
     @Override
@@ -71,15 +80,91 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
         JCVariableDecl[] fields = aptBuilder.getFields();
         DomainModel domainModel = annotationValues.getAnnotationValue(DomainModel.class);
         aptBuilder.getTreeMaker().at(aptBuilder.get().pos);
+        boolean lazyRelated = false;
         for (JCVariableDecl field : fields) {
             if (!aptBuilder.isStatic(field.mods)) {
+                boolean lazyRelation = isLazyRelation(field);
                 JCTree.JCMethodDecl setter = aptBuilder.newSetter(field, domainModel.fluent());
-                JCTree.JCMethodDecl getter = aptBuilder.newGetter(field);
+                JCTree.JCMethodDecl getter = lazyRelation ? newLazyRelationGetter(field, aptBuilder)
+                        : aptBuilder.newGetter(field);
 
                 aptBuilder.inject(setter);
                 aptBuilder.inject(getter);
+                lazyRelated |= lazyRelation;
             }
         }
+
+        if (lazyRelated)
+            handleLazyRelationLoaderField(aptBuilder);
+    }
+
+    private boolean isLazyRelation(JCVariableDecl field) {
+        for (JCAnnotation annotation : field.mods.annotations) {
+            String annotationName = annotation.annotationType.toString();
+            if (!annotationName.equals(Relation.class.getSimpleName())
+                    && !annotationName.equals(Relation.class.getName()))
+                continue;
+            for (JCExpression arg : annotation.args) {
+                if (arg instanceof JCAssign && ((JCAssign) arg).lhs.toString().equals("fetch"))
+                    return isLazyFetchType(((JCAssign) arg).rhs);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The trees are not attributed in processing, so the fetch type is matched by name,
+     * as <code>FetchType.LAZY</code>, its qualified name or <code>LAZY</code> imported statically.
+     */
+    private boolean isLazyFetchType(JCExpression fetchType) {
+        if (fetchType instanceof JCIdent)
+            return ((JCIdent) fetchType).name.contentEquals(FetchType.LAZY.name());
+        if (fetchType instanceof JCFieldAccess) {
+            JCFieldAccess fieldAccess = (JCFieldAccess) fetchType;
+            String typeName = fieldAccess.selected.toString();
+            return fieldAccess.name.contentEquals(FetchType.LAZY.name())
+                    && (typeName.equals(FetchType.class.getSimpleName()) || typeName.equals(FetchType.class.getName()));
+        }
+        return false;
+    }
+
+    /**
+     * The getter loads the relation by the loader at first access, for example:
+     * <pre>
+     *     public final List<Order> getOrders() {
+     *         if (this.orders == null && this.lazyRelationLoader != null)
+     *             this.lazyRelationLoader.load(this, "orders");
+     *         return this.orders;
+     *     }
+     * </pre>
+     */
+    private JCMethodDecl newLazyRelationGetter(JCVariableDecl field, APTBuilder aptBuilder) {
+        TreeMaker treeMaker = aptBuilder.getTreeMaker();
+        String fieldName = field.name.toString();
+        JCExpression fieldRef = treeMaker.Select(aptBuilder.varRef("this"), aptBuilder.toName(fieldName));
+        JCExpression loaderRef = treeMaker.Select(aptBuilder.varRef("this"),
+                aptBuilder.toName(LazyRelationLoader.LOADER_FIELD_NAME));
+
+        JCExpression unloaded = treeMaker.Binary(Tag.AND,
+                treeMaker.Binary(Tag.EQ, fieldRef, treeMaker.Literal(TypeTag.BOT, null)),
+                treeMaker.Binary(Tag.NE, loaderRef, treeMaker.Literal(TypeTag.BOT, null)));
+        JCStatement load = treeMaker.Exec(treeMaker.Apply(List.nil(),
+                treeMaker.Select(loaderRef, aptBuilder.toName("load")),
+                List.of(aptBuilder.varRef("this"), treeMaker.Literal(fieldName))));
+        JCStatement returnStatement = treeMaker.Return(fieldRef);
+
+        return treeMaker.MethodDef(treeMaker.Modifiers(Flags.PUBLIC | Flags.FINAL),
+                aptBuilder.toName(aptBuilder.getGetterName(field)), field.vartype, List.nil(), List.nil(),
+                List.nil(), treeMaker.Block(0, List.of(treeMaker.If(unloaded, load, null), returnStatement)), null);
+    }
+
+    private void handleLazyRelationLoaderField(APTBuilder aptBuilder) {
+        TreeMaker treeMaker = aptBuilder.getTreeMaker();
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT);
+        modifiers.annotations = modifiers.annotations.append(treeMaker.Annotation(aptBuilder.typeRef(Transient.class), List.nil()));
+
+        aptBuilder.inject(treeMaker.VarDef(modifiers, aptBuilder.toName(LazyRelationLoader.LOADER_FIELD_NAME),
+                aptBuilder.typeRef(LazyRelationLoader.class), null));
     }
 
     private void handlePrimary(AnnotationValues annotationValues, APTBuilder aptBuilder) {
@@ -98,24 +183,18 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
 
         aptBuilder.inject(primaryField);
         aptBuilder.inject(queryByPrimaryKey);
+        aptBuilder.inject(createQueryByPrimaryKeysMethod(aptBuilder));
         aptBuilder.inject(aptBuilder.newSetter(primaryField, domainModel.fluent()));
         aptBuilder.inject(aptBuilder.newGetter(primaryField));
     }
 
     private JCMethodDecl createQueryByPrimaryKeyMethod(DomainModel domainModel, JCVariableDecl primaryField, APTBuilder aptBuilder) {
-        TreeMaker treeMaker = aptBuilder.getTreeMaker();
         MethodBuilder methodBuilder = aptBuilder.createMethodBuilder();
-        StatementBuilder statementBuilder = aptBuilder.createStatementBuilder();
 
-        statementBuilder.append(aptBuilder.newGenericsType(Query.class,
-                aptBuilder.getClassName()), "query", "createQuery");
-        statementBuilder.append("query", "where",
-                List.of(treeMaker.Literal(String.format("%s = ?", domainModel.primaryColumnName())), aptBuilder.varRef("primaryKey")));
-
-        methodBuilder.setReturnStatement("query", "queryFirst",
+        methodBuilder.setReturnStatement(Tables.class, "queryByPrimaryKey",
+                aptBuilder.classRef(aptBuilder.getClassName()), aptBuilder.varRef("primaryKey"),
                 aptBuilder.varRef("relationships"));
         return methodBuilder
-                .addStatements(statementBuilder.build())
                 .addParameter("primaryKey", primaryField.vartype)
                 .addVarargsParameter("relationships", aptBuilder.typeRef(Relationship.class))
                 .setThrowsClauses(SQLException.class)
@@ -123,6 +202,18 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
                 .build("queryByPrimaryKey", Flags.PUBLIC | Flags.STATIC | Flags.FINAL);
     }
 
+    private JCMethodDecl createQueryByPrimaryKeysMethod(APTBuilder aptBuilder) {
+        MethodBuilder methodBuilder = aptBuilder.createMethodBuilder();
+
+        methodBuilder.setReturnStatement(Tables.class, "queryByPrimaryKeys",
+                aptBuilder.classRef(aptBuilder.getClassName()), aptBuilder.varRef("primaryKeys"));
+        return methodBuilder
+                .addVarargsParameter("primaryKeys", aptBuilder.typeRef(Object.class))
+                .setThrowsClauses(SQLException.class)
+                .setReturnType(java.util.List.class, aptBuilder.typeRef(aptBuilder.getClassName()))
+                .build("queryByPrimaryKeys", Flags.PUBLIC | Flags.STATIC | Flags.FINAL);
+    }
+
     private void handleTableName(APTBuilder aptBuilder) {
         TreeMaker treeMaker = aptBuilder.getTreeMaker();
 
@@ -596,20 +687,25 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
                 .build("newInstanceFrom", Flags.PUBLIC | Flags.STATIC | Flags.FINAL));
     }
 
+    /**
+     * The raw attributes are created lazily, or set as a whole by the row mapping, so that
+     * the rows without raw columns need not allocate a map.
+     */
     private void handleRawAttributesField(APTBuilder aptBuilder) {
         TreeMaker treeMaker = aptBuilder.getTreeMaker();
         JCExpression rawAttributesType = treeMaker.TypeApply(aptBuilder.typeRef(Map.class),
                 List.of(aptBuilder.typeRef(String.class), aptBuilder.typeRef(Object.class)));
         JCExpression rawAttributesInit = treeMaker.NewClass(null, List.nil(), aptBuilder.typeRef(HashMap.class.getName()),
                 List.nil(), null);
-        JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.FINAL);
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE);
         modifiers.annotations = modifiers.annotations.append(treeMaker.Annotation(aptBuilder.typeRef(Transient.class), List.nil()));
 
-        aptBuilder.inject(treeMaker.VarDef(modifiers, aptBuilder.toName("rawAttributes"), rawAttributesType, rawAttributesInit));
+        aptBuilder.inject(treeMaker.VarDef(modifiers, aptBuilder.toName("rawAttributes"), rawAttributesType, null));
 
         MethodBuilder getRawAttributeMethodBuilder = aptBuilder.createMethodBuilder();
-        JCReturn getRawAttributeReturn = treeMaker.Return(aptBuilder
-                .methodCall("rawAttributes", "get", aptBuilder.varRef("name")));
+        JCReturn getRawAttributeReturn = treeMaker.Return(treeMaker.Conditional(newRawAttributesAbsent(aptBuilder),
+                treeMaker.Literal(TypeTag.BOT, null),
+                aptBuilder.methodCall("rawAttributes", "get", aptBuilder.varRef("name"))));
         aptBuilder.inject(getRawAttributeMethodBuilder
                 .addStatement(getRawAttributeReturn)
                 .addParameter("name", String.class)
@@ -617,8 +713,9 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
                 .build("getRawAttribute", Flags.PUBLIC | Flags.FINAL));
 
         MethodBuilder setRawAttributeMethodBuilder = aptBuilder.createMethodBuilder();
-        JCExpression setRawAttributeExpression = aptBuilder.methodCall("rawAttributes", "put",
-                aptBuilder.varRef("name"), aptBuilder.varRef("value"));
+        JCExpression setRawAttributeExpression = treeMaker.Apply(List.nil(), treeMaker.Select(
+                aptBuilder.methodCall("getRawAttributes"), aptBuilder.toName("put")),
+                List.of(aptBuilder.varRef("name"), aptBuilder.varRef("value")));
         aptBuilder.inject(setRawAttributeMethodBuilder
                 .addStatement(treeMaker.Exec(setRawAttributeExpression))
                 .addParameter("name", String.class)
@@ -626,11 +723,31 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
                 .build("setRawAttribute", Flags.PUBLIC | Flags.FINAL));
 
         MethodBuilder getRawAttributesMethodBuilder = aptBuilder.createMethodBuilder();
+        JCStatement rawAttributesCreation = treeMaker.If(newRawAttributesAbsent(aptBuilder),
+                treeMaker.Exec(treeMaker.Assign(newRawAttributesRef(aptBuilder), rawAttributesInit)), null);
         JCReturn getRawAttributesReturn = treeMaker.Return(aptBuilder.varRef("rawAttributes"));
         aptBuilder.inject(getRawAttributesMethodBuilder
+                .addStatement(rawAttributesCreation)
                 .addStatement(getRawAttributesReturn)
                 .setReturnType(aptBuilder.newGenericsType(Map.class, String.class, Object.class))
                 .build("getRawAttributes", Flags.PUBLIC | Flags.FINAL));
+
+        MethodBuilder setRawAttributesMethodBuilder = aptBuilder.createMethodBuilder();
+        JCExpression setRawAttributesExpression = treeMaker.Assign(newRawAttributesRef(aptBuilder),
+                aptBuilder.varRef("rawAttributes"));
+        aptBuilder.inject(setRawAttributesMethodBuilder
+                .addStatement(treeMaker.Exec(setRawAttributesExpression))
+                .addParameter("rawAttributes", aptBuilder.newGenericsType(Map.class, String.class, Object.class))
+                .build("setRawAttributes", Flags.PUBLIC | Flags.FINAL));
+    }
+
+    private JCExpression newRawAttributesRef(APTBuilder aptBuilder) {
+        return aptBuilder.getTreeMaker().Select(aptBuilder.varRef("this"), aptBuilder.toName("rawAttributes"));
+    }
+
+    private JCExpression newRawAttributesAbsent(APTBuilder aptBuilder) {
+        TreeMaker treeMaker = aptBuilder.getTreeMaker();
+        return treeMaker.Binary(Tag.EQ, newRawAttributesRef(aptBuilder), treeMaker.Literal(TypeTag.BOT, null));
     }
 
     private void handleInnerTableClass(APTBuilder aptBuilder) {
@@ -664,4 +781,130 @@ public class DomainModelCodeGenerator extends DomainModelProcessor {
         aptBuilder.inject(asTableMethod.build("asTable", Flags.PUBLIC | Flags.STATIC | Flags.FINAL));
         aptBuilder.inject(classDecl);
     }
+
+    /**
+     * Generates the nested class implementing <code>DomainModelAccessor</code>, which creates
+     * the instance and accesses the fields with a switch on the field name. The fields
+     * with customized getter or setter are left to the <code>PropertyUtils</code>.
+     */
+    private void handleInnerAccessorClass(JCMethodDecl[] declaredMethods, APTBuilder aptBuilder) {
+        if (aptBuilder.hasTypeParameters() || !hasNoArgsConstructor(declaredMethods))
+            return;
+
+        TreeMaker treeMaker = aptBuilder.getTreeMaker();
+        String className = aptBuilder.getClassName();
+        Set<String> declaredMethodNames = new HashSet<>();
+        for (JCMethodDecl declaredMethod : declaredMethods)
+            declaredMethodNames.add(declaredMethod.name.toString());
+
+        JCClassDecl classDecl = treeMaker.ClassDef(treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC | Flags.FINAL),
+                aptBuilder.toName(DomainModelAccessor.CLASS_NAME), List.nil(), null,
+                List.of(aptBuilder.newGenericsType(DomainModelAccessor.class, className)), List.nil());
+
+        ListBuffer<JCCase> getterCases = new ListBuffer<>();
+        ListBuffer<JCCase> setterCases = new ListBuffer<>();
+        for (JCVariableDecl field : aptBuilder.getFields()) {
+            if (aptBuilder.isStatic(field.mods))
+                continue;
+
+            String fieldName = field.name.toString();
+
+            if (!declaredMethodNames.contains(aptBuilder.getGetterName(field))) {
+                JCExpression fieldRef = treeMaker.Select(aptBuilder.varRef("bean"), field.name);
+                getterCases.append(treeMaker.Case(treeMaker.Literal(fieldName),
+                        List.of(treeMaker.Return(fieldRef))));
+            }
+
+            if ((field.mods.flags & Flags.FINAL) == 0 && !declaredMethodNames.contains(aptBuilder.getSetterName(field))) {
+                JCExpression fieldRef = treeMaker.Select(aptBuilder.varRef("bean"), field.name);
+                JCExpression value = treeMaker.TypeCast(boxedTypeRef(field.vartype, aptBuilder),
+                        primitiveValue(field, aptBuilder));
+                setterCases.append(treeMaker.Case(treeMaker.Literal(fieldName), List.of(
+                        treeMaker.Exec(treeMaker.Assign(fieldRef, value)), treeMaker.Return(null))));
+            }
+        }
+
+        MethodBuilder newInstanceMethod = aptBuilder.createMethodBuilder();
+        newInstanceMethod.setReturnStatement(treeMaker.NewClass(null, List.nil(),
+                aptBuilder.typeRef(className), List.nil(), null));
+        classDecl.defs = classDecl.defs.append(newInstanceMethod
+                .setReturnType(aptBuilder.typeRef(className))
+                .build("newInstance", Flags.PUBLIC | Flags.FINAL));
+
+        MethodBuilder getFieldValueMethod = aptBuilder.createMethodBuilder();
+        getFieldValueMethod.addStatement(treeMaker.Switch(aptBuilder.varRef("fieldName"), getterCases.toList()));
+        getFieldValueMethod.setReturnStatement(PropertyUtils.class, "read",
+                aptBuilder.varRef("bean"), aptBuilder.varRef("fieldName"));
+        classDecl.defs = classDecl.defs.append(getFieldValueMethod
+                .addParameter("bean", aptBuilder.typeRef(className))
+                .addParameter("fieldName", String.class)
+                .setReturnType(aptBuilder.typeRef(Object.class))
+                .build("getFieldValue", Flags.PUBLIC | Flags.FINAL));
+
+        StatementBuilder setFieldValueStatement = aptBuilder.createStatementBuilder();
+        setFieldValueStatement.append(treeMaker.Switch(aptBuilder.varRef("fieldName"), setterCases.toList()));
+        setFieldValueStatement.append(PropertyUtils.class, "write", aptBuilder.varRef("bean"),
+                aptBuilder.varRef("fieldName"), aptBuilder.varRef("value"));
+        classDecl.defs = classDecl.defs.append(aptBuilder.createMethodBuilder()
+                .addStatements(setFieldValueStatement.build())
+                .addParameter("bean", aptBuilder.typeRef(className))
+                .addParameter("fieldName", String.class)
+                .addParameter("value", Object.class)
+                .build("setFieldValue", Flags.PUBLIC | Flags.FINAL));
+
+        aptBuilder.inject(classDecl);
+    }
+
+    private boolean hasNoArgsConstructor(JCMethodDecl[] declaredMethods) {
+        boolean hasConstructor = false;
+        for (JCMethodDecl declaredMethod : declaredMethods) {
+            if ("<init>".equals(declaredMethod.name.toString())) {
+                if (declaredMethod.params.isEmpty())
+                    return true;
+                hasConstructor = true;
+            }
+        }
+        return !hasConstructor;
+    }
+
+    /**
+     * Converts the value for a primitive field by <code>PropertyUtils.toPrimitiveValue</code>,
+     * which widens the value as the setter does and rejects null.
+     */
+    private JCExpression primitiveValue(JCVariableDecl field, APTBuilder aptBuilder) {
+        if (!(field.vartype instanceof JCPrimitiveTypeTree))
+            return aptBuilder.varRef("value");
+
+        TreeMaker treeMaker = aptBuilder.getTreeMaker();
+        JCExpression primitiveClass = treeMaker.Select(
+                treeMaker.TypeIdent(((JCPrimitiveTypeTree) field.vartype).typetag), aptBuilder.toName("class"));
+        return aptBuilder.staticMethodCall(PropertyUtils.class, "toPrimitiveValue", primitiveClass,
+                aptBuilder.varRef("value"), treeMaker.Literal(field.name.toString()));
+    }
+
+    private JCExpression boxedTypeRef(JCExpression varType, APTBuilder aptBuilder) {
+        if (!(varType instanceof JCPrimitiveTypeTree))
+            return varType;
+
+        switch (((JCPrimitiveTypeTree) varType).typetag) {
+            case BOOLEAN:
+                return aptBuilder.typeRef(Boolean.class);
+            case BYTE:
+                return aptBuilder.typeRef(Byte.class);
+            case SHORT:
+                return aptBuilder.typeRef(Short.class);
+            case CHAR:
+                return aptBuilder.typeRef(Character.class);
+            case INT:
+                return aptBuilder.typeRef(Integer.class);
+            case LONG:
+                return aptBuilder.typeRef(Long.class);
+            case FLOAT:
+                return aptBuilder.typeRef(Float.class);
+            case DOUBLE:
+                return aptBuilder.typeRef(Double.class);
+            default:
+                return varType;
+        }
+    }
 }
@@ -47,6 +47,11 @@ public abstract class AbstractQueryRunner {
     @Deprecated
     protected final DataSource ds;
 
+    /**
+     * The cache of prepared statements, it is disabled if null.
+     */
+    private volatile StatementCache statementCache;
+
     /**
      * Default constructor, sets pmdKnownBroken to false and ds to null.
      */
@@ -123,13 +128,34 @@ public abstract class AbstractQueryRunner {
         return pmdKnownBroken;
     }
 
+    /**
+     * Returns the cache of prepared statements, or null if it is disabled.
+     *
+     * @return the cache of prepared statements
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Enables the cache of prepared statements, the statements will be reused in
+     * the same connection until the connection is released by
+     * {@link StatementCache#release(Connection)}.
+     *
+     * @param statementCache The cache of prepared statements, null for disabling it.
+     */
+    public void setStatementCache(StatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
+
     /**
      * Factory method that creates and initializes a
      * <code>PreparedStatement</code> object for the given SQL.
      * <code>QueryRunner</code> methods always call this method to prepare
      * statements for them. Subclasses can override this method to provide
      * special PreparedStatement configuration if needed. This implementation
-     * simply calls <code>conn.prepareStatement(sql)</code>.
+     * simply calls <code>conn.prepareStatement(sql)</code>, or checks out the
+     * statement from the <code>StatementCache</code> if it is enabled.
      *
      * @param conn The <code>Connection</code> used to create the
      *             <code>PreparedStatement</code>
@@ -139,6 +165,10 @@ public abstract class AbstractQueryRunner {
      */
     protected PreparedStatement prepareStatement(Connection conn, String sql)
             throws SQLException {
+        StatementCache statementCache = this.statementCache;
+        if (statementCache != null) {
+            return statementCache.prepareStatement(conn, sql, StatementCache.NO_RETURNED_KEYS);
+        }
 
         return conn.prepareStatement(sql);
     }
@@ -151,7 +181,8 @@ public abstract class AbstractQueryRunner {
      * special PreparedStatement configuration if needed. This implementation
      * simply calls <code>conn.prepareStatement(sql, returnedKeys)</code>
      * which will result in the ability to retrieve the automatically-generated
-     * keys from an auto_increment column.
+     * keys from an auto_increment column, or checks out the statement from the
+     * <code>StatementCache</code> if it is enabled.
      *
      * @param conn         The <code>Connection</code> used to create the
      *                     <code>PreparedStatement</code>
@@ -163,6 +194,10 @@ public abstract class AbstractQueryRunner {
      */
     protected PreparedStatement prepareStatement(Connection conn, String sql, int returnedKeys)
             throws SQLException {
+        StatementCache statementCache = this.statementCache;
+        if (statementCache != null) {
+            return statementCache.prepareStatement(conn, sql, returnedKeys);
+        }
 
         return conn.prepareStatement(sql, returnedKeys);
     }
@@ -403,12 +438,17 @@ public abstract class AbstractQueryRunner {
      * @since DbUtils 1.1
      */
     protected void close(Connection conn) throws SQLException {
+        StatementCache statementCache = this.statementCache;
+        if (statementCache != null && conn != null) {
+            statementCache.release(conn);
+        }
         DbUtils.close(conn);
     }
 
     /**
      * Close a <code>Statement</code>. This implementation avoids closing if
-     * null and does <strong>not</strong> suppress any exceptions. Subclasses
+     * null, returns the statement to the <code>StatementCache</code> if it is
+     * cached, and does <strong>not</strong> suppress any exceptions. Subclasses
      * can override to provide special handling like logging.
      *
      * @param stmt Statement to close
@@ -416,6 +456,10 @@ public abstract class AbstractQueryRunner {
      * @since DbUtils 1.1
      */
     protected void close(Statement stmt) throws SQLException {
+        StatementCache statementCache = this.statementCache;
+        if (statementCache != null && stmt != null && statementCache.close(stmt)) {
+            return;
+        }
         DbUtils.close(stmt);
     }
 
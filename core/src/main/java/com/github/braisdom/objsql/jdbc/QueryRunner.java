@@ -207,6 +207,47 @@ public class QueryRunner extends AbstractQueryRunner {
         return this.<T>query(conn, false, sql, rsh, params);
     }
 
+    /**
+     * Execute an SQL SELECT query with a forward-only and read-only cursor, and
+     * returns the <code>ResultSet</code> without consuming it. The caller is
+     * responsible for closing the <code>ResultSet</code>, its <code>Statement</code>
+     * and the connection.
+     * @param conn The connection to execute the query in.
+     * @param sql The query to execute.
+     * @param fetchSize The number of rows fetched from the database in a round trip,
+     *                  the driver default will be used if it is not positive.
+     * @param params The replacement parameters.
+     * @return The opened <code>ResultSet</code>.
+     * @throws SQLException if a database access error occurs
+     */
+    public ResultSet queryCursor(Connection conn, String sql, int fetchSize, Object... params) throws SQLException {
+        if (conn == null) {
+            throw new SQLException("Null connection");
+        }
+
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (fetchSize > 0) {
+                stmt.setFetchSize(fetchSize);
+            }
+            this.fillStatement(stmt, params);
+            rs = this.wrap(stmt.executeQuery());
+
+        } catch (SQLException e) {
+            close(stmt);
+            this.rethrow(e, sql, params);
+        }
+
+        return rs;
+    }
+
     /**
      * Execute an SQL SELECT query without any replacement parameters.  The
      * caller is responsible for closing the connection.
@@ -596,11 +637,15 @@ public class QueryRunner extends AbstractQueryRunner {
         T generatedKeys = null;
 
         try {
-            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            stmt = this.prepareStatement(conn, sql, Statement.RETURN_GENERATED_KEYS);
             this.fillStatement(stmt, params);
             stmt.executeUpdate();
             ResultSet resultSet = stmt.getGeneratedKeys();
-            generatedKeys = rsh.handle(resultSet);
+            try {
+                generatedKeys = rsh.handle(resultSet);
+            } finally {
+                close(resultSet);
+            }
         } catch (SQLException e) {
             this.rethrow(e, sql, params);
         } finally {
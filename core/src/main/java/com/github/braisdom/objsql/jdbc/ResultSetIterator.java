@@ -19,6 +19,7 @@ package com.github.braisdom.objsql.jdbc;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * <p>
@@ -28,8 +29,9 @@ import java.util.Iterator;
  * </p>
  *
  * <p>
- * This implementation requires the <code>ResultSet.isLast()</code> method
- * to be implemented.
+ * This implementation looks one row ahead with <code>ResultSet.next()</code>,
+ * so that it also works with forward-only cursors, which are not required
+ * to implement <code>ResultSet.isLast()</code>.
  * </p>
  */
 public class ResultSetIterator implements Iterator<Object[]> {
@@ -44,6 +46,16 @@ public class ResultSetIterator implements Iterator<Object[]> {
      */
     private final RowProcessor convert;
 
+    /**
+     * Whether the cursor has been moved to the row will be returned by <code>next()</code>.
+     */
+    private boolean advanced;
+
+    /**
+     * Whether the cursor is positioned on a valid row after advancing.
+     */
+    private boolean hasRow;
+
     /**
      * Constructor for ResultSetIterator.
      * @param rs Wrap this <code>ResultSet</code> in an <code>Iterator</code>.
@@ -71,12 +83,16 @@ public class ResultSetIterator implements Iterator<Object[]> {
      */
     @Override
     public boolean hasNext() {
-        try {
-            return !rs.isLast();
-        } catch (SQLException e) {
-            rethrow(e);
-            return false;
+        if (!advanced) {
+            try {
+                hasRow = rs.next();
+                advanced = true;
+            } catch (SQLException e) {
+                rethrow(e);
+                return false;
+            }
         }
+        return hasRow;
     }
 
     /**
@@ -88,8 +104,11 @@ public class ResultSetIterator implements Iterator<Object[]> {
      */
     @Override
     public Object[] next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
         try {
-            rs.next();
+            advanced = false;
             return this.convert.toArray(rs);
         } catch (SQLException e) {
             rethrow(e);
@@ -104,6 +123,9 @@ public class ResultSetIterator implements Iterator<Object[]> {
      */
     @Override
     public void remove() {
+        if (advanced)
+            throw new IllegalStateException("The cursor has been moved by hasNext()");
+
         try {
             this.rs.deleteRow();
         } catch (SQLException e) {
@@ -113,12 +135,13 @@ public class ResultSetIterator implements Iterator<Object[]> {
 
     /**
      * Rethrow the SQLException as a RuntimeException.  This implementation
-     * creates a new RuntimeException with the SQLException's error message.
+     * creates a new RuntimeException with the SQLException's error message
+     * and the SQLException as its cause.
      * @param e SQLException to rethrow
      * @since DbUtils 1.1
      */
     protected void rethrow(SQLException e) {
-        throw new RuntimeException(e.getMessage());
+        throw new RuntimeException(e.getMessage(), e);
     }
 
     /**
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * A LRU cache of <code>PreparedStatement</code> keyed by the connection, the SQL and the
+ * generated-keys flag, it avoids the statements being parsed again and again by the database,
+ * even if the connection pool underneath does not cache statements.
+ *
+ * <p>A cached statement is checked out by <code>prepareStatement</code> and checked in by
+ * <code>close</code>, so that the same SQL can be executed re-entrantly in one connection.
+ * The statements of a connection must be released by <code>release</code> before the
+ * connection is closed, or they will be closed when they are checked in or evicted.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+public class StatementCache {
+
+    /**
+     * The flag for statements prepared without generated-keys flag.
+     */
+    public static final int NO_RETURNED_KEYS = -1;
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final int maxSize;
+    private final LinkedHashMap<StatementKey, PreparedStatement> idleStatements;
+    private final Map<PreparedStatement, StatementKey> checkedOutStatements;
+
+    private long hitCount;
+    private long missCount;
+
+    private static final class StatementKey {
+
+        private final Connection connection;
+        private final String sql;
+        private final int returnedKeys;
+
+        StatementKey(Connection connection, String sql, int returnedKeys) {
+            this.connection = connection;
+            this.sql = sql;
+            this.returnedKeys = returnedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey that = (StatementKey) o;
+            return connection == that.connection && returnedKeys == that.returnedKeys
+                    && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(connection) + sql.hashCode()) + returnedKeys;
+        }
+    }
+
+    public StatementCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize The maximum number of idle statements of all connections.
+     */
+    public StatementCache(int maxSize) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("The maxSize must be greater than 0");
+
+        this.maxSize = maxSize;
+        this.idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+        this.checkedOutStatements = new IdentityHashMap<>();
+    }
+
+    /**
+     * Checks out a statement from the cache, or prepares a new one if absent.
+     *
+     * @param conn         The connection which the statement is prepared in.
+     * @param sql          The SQL statement to prepare.
+     * @param returnedKeys The generated-keys flag, or <code>NO_RETURNED_KEYS</code>.
+     * @return A statement which is ready for filling parameters.
+     * @throws SQLException if a database access error occurs
+     */
+    public PreparedStatement prepareStatement(Connection conn, String sql, int returnedKeys) throws SQLException {
+        StatementKey key = new StatementKey(conn, sql, returnedKeys);
+
+        synchronized (this) {
+            PreparedStatement stmt = idleStatements.remove(key);
+            if (stmt != null && isReusable(stmt)) {
+                hitCount++;
+                checkedOutStatements.put(stmt, key);
+                return stmt;
+            }
+            missCount++;
+        }
+
+        PreparedStatement stmt = returnedKeys == NO_RETURNED_KEYS
+                ? conn.prepareStatement(sql) : conn.prepareStatement(sql, returnedKeys);
+        synchronized (this) {
+            checkedOutStatements.put(stmt, key);
+        }
+        return stmt;
+    }
+
+    /**
+     * Checks in a statement which was checked out from the cache, the least recently
+     * used statement will be closed if the cache is full.
+     *
+     * @param stmt The statement to check in.
+     * @return false if the statement is not owned by the cache.
+     * @throws SQLException if a database access error occurs
+     */
+    public boolean close(Statement stmt) throws SQLException {
+        PreparedStatement evicted = null;
+
+        synchronized (this) {
+            StatementKey key = checkedOutStatements.remove(stmt);
+            if (key == null)
+                return false;
+
+            if (key.connection.isClosed() || idleStatements.containsKey(key)) {
+                evicted = (PreparedStatement) stmt;
+            } else {
+                idleStatements.put(key, (PreparedStatement) stmt);
+                if (idleStatements.size() > maxSize) {
+                    Iterator<PreparedStatement> iterator = idleStatements.values().iterator();
+                    evicted = iterator.next();
+                    iterator.remove();
+                }
+            }
+        }
+
+        DbUtils.closeQuietly(evicted);
+        return true;
+    }
+
+    /**
+     * Closes and removes all idle statements of the connection, it should be invoked
+     * before the connection is closed or returned to the pool.
+     *
+     * @param conn The connection to release.
+     */
+    public void release(Connection conn) {
+        List<PreparedStatement> released = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Map.Entry<StatementKey, PreparedStatement>> iterator = idleStatements.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<StatementKey, PreparedStatement> entry = iterator.next();
+                if (entry.getKey().connection == conn) {
+                    released.add(entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+
+        released.forEach(DbUtils::closeQuietly);
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int size() {
+        return idleStatements.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private boolean isReusable(PreparedStatement stmt) {
+        try {
+            if (stmt.isClosed())
+                return false;
+            stmt.clearParameters();
+        } catch (SQLException ex) {
+            DbUtils.closeQuietly(stmt);
+            return false;
+        }
+
+        try {
+            // A failed batch may leave its commands in the statement
+            stmt.clearBatch();
+        } catch (SQLException ex) {
+            // Ignored, the batch updates may be unsupported
+        }
+        return true;
+    }
+}
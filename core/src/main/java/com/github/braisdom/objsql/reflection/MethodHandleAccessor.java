@@ -0,0 +1,447 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.reflection;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.*;
+
+/**
+ * The <code>PropertyAccessor</code> generated with <code>LambdaMetafactory</code>, the getter
+ * and setter are linked as functional interfaces which can be inlined by JIT, the int, long
+ * and double properties have primitive-specialized paths without boxing. The values of primitive
+ * properties are unboxed and widened as <code>Method.invoke</code> does, such as an Integer
+ * written to a long property. <br/>
+ *
+ * It falls back to the <code>MethodHandle</code> when the lambda cannot be spun for the bean,
+ * for example, the bean class is not public or invisible from the class loader of ObjectiveSql.
+ */
+final class MethodHandleAccessor implements PropertyAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final List<Class<?>> WIDENING_RANKS = Arrays.asList(byte.class, short.class,
+            int.class, long.class, float.class, double.class);
+
+    private final String name;
+    private final Class<?> propertyType;
+    private final boolean accessible;
+    private final Function<Object, Object> reader;
+    private final BiConsumer<Object, Object> writer;
+
+    private final ToIntFunction<Object> intReader;
+    private final ToLongFunction<Object> longReader;
+    private final ToDoubleFunction<Object> doubleReader;
+    private final ObjIntConsumer<Object> intWriter;
+    private final ObjLongConsumer<Object> longWriter;
+    private final ObjDoubleConsumer<Object> doubleWriter;
+
+    private MethodHandleAccessor(Class<?> beanClass, PropertyDescriptor propertyDescriptor) {
+        Method readMethod = propertyDescriptor.getReadMethod();
+        Method writeMethod = propertyDescriptor.getWriteMethod();
+
+        this.name = propertyDescriptor.getName();
+        this.propertyType = propertyDescriptor.getPropertyType();
+        this.accessible = isAccessible(readMethod) && isAccessible(writeMethod);
+
+        boolean generatable = isPublic(beanClass) && isVisible(beanClass) && isVisible(propertyType);
+        this.reader = readMethod == null ? null : createReader(beanClass, readMethod, generatable);
+        this.writer = writeMethod == null ? null : createWriter(beanClass, writeMethod, generatable);
+
+        this.intReader = int.class.equals(propertyType) && readMethod != null
+                ? createIntReader(beanClass, readMethod, generatable) : null;
+        this.longReader = long.class.equals(propertyType) && readMethod != null
+                ? createLongReader(beanClass, readMethod, generatable) : null;
+        this.doubleReader = double.class.equals(propertyType) && readMethod != null
+                ? createDoubleReader(beanClass, readMethod, generatable) : null;
+        this.intWriter = int.class.equals(propertyType) && writeMethod != null
+                ? createIntWriter(beanClass, writeMethod, generatable) : null;
+        this.longWriter = long.class.equals(propertyType) && writeMethod != null
+                ? createLongWriter(beanClass, writeMethod, generatable) : null;
+        this.doubleWriter = double.class.equals(propertyType) && writeMethod != null
+                ? createDoubleWriter(beanClass, writeMethod, generatable) : null;
+    }
+
+    static MethodHandleAccessor create(Class<?> beanClass, PropertyDescriptor propertyDescriptor) {
+        return new MethodHandleAccessor(beanClass, propertyDescriptor);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Class<?> getPropertyType() {
+        return propertyType;
+    }
+
+    @Override
+    public boolean isAccessible() {
+        return accessible;
+    }
+
+    @Override
+    public boolean isReadable() {
+        return reader != null;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return writer != null;
+    }
+
+    @Override
+    public Object get(Object bean) {
+        return reader.apply(bean);
+    }
+
+    @Override
+    public void set(Object bean, Object value) {
+        if (!propertyType.isPrimitive()) {
+            writer.accept(bean, value);
+            return;
+        }
+
+        Object primitiveValue = widen(propertyType, value, name);
+        if (intWriter != null)
+            intWriter.accept(bean, (Integer) primitiveValue);
+        else if (longWriter != null)
+            longWriter.accept(bean, (Long) primitiveValue);
+        else if (doubleWriter != null)
+            doubleWriter.accept(bean, (Double) primitiveValue);
+        else writer.accept(bean, primitiveValue);
+    }
+
+    @Override
+    public int getInt(Object bean) {
+        return intReader == null ? PropertyAccessor.super.getInt(bean) : intReader.applyAsInt(bean);
+    }
+
+    @Override
+    public long getLong(Object bean) {
+        return longReader == null ? PropertyAccessor.super.getLong(bean) : longReader.applyAsLong(bean);
+    }
+
+    @Override
+    public double getDouble(Object bean) {
+        return doubleReader == null ? PropertyAccessor.super.getDouble(bean) : doubleReader.applyAsDouble(bean);
+    }
+
+    @Override
+    public void setInt(Object bean, int value) {
+        if (intWriter == null)
+            PropertyAccessor.super.setInt(bean, value);
+        else intWriter.accept(bean, value);
+    }
+
+    @Override
+    public void setLong(Object bean, long value) {
+        if (longWriter == null)
+            PropertyAccessor.super.setLong(bean, value);
+        else longWriter.accept(bean, value);
+    }
+
+    @Override
+    public void setDouble(Object bean, double value) {
+        if (doubleWriter == null)
+            PropertyAccessor.super.setDouble(bean, value);
+        else doubleWriter.accept(bean, value);
+    }
+
+    /**
+     * Converts the value to the wrapper of primitive property by the unboxing and widening
+     * conversions of <code>Method.invoke</code>, the null and narrowing are rejected.
+     */
+    static Object widen(Class<?> propertyType, Object value, String name) {
+        if (value == null)
+            throw new IllegalArgumentException(String.format("The primitive property %s cannot be null", name));
+
+        Class<?> wrapperType = wrap(propertyType);
+        if (wrapperType.isInstance(value))
+            return value;
+
+        int sourceRank = WIDENING_RANKS.indexOf(unwrap(value.getClass()));
+        int targetRank = WIDENING_RANKS.indexOf(propertyType);
+        boolean widening = value instanceof Character
+                ? targetRank >= WIDENING_RANKS.indexOf(int.class) : sourceRank >= 0 && targetRank > sourceRank;
+        if (!widening)
+            throw new IllegalArgumentException(String.format("The %s cannot be converted to %s of property %s",
+                    value.getClass().getName(), propertyType.getName(), name));
+
+        Number number = value instanceof Character ? (int) (Character) value : (Number) value;
+        if (short.class.equals(propertyType))
+            return number.shortValue();
+        else if (int.class.equals(propertyType))
+            return number.intValue();
+        else if (long.class.equals(propertyType))
+            return number.longValue();
+        else if (float.class.equals(propertyType))
+            return number.floatValue();
+        else return number.doubleValue();
+    }
+
+    private static Function<Object, Object> createReader(Class<?> beanClass, Method readMethod, boolean generatable) {
+        Function<Object, Object> function = generatable ? generate(Function.class, "apply",
+                MethodType.methodType(Object.class, Object.class), readMethod,
+                MethodType.methodType(wrap(readMethod.getReturnType()), beanClass)) : null;
+        if (function == null) {
+            MethodHandle handle = unreflect(readMethod).asType(MethodType.methodType(Object.class, Object.class));
+            function = bean -> {
+                try {
+                    return (Object) handle.invokeExact(bean);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return function;
+    }
+
+    private static BiConsumer<Object, Object> createWriter(Class<?> beanClass, Method writeMethod, boolean generatable) {
+        BiConsumer<Object, Object> consumer = generatable ? generate(BiConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, Object.class), writeMethod,
+                MethodType.methodType(void.class, beanClass, wrap(writeMethod.getParameterTypes()[0]))) : null;
+        if (consumer == null) {
+            MethodHandle handle = unreflect(writeMethod)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            consumer = (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return consumer;
+    }
+
+    private static ToIntFunction<Object> createIntReader(Class<?> beanClass, Method readMethod, boolean generatable) {
+        ToIntFunction<Object> function = generatable ? generate(ToIntFunction.class, "applyAsInt",
+                MethodType.methodType(int.class, Object.class), readMethod,
+                MethodType.methodType(int.class, beanClass)) : null;
+        if (function == null) {
+            MethodHandle handle = unreflect(readMethod).asType(MethodType.methodType(int.class, Object.class));
+            function = bean -> {
+                try {
+                    return (int) handle.invokeExact(bean);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return function;
+    }
+
+    private static ToLongFunction<Object> createLongReader(Class<?> beanClass, Method readMethod, boolean generatable) {
+        ToLongFunction<Object> function = generatable ? generate(ToLongFunction.class, "applyAsLong",
+                MethodType.methodType(long.class, Object.class), readMethod,
+                MethodType.methodType(long.class, beanClass)) : null;
+        if (function == null) {
+            MethodHandle handle = unreflect(readMethod).asType(MethodType.methodType(long.class, Object.class));
+            function = bean -> {
+                try {
+                    return (long) handle.invokeExact(bean);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return function;
+    }
+
+    private static ToDoubleFunction<Object> createDoubleReader(Class<?> beanClass, Method readMethod, boolean generatable) {
+        ToDoubleFunction<Object> function = generatable ? generate(ToDoubleFunction.class, "applyAsDouble",
+                MethodType.methodType(double.class, Object.class), readMethod,
+                MethodType.methodType(double.class, beanClass)) : null;
+        if (function == null) {
+            MethodHandle handle = unreflect(readMethod).asType(MethodType.methodType(double.class, Object.class));
+            function = bean -> {
+                try {
+                    return (double) handle.invokeExact(bean);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return function;
+    }
+
+    private static ObjIntConsumer<Object> createIntWriter(Class<?> beanClass, Method writeMethod, boolean generatable) {
+        ObjIntConsumer<Object> consumer = generatable ? generate(ObjIntConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, int.class), writeMethod,
+                MethodType.methodType(void.class, beanClass, int.class)) : null;
+        if (consumer == null) {
+            MethodHandle handle = unreflect(writeMethod)
+                    .asType(MethodType.methodType(void.class, Object.class, int.class));
+            consumer = (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return consumer;
+    }
+
+    private static ObjLongConsumer<Object> createLongWriter(Class<?> beanClass, Method writeMethod, boolean generatable) {
+        ObjLongConsumer<Object> consumer = generatable ? generate(ObjLongConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, long.class), writeMethod,
+                MethodType.methodType(void.class, beanClass, long.class)) : null;
+        if (consumer == null) {
+            MethodHandle handle = unreflect(writeMethod)
+                    .asType(MethodType.methodType(void.class, Object.class, long.class));
+            consumer = (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return consumer;
+    }
+
+    private static ObjDoubleConsumer<Object> createDoubleWriter(Class<?> beanClass, Method writeMethod, boolean generatable) {
+        ObjDoubleConsumer<Object> consumer = generatable ? generate(ObjDoubleConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, double.class), writeMethod,
+                MethodType.methodType(void.class, beanClass, double.class)) : null;
+        if (consumer == null) {
+            MethodHandle handle = unreflect(writeMethod)
+                    .asType(MethodType.methodType(void.class, Object.class, double.class));
+            consumer = (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+        return consumer;
+    }
+
+    /**
+     * Spins a lambda of the functional interface which invokes the method directly,
+     * returns null if the method cannot be linked from ObjectiveSql.
+     */
+    private static <F> F generate(Class<?> functionalClass, String samName, MethodType samType,
+                                  Method method, MethodType instantiatedType) {
+        if (!isPublic(method.getDeclaringClass()) || !isVisible(method.getDeclaringClass()))
+            return null;
+        try {
+            MethodHandle implMethod = LOOKUP.unreflect(method);
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, samName,
+                    MethodType.methodType(functionalClass), samType, implMethod, instantiatedType);
+            return (F) callSite.getTarget().invoke();
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            Method accessibleMethod = method.getDeclaringClass()
+                    .getDeclaredMethod(method.getName(), method.getParameterTypes());
+            accessibleMethod.setAccessible(true);
+            return LOOKUP.unreflect(accessibleMethod);
+        } catch (ReflectiveOperationException ex) {
+            throw new ReflectionException(String.format("Failed to access %s", method), ex);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException)
+            return (RuntimeException) throwable;
+        if (throwable instanceof Error)
+            throw (Error) throwable;
+        return new ReflectionException(throwable.getMessage(), throwable);
+    }
+
+    private static boolean isPublic(Class<?> clazz) {
+        for (Class<?> current = clazz; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the method can be invoked by reflection without <code>setAccessible</code>.
+     */
+    private static boolean isAccessible(Method method) {
+        return method == null || (Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers()));
+    }
+
+    private static boolean isVisible(Class<?> clazz) {
+        while (clazz.isArray())
+            clazz = clazz.getComponentType();
+        if (clazz.isPrimitive())
+            return true;
+        try {
+            return Class.forName(clazz.getName(), false, MethodHandleAccessor.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        if (int.class.equals(type))
+            return Integer.class;
+        else if (long.class.equals(type))
+            return Long.class;
+        else if (double.class.equals(type))
+            return Double.class;
+        else if (boolean.class.equals(type))
+            return Boolean.class;
+        else if (float.class.equals(type))
+            return Float.class;
+        else if (short.class.equals(type))
+            return Short.class;
+        else if (byte.class.equals(type))
+            return Byte.class;
+        else if (char.class.equals(type))
+            return Character.class;
+        else return Void.class;
+    }
+
+    private static Class<?> unwrap(Class<?> type) {
+        if (Integer.class.equals(type))
+            return int.class;
+        else if (Long.class.equals(type))
+            return long.class;
+        else if (Double.class.equals(type))
+            return double.class;
+        else if (Float.class.equals(type))
+            return float.class;
+        else if (Short.class.equals(type))
+            return short.class;
+        else if (Byte.class.equals(type))
+            return byte.class;
+        else return type;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.reflection;
+
+/**
+ * A typed accessor of a bean property, it is generated once per property
+ * by <code>PropertyDescriptorCache</code> and invokes the getter and setter
+ * without <code>Method.invoke</code>.
+ *
+ * @since 1.3.8
+ */
+public interface PropertyAccessor {
+
+    String getName();
+
+    Class<?> getPropertyType();
+
+    /**
+     * Returns true if the getter and setter can be invoked without forcing the access,
+     * that is, they are public and declared in public classes.
+     */
+    default boolean isAccessible() {
+        return true;
+    }
+
+    boolean isReadable();
+
+    boolean isWritable();
+
+    Object get(Object bean);
+
+    void set(Object bean, Object value);
+
+    default int getInt(Object bean) {
+        return ((Number) get(bean)).intValue();
+    }
+
+    default long getLong(Object bean) {
+        return ((Number) get(bean)).longValue();
+    }
+
+    default double getDouble(Object bean) {
+        return ((Number) get(bean)).doubleValue();
+    }
+
+    default void setInt(Object bean, int value) {
+        set(bean, value);
+    }
+
+    default void setLong(Object bean, long value) {
+        set(bean, value);
+    }
+
+    default void setDouble(Object bean, double value) {
+        set(bean, value);
+    }
+}
@@ -33,6 +33,7 @@ class PropertyDescriptorCache<T> {
     private final Map<Method, PropertyDescriptor> propertyDescriptorsByMethod = new LinkedHashMap<>();
     private final Map<Class<? extends Annotation>, Map<PropertyDescriptor, Annotation>> propertyDescriptorsByAnnotation = new LinkedHashMap<>();
     private final Map<PropertyDescriptor, Object> defaultValues = new ConcurrentHashMap<>();
+    private final Map<String, PropertyAccessor> propertyAccessors = new ConcurrentHashMap<>();
 
     private PropertyDescriptorCache(Class<T> originalClass) {
         this.originalClass = originalClass;
@@ -177,6 +178,18 @@ class PropertyDescriptorCache<T> {
         return propertyDescriptorsByName.get(propertyName);
     }
 
+    PropertyAccessor getAccessorByName(String propertyName) {
+        PropertyAccessor propertyAccessor = propertyAccessors.get(propertyName);
+        if (propertyAccessor == null) {
+            PropertyDescriptor propertyDescriptor = propertyDescriptorsByName.get(propertyName);
+            if (propertyDescriptor == null)
+                return null;
+            propertyAccessor = propertyAccessors.computeIfAbsent(propertyName,
+                    name -> MethodHandleAccessor.create(originalClass, propertyDescriptor));
+        }
+        return propertyAccessor;
+    }
+
     Object getDefaultValue(PropertyDescriptor propertyDescriptor) {
         return defaultValues.computeIfAbsent(propertyDescriptor, this::determineDefaultValue);
     }
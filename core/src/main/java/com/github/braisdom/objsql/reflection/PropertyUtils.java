@@ -20,8 +20,6 @@ import com.github.braisdom.objsql.relation.RelationalException;
 import com.github.braisdom.objsql.util.WordUtil;
 
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
@@ -33,6 +31,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class PropertyUtils {
 
     private static final Map<Class<?>, PropertyDescriptorCache<?>> cache = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, RawAttributeMethods> rawAttributeMethods = new ConcurrentHashMap<>();
 
     private PropertyUtils() {
     }
@@ -56,6 +55,18 @@ public final class PropertyUtils {
         return propertyDescriptor;
     }
 
+    public static PropertyAccessor getPropertyAccessor(Class<?> beanClass, String propertyName) {
+        return getCache(beanClass).getAccessorByName(propertyName);
+    }
+
+    public static PropertyAccessor getPropertyAccessorOrThrow(Class<?> beanClass, String propertyName) {
+        PropertyAccessor propertyAccessor = getPropertyAccessor(beanClass, propertyName);
+        if (propertyAccessor == null)
+            throw new ReflectionException(String.format("No such property: %s",
+                    getQualifiedPropertyName(beanClass, propertyName)));
+        return propertyAccessor;
+    }
+
     public static Collection<PropertyDescriptor> getPropertyDescriptors(Class<?> type) {
         PropertyDescriptorCache<?> propertyDescriptorCache = getCache(type);
         return propertyDescriptorCache.getDescriptors();
@@ -116,51 +127,93 @@ public final class PropertyUtils {
         return getCache(objectClass).getDefaultValue(propertyDescriptor);
     }
 
+    /**
+     * Writes the property by its accessor, the setter will be invoked even if it is not
+     * accessible, as the generated accessors of domain models do.
+     */
     public static void write(Object destination, String propertyName, Object value) {
-        PropertyDescriptor propertyDescriptor = getPropertyDescriptorByNameOrThrow(destination, propertyName);
-        write(destination, propertyDescriptor, value);
+        PropertyAccessor propertyAccessor = getPropertyAccessorOrThrow(ClassUtils.getRealClass(destination), propertyName);
+        write(destination, propertyAccessor, value);
     }
 
     public static void write(Object destination, PropertyDescriptor propertyDescriptor, Object value) {
         write(destination, propertyDescriptor, value, false);
     }
 
+    /**
+     * @param force if false, the setter must be public and declared in a public class
+     */
     public static void write(Object destination, PropertyDescriptor propertyDescriptor, Object value, boolean force) {
-        try {
-            if (!isWritable(propertyDescriptor)) {
-                throw new RelationalException(propertyDescriptor.getName() + " is not writable");
-            } else {
-                Object[] args = new Object[]{value};
-                Method writeMethod = propertyDescriptor.getWriteMethod();
-                withAccessibleObject(writeMethod, method -> method.invoke(destination, args), force);
-            }
-        } catch (ReflectiveOperationException | RuntimeException e) {
+        PropertyAccessor propertyAccessor = getPropertyAccessorOrThrow(ClassUtils.getRealClass(destination),
+                propertyDescriptor.getName());
+        if (!force && !propertyAccessor.isAccessible()) {
             String qualifiedPropertyName = getQualifiedPropertyName(destination, propertyDescriptor);
+            throw new ReflectionException(String.format("Failed to write: %s, value: %s", qualifiedPropertyName, value),
+                    new IllegalAccessException(qualifiedPropertyName + " is not accessible"));
+        }
+        write(destination, propertyAccessor, value);
+    }
+
+    public static void write(Object destination, PropertyAccessor propertyAccessor, Object value) {
+        try {
+            if (!propertyAccessor.isWritable())
+                throw new RelationalException(propertyAccessor.getName() + " is not writable");
+            propertyAccessor.set(destination, value);
+        } catch (RuntimeException e) {
+            String qualifiedPropertyName = getQualifiedPropertyName(ClassUtils.getRealClass(destination),
+                    propertyAccessor.getName());
             String message = String.format("Failed to write: %s, value: %s", qualifiedPropertyName, value);
             throw new ReflectionException(message, e);
         }
     }
 
+    /**
+     * Converts the value for a primitive property by the unboxing and widening conversions
+     * of <code>Method.invoke</code>, such as an Integer for a long property, it returns
+     * the wrapper of primitive type.
+     *
+     * @throws IllegalArgumentException if the value is null or cannot be widened
+     */
+    public static Object toPrimitiveValue(Class<?> primitiveType, Object value, String propertyName) {
+        return MethodHandleAccessor.widen(primitiveType, value, propertyName);
+    }
+
+    /**
+     * Reads the property by its accessor, the getter will be invoked even if it is not
+     * accessible, as the generated accessors of domain models do.
+     */
     public static <T> T read(Object source, String propertyName) {
-        PropertyDescriptor propertyDescriptor = getPropertyDescriptorByNameOrThrow(source, propertyName);
-        return read(source, propertyDescriptor);
+        PropertyAccessor propertyAccessor = getPropertyAccessorOrThrow(ClassUtils.getRealClass(source), propertyName);
+        return read(source, propertyAccessor);
     }
 
     public static <T> T read(Object source, PropertyDescriptor propertyDescriptor) {
         return read(source, propertyDescriptor, false);
     }
 
+    /**
+     * @param force if false, the getter must be public and declared in a public class
+     */
     public static <T> T read(Object source, PropertyDescriptor propertyDescriptor, boolean force) {
+        PropertyAccessor propertyAccessor = getPropertyAccessorOrThrow(ClassUtils.getRealClass(source),
+                propertyDescriptor.getName());
+        if (!force && !propertyAccessor.isAccessible()) {
+            String qualifiedPropertyName = getQualifiedPropertyName(source, propertyDescriptor);
+            throw new ReflectionException("Failed to read " + qualifiedPropertyName,
+                    new IllegalAccessException(qualifiedPropertyName + " is not accessible"));
+        }
+        return read(source, propertyAccessor);
+    }
+
+    public static <T> T read(Object source, PropertyAccessor propertyAccessor) {
         final Object result;
         try {
-            if (!isReadable(propertyDescriptor)) {
-                throw new IllegalArgumentException(String.format("%s must be readable", propertyDescriptor.getName()));
-            } else {
-                Method readMethod = propertyDescriptor.getReadMethod();
-                result = withAccessibleObject(readMethod, method -> readMethod.invoke(source), force);
-            }
-        } catch (ReflectiveOperationException | RuntimeException e) {
-            throw new ReflectionException("Failed to read " + getQualifiedPropertyName(source, propertyDescriptor), e);
+            if (!propertyAccessor.isReadable())
+                throw new IllegalArgumentException(String.format("%s must be readable", propertyAccessor.getName()));
+            result = propertyAccessor.get(source);
+        } catch (RuntimeException e) {
+            throw new ReflectionException("Failed to read " + getQualifiedPropertyName(
+                    ClassUtils.getRealClass(source), propertyAccessor.getName()), e);
         }
         @SuppressWarnings("unchecked")
         T castedResult = (T) result;
@@ -189,44 +242,47 @@ public final class PropertyUtils {
     }
 
     public static Object getRawAttribute(Object bean, String name) {
-        try {
-            Method method = bean.getClass().getMethod("getRawAttribute", String.class);
-            return method.invoke(bean, name);
-        } catch (NoSuchMethodException ex) {
-            throw new ReflectionException(ex.getMessage(), ex);
-        } catch (IllegalAccessException ex) {
-            throw new ReflectionException(ex.getMessage(), ex);
-        } catch (InvocationTargetException ex) {
-            throw new ReflectionException(ex.getMessage(), ex);
-        }
+        return invokeRawAttributeMethod(getRawAttributeMethods(bean).getter, bean, name);
     }
 
     public static Map<String, Object> getRawAttributes(Object bean) {
-        try {
-            Method method = bean.getClass().getMethod("getRawAttributes");
-            return (Map<String, Object>) method.invoke(bean);
-        } catch (NoSuchMethodException ex) {
-            throw new ReflectionException(ex.getMessage(), ex);
-        } catch (IllegalAccessException ex) {
-            throw new ReflectionException(ex.getMessage(), ex);
-        } catch (InvocationTargetException ex) {
-            throw new ReflectionException(ex.getMessage(), ex);
-        }
+        return (Map<String, Object>) invokeRawAttributeMethod(getRawAttributeMethods(bean).mapGetter, bean);
     }
 
+    /**
+     * Returns true if the bean can hold the raw attributes by <code>setRawAttribute</code>,
+     * which is resolved once by the class of bean.
+     */
     public static boolean supportRawAttribute(Object bean) {
-        try {
-            Method method = bean.getClass().getMethod("setRawAttribute", String.class, Object.class);
-            return method != null;
-        } catch (NoSuchMethodException ex) {
-            return false;
-        }
+        return getRawAttributeMethods(bean).setter != null;
     }
 
     public static void writeRawAttribute(Object bean, String name, Object value) {
+        invokeRawAttributeMethod(getRawAttributeMethods(bean).setter, bean, name, value);
+    }
+
+    /**
+     * Returns true if the raw attributes of bean can be replaced as a whole
+     * by <code>setRawAttributes</code>.
+     */
+    public static boolean supportRawAttributes(Object bean) {
+        return getRawAttributeMethods(bean).mapSetter != null;
+    }
+
+    public static void writeRawAttributes(Object bean, Map<String, Object> rawAttributes) {
+        invokeRawAttributeMethod(getRawAttributeMethods(bean).mapSetter, bean, rawAttributes);
+    }
+
+    private static RawAttributeMethods getRawAttributeMethods(Object bean) {
+        return rawAttributeMethods.computeIfAbsent(bean.getClass(), RawAttributeMethods::new);
+    }
+
+    private static Object invokeRawAttributeMethod(Method method, Object bean, Object... args) {
         try {
-            Method method = bean.getClass().getMethod("setRawAttribute", String.class, Object.class);
-            method.invoke(bean, name, value);
+            if (method == null)
+                throw new NoSuchMethodException(String.format("The %s has no raw attribute method",
+                        bean.getClass().getName()));
+            return method.invoke(bean, args);
         } catch (NoSuchMethodException ex) {
             throw new ReflectionException(ex.getMessage(), ex);
         } catch (IllegalAccessException ex) {
@@ -236,6 +292,32 @@ public final class PropertyUtils {
         }
     }
 
+    /**
+     * The methods for raw attributes of a class, the absent ones are null.
+     */
+    private static final class RawAttributeMethods {
+
+        private final Method getter;
+        private final Method setter;
+        private final Method mapGetter;
+        private final Method mapSetter;
+
+        private RawAttributeMethods(Class<?> beanClass) {
+            this.getter = findMethod(beanClass, "getRawAttribute", String.class);
+            this.setter = findMethod(beanClass, "setRawAttribute", String.class, Object.class);
+            this.mapGetter = findMethod(beanClass, "getRawAttributes");
+            this.mapSetter = findMethod(beanClass, "setRawAttributes", Map.class);
+        }
+
+        private static Method findMethod(Class<?> beanClass, String name, Class<?>... parameterTypes) {
+            try {
+                return beanClass.getMethod(name, parameterTypes);
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+    }
+
     public static boolean isFullyAccessible(PropertyDescriptor descriptor) {
         return isReadable(descriptor) && isWritable(descriptor);
     }
@@ -297,35 +379,6 @@ public final class PropertyUtils {
         return !isCollectionType(propertyDescriptor);
     }
 
-    private interface AccessibleObjectFunction<T extends AccessibleObject, R> {
-        R access(T object) throws ReflectiveOperationException;
-    }
-
-    private interface AccessibleObjectConsumer<T extends AccessibleObject> {
-        void access(T object) throws ReflectiveOperationException;
-    }
-
-    private static <T extends AccessibleObject> void withAccessibleObject(T accessibleObject, AccessibleObjectConsumer<T> accessibleObjectConsumer) throws ReflectiveOperationException {
-        withAccessibleObject(accessibleObject, obj -> {
-            accessibleObjectConsumer.access(obj);
-            return null;
-        }, true);
-    }
-
-    private static <T extends AccessibleObject, R> R withAccessibleObject(T accessibleObject, AccessibleObjectFunction<T, R> function, boolean force) throws ReflectiveOperationException {
-        boolean accessible = accessibleObject.isAccessible();
-        try {
-            if (force && !accessible) {
-                accessibleObject.setAccessible(true);
-            }
-            return function.access(accessibleObject);
-        } finally {
-            if (force && !accessible) {
-                accessibleObject.setAccessible(false);
-            }
-        }
-    }
-
     static void clearCache() {
         cache.clear();
     }
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.relation;
+
+/**
+ * Describes when the relation field will be filled.
+ *
+ * @see com.github.braisdom.objsql.annotations.Relation#fetch()
+ */
+public enum FetchType {
+    /**
+     * The relation field is filled only when its relationship is given in querying.
+     */
+    EXPLICIT,
+
+    /**
+     * The relation field is filled at the first access of its getter, and the
+     * relation is loaded for all objects of the same query in one batch.
+     */
+    LAZY
+}
@@ -16,12 +16,8 @@
  */
 package com.github.braisdom.objsql.relation;
 
-import com.github.braisdom.objsql.reflection.PropertyUtils;
-
 import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class HasAnyProcessor implements RelationProcessor {
 
@@ -35,21 +31,16 @@ public class HasAnyProcessor implements RelationProcessor {
         Class relatedClass = relationship.getRelatedClass();
         List baseObjects = context.getObjects(relationship.getBaseClass());
 
-        List associatedKeys = (List) baseObjects.stream()
-                .map(o -> PropertyUtils.read(o, primaryFieldName))
-                .distinct()
-                .collect(Collectors.toList());
+        RelationIndex.Keys baseKeys = RelationIndex.readKeys(baseObjects, primaryFieldName);
+        Object[] associatedKeys = baseKeys.distinct();
 
         List rawRelatedObjects = context.queryRelatedObjects(relatedClass,
-                foreignKey, associatedKeys.toArray(), relationship.getRelationCondition());
-        Map<Object, List> groupedRelatedObjects = (Map<Object, List>) rawRelatedObjects
-                .stream().collect(Collectors.groupingBy(o -> PropertyUtils.read(o, foreignFieldName)));
-
-        baseObjects.stream().forEach(o -> {
-            Object primaryValue = PropertyUtils.read(o, primaryFieldName);
-            List relatedObjects = groupedRelatedObjects.get(primaryValue);
-            Relationship.setRelationalObjects(relationship, o, associatedFieldName, relatedObjects);
-        });
+                foreignKey, associatedKeys, relationship.getRelationCondition());
+        RelationIndex relatedObjects = RelationIndex.create(rawRelatedObjects, foreignFieldName);
+
+        for (int i = 0; i < baseKeys.size(); i++)
+            Relationship.setRelationalObjects(relationship, baseObjects.get(i),
+                    associatedFieldName, baseKeys.find(relatedObjects, i));
     }
 
 }
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.relation;
+
+import com.github.braisdom.objsql.BeanModelDescriptor;
+import com.github.braisdom.objsql.Databases;
+import com.github.braisdom.objsql.Tables;
+import com.github.braisdom.objsql.annotations.Relation;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the LAZY relations of the objects queried together. The loader is shared by
+ * all objects of a query, and the relation of a field is loaded for all of them in one
+ * batch at the first access of the field in any object, so that accessing the field of
+ * each object costs no more queries than the explicit relationship.
+ *
+ * <pre>
+ *     public class Member {
+ *         @Relation(relationType = RelationType.HAS_MANY, fetch = FetchType.LAZY)
+ *         private List<Order> orders;
+ *     }
+ *
+ *     List<Member> members = Member.query("name like ?", "%Smith%");
+ *     // Loads the orders of all members queried
+ *     members.get(0).getOrders();
+ * </pre>
+ *
+ * The getter of LAZY relation field generated invokes the loader, which is
+ * injected into the domain model as a transient field.<br/>
+ *
+ * Every object keeps the objects queried together reachable through the loader, until
+ * all LAZY relations of them are loaded, so an object retained for long, such as in the
+ * <code>PrimaryKeyCache</code>, retains the whole result of its query before that.
+ */
+public final class LazyRelationLoader {
+
+    public static final String LOADER_FIELD_NAME = "lazyRelationLoader";
+
+    private static final Map<Class, Optional<Field>> loaderFields = new ConcurrentHashMap<>();
+    private static final Map<Class, Set<String>> lazyFieldNames = new ConcurrentHashMap<>();
+
+    private final Class domainModelClass;
+    private final Set<String> loadedFieldNames;
+    private List rows;
+
+    private LazyRelationLoader(Class domainModelClass, List rows) {
+        this.domainModelClass = domainModelClass;
+        this.rows = rows;
+        this.loadedFieldNames = new HashSet<>();
+    }
+
+    /**
+     * Loads the LAZY relation of given field for all objects queried with the bean,
+     * it does nothing if the relation has been loaded. The objects are released after
+     * all LAZY relations loaded.
+     */
+    public synchronized void load(Object bean, String fieldName) {
+        if (loadedFieldNames.contains(fieldName))
+            return;
+
+        Set<String> fieldNames = getLazyFieldNames(domainModelClass);
+        if (!fieldNames.contains(fieldName))
+            throw new IllegalArgumentException(String.format("The %s of %s is not a LAZY relation",
+                    fieldName, domainModelClass.getSimpleName()));
+
+        Relationship relationship = Relationship.createRelation(domainModelClass, fieldName);
+        String dataSourceName = Tables.getDataSourceName(domainModelClass);
+        try {
+            List relatedObjects = Databases.execute(dataSourceName, (connection, sqlExecutor) -> {
+                RelationshipNetwork relationshipNetwork = new RelationshipNetwork(connection,
+                        new BeanModelDescriptor(domainModelClass));
+                relationshipNetwork.process(rows, new Relationship[]{relationship});
+                return relationshipNetwork.getObjects(relationship.getRelatedClass());
+            });
+            loadedFieldNames.add(fieldName);
+            if (loadedFieldNames.containsAll(fieldNames))
+                rows = null;
+
+            if (relatedObjects != null && relatedObjects.size() > 0)
+                attach(relationship.getRelatedClass(), relatedObjects);
+        } catch (SQLException ex) {
+            throw new RelationalException(String.format("Cannot load the relation %s of %s (%s)",
+                    fieldName, domainModelClass.getSimpleName(), ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * Attaches a loader to the objects queried together if their class has LAZY
+     * relation fields, otherwise nothing happens.
+     */
+    public static void attach(Class domainModelClass, List rows) {
+        Optional<Field> loaderField = loaderFields.computeIfAbsent(domainModelClass,
+                LazyRelationLoader::findLoaderField);
+        if (!loaderField.isPresent() || rows.isEmpty())
+            return;
+
+        LazyRelationLoader loader = new LazyRelationLoader(domainModelClass, new ArrayList(rows));
+        try {
+            for (Object row : rows)
+                loaderField.get().set(row, loader);
+        } catch (IllegalAccessException ex) {
+            throw new RelationalException(ex.getMessage(), ex);
+        }
+    }
+
+    private static Set<String> getLazyFieldNames(Class domainModelClass) {
+        return lazyFieldNames.computeIfAbsent(domainModelClass, clazz -> Arrays.stream(clazz.getDeclaredFields())
+                .filter(field -> {
+                    Relation relation = field.getAnnotation(Relation.class);
+                    return relation != null && relation.fetch() == FetchType.LAZY;
+                })
+                .map(Field::getName)
+                .collect(Collectors.toSet()));
+    }
+
+    private static Optional<Field> findLoaderField(Class domainModelClass) {
+        if (getLazyFieldNames(domainModelClass).isEmpty())
+            return Optional.empty();
+
+        try {
+            Field loaderField = domainModelClass.getDeclaredField(LOADER_FIELD_NAME);
+            loaderField.setAccessible(true);
+            return Optional.of(loaderField);
+        } catch (NoSuchFieldException ex) {
+            // The getters of domain model are not generated, the LAZY relations
+            // can be loaded explicitly only.
+            return Optional.empty();
+        }
+    }
+}
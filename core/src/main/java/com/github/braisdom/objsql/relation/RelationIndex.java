@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.relation;
+
+import com.github.braisdom.objsql.reflection.ClassUtils;
+import com.github.braisdom.objsql.reflection.PropertyAccessor;
+import com.github.braisdom.objsql.reflection.PropertyUtils;
+import com.github.braisdom.objsql.reflection.ReflectionException;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+/**
+ * A hash index of the related objects by their association keys, the key of each
+ * object is read once only. The integral keys are indexed in a primitive long-keyed
+ * open-addressing table, and the others in a <code>HashMap</code>. The keys of primitive
+ * <code>long</code> and <code>int</code> properties are read without boxing.
+ * The objects of same key are collected in a list with the exact size.
+ */
+abstract class RelationIndex {
+
+    /**
+     * Returns the objects with given key, or null if absent.
+     */
+    abstract List get(Object key);
+
+    /**
+     * Returns the objects with given integral key, or null if absent.
+     */
+    abstract List get(long key);
+
+    static RelationIndex create(List objects, String keyFieldName) {
+        Keys keys = readKeys(objects, keyFieldName);
+        if (keys.longKeys != null)
+            return new LongIndex(objects, keys.longKeys, null);
+
+        for (Object key : keys.keys) {
+            if (key != null && !isIntegral(key))
+                return new GenericIndex(objects, keys.keys);
+        }
+
+        long[] longKeys = new long[keys.keys.length];
+        boolean[] nullKeys = new boolean[longKeys.length];
+        for (int i = 0; i < longKeys.length; i++) {
+            if (keys.keys[i] == null)
+                nullKeys[i] = true;
+            else
+                longKeys[i] = ((Number) keys.keys[i]).longValue();
+        }
+        return new LongIndex(objects, longKeys, nullKeys);
+    }
+
+    static Keys readKeys(List objects, String keyFieldName) {
+        if (objects.isEmpty())
+            return new Keys(new Object[0], null);
+
+        PropertyAccessor accessor = PropertyUtils.getPropertyAccessorOrThrow(
+                ClassUtils.getRealClass(objects.get(0)), keyFieldName);
+        Class<?> keyType = accessor.getPropertyType();
+        if ((long.class.equals(keyType) || int.class.equals(keyType)) && accessor.isReadable()) {
+            long[] longKeys = new long[objects.size()];
+            try {
+                for (int i = 0; i < longKeys.length; i++)
+                    longKeys[i] = long.class.equals(keyType) ? accessor.getLong(objects.get(i))
+                            : accessor.getInt(objects.get(i));
+            } catch (RuntimeException e) {
+                throw new ReflectionException("Failed to read " + PropertyUtils.getQualifiedPropertyName(
+                        ClassUtils.getRealClass(objects.get(0)), keyFieldName), e);
+            }
+            return new Keys(null, longKeys);
+        }
+
+        Object[] keys = new Object[objects.size()];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = PropertyUtils.read(objects.get(i), keyFieldName);
+        return new Keys(keys, null);
+    }
+
+    static boolean isIntegral(Object key) {
+        return key instanceof Long || key instanceof Integer
+                || key instanceof Short || key instanceof Byte;
+    }
+
+    /**
+     * The association keys of objects in their order, the keys of primitive properties
+     * are held in a <code>long</code> array.
+     */
+    static final class Keys {
+
+        private final Object[] keys;
+        private final long[] longKeys;
+
+        private Keys(Object[] keys, long[] longKeys) {
+            this.keys = keys;
+            this.longKeys = longKeys;
+        }
+
+        int size() {
+            return longKeys == null ? keys.length : longKeys.length;
+        }
+
+        Object[] distinct() {
+            return longKeys == null ? Arrays.stream(keys).distinct().toArray()
+                    : LongStream.of(longKeys).distinct().boxed().toArray();
+        }
+
+        /**
+         * Returns the objects in the index with the key of object at given position.
+         */
+        List find(RelationIndex index, int position) {
+            return longKeys == null ? index.get(keys[position]) : index.get(longKeys[position]);
+        }
+    }
+
+    private static final class LongIndex extends RelationIndex {
+
+        private final long[] slotKeys;
+        private final boolean[] usedSlots;
+        private final List[] slotObjects;
+        private final int mask;
+        private final int shift;
+
+        LongIndex(List objects, long[] keys, boolean[] nullKeys) {
+            int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(keys.length * 2));
+            int capacity = 1 << bits;
+
+            this.slotKeys = new long[capacity];
+            this.usedSlots = new boolean[capacity];
+            this.slotObjects = new List[capacity];
+            this.mask = capacity - 1;
+            this.shift = 64 - bits;
+
+            int[] slots = new int[keys.length];
+            int[] counts = new int[capacity];
+            for (int i = 0; i < keys.length; i++) {
+                if (nullKeys != null && nullKeys[i]) {
+                    slots[i] = -1;
+                    continue;
+                }
+                int slot = findSlot(keys[i]);
+                slotKeys[slot] = keys[i];
+                usedSlots[slot] = true;
+                counts[slot]++;
+                slots[i] = slot;
+            }
+
+            for (int i = 0; i < keys.length; i++) {
+                int slot = slots[i];
+                if (slot < 0)
+                    continue;
+                if (slotObjects[slot] == null)
+                    slotObjects[slot] = new ArrayList(counts[slot]);
+                slotObjects[slot].add(objects.get(i));
+            }
+        }
+
+        @Override
+        List get(Object key) {
+            if (!isIntegral(key))
+                return null;
+            return get(((Number) key).longValue());
+        }
+
+        @Override
+        List get(long key) {
+            int slot = findSlot(key);
+            return usedSlots[slot] ? slotObjects[slot] : null;
+        }
+
+        private int findSlot(long key) {
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+            while (usedSlots[slot]) {
+                if (slotKeys[slot] == key)
+                    return slot;
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    private static final class GenericIndex extends RelationIndex {
+
+        private final Map<Object, List> keyedObjects;
+
+        GenericIndex(List objects, Object[] keys) {
+            Map<Object, int[]> counts = new HashMap<>();
+            for (Object key : keys) {
+                if (key != null)
+                    counts.computeIfAbsent(key, k -> new int[1])[0]++;
+            }
+
+            this.keyedObjects = new HashMap<>(counts.size() * 4 / 3 + 1);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null)
+                    keyedObjects.computeIfAbsent(keys[i], key -> new ArrayList(counts.get(key)[0]))
+                            .add(objects.get(i));
+            }
+        }
+
+        @Override
+        List get(Object key) {
+            return key == null ? null : keyedObjects.get(key);
+        }
+
+        @Override
+        List get(long key) {
+            return keyedObjects.get(key);
+        }
+    }
+}
@@ -143,10 +143,10 @@ public final class Relationship {
     public static void setRelationalObjects(Relationship relationship, Object row,
                                             String fieldName, List associatedObjects) {
         if (relationship.isBelongsTo()) {
-            if (associatedObjects.size() > 1)
+            if (associatedObjects != null && associatedObjects.size() > 1)
                 throw new RelationalException(String.format("The %s[belongs_to] has too many relations", fieldName));
 
-            if (associatedObjects.size() == 1)
+            if (associatedObjects != null && associatedObjects.size() == 1)
                 PropertyUtils.write(row, fieldName, associatedObjects.get(0));
             else
                 PropertyUtils.write(row, fieldName, null);
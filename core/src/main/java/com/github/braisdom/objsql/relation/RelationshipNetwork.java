@@ -22,32 +22,46 @@ import com.github.braisdom.objsql.util.StringUtil;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static com.github.braisdom.objsql.DatabaseType.*;
+
 public class RelationshipNetwork implements RelationProcessor.Context {
 
     private static final String SELECT_RELATION_STATEMENT = "SELECT * FROM %s WHERE %s";
 
     private final Connection connection;
     private final DomainModelDescriptor domainModelDescriptor;
+    private final int parallelism;
     private final Map<Class, List> relationObjectsMap;
 
     public RelationshipNetwork(Connection connection, DomainModelDescriptor domainModelDescriptor) {
+        this(connection, domainModelDescriptor, 1);
+    }
+
+    /**
+     * Creates the network which loads at most <code>parallelism</code> relation queries
+     * concurrently, each one in a separate connection. The queries are always
+     * executed in the given connection if it is the connection of current thread,
+     * which may be in a transaction.
+     */
+    public RelationshipNetwork(Connection connection, DomainModelDescriptor domainModelDescriptor,
+                               int parallelism) {
         this.connection = connection;
         this.domainModelDescriptor = domainModelDescriptor;
+        this.parallelism = connection == Databases.getCurrentThreadConnection() ? 1 : Math.max(1, parallelism);
 
-        this.relationObjectsMap = new HashMap<>();
+        this.relationObjectsMap = new ConcurrentHashMap<>();
     }
 
     @Override
     public List queryRelatedObjects(Class clazz, String associationColumn,
                                     Object[] associatedValues, String condition) throws SQLException {
-        List cachedObjects = relationObjectsMap.get(clazz);
-        if (cachedObjects == null) {
-            cachedObjects = queryObjects(clazz, associationColumn, associatedValues, condition);
-            relationObjectsMap.put(clazz, cachedObjects);
-        }
-        return cachedObjects;
+        return queryRelatedObjects(connection, parallelism, clazz, associationColumn, associatedValues, condition);
     }
 
     @Override
@@ -55,45 +69,226 @@ public class RelationshipNetwork implements RelationProcessor.Context {
         return relationObjectsMap.get(clazz);
     }
 
+    /**
+     * Loads the relationships by their dependencies, a relationship depends on the relationship
+     * which loads its base objects. The relationships of query class and their dependents are
+     * independent branches, which will be loaded concurrently in separate connections
+     * if the parallelism is greater than 1.
+     */
     public void process(List rows, Relationship[] relationships) throws SQLException {
         catchObjects(domainModelDescriptor.getDomainModelClass(), rows);
 
-        List<Relationship> baseRelationships = Arrays.stream(relationships)
-                .filter(r -> r.getBaseClass().equals(domainModelDescriptor.getDomainModelClass())).collect(Collectors.toList());
+        List<List<Relationship>> branches = createBranches(domainModelDescriptor.getDomainModelClass(),
+                new ArrayList<>(Arrays.asList(relationships)));
 
-        for (Relationship relationship : baseRelationships)
-            setupAssociatedObjects(relationship, new ArrayList<>(Arrays.asList(relationships)));
+        if (parallelism == 1 || branches.size() == 1) {
+            for (List<Relationship> branch : branches)
+                setupAssociatedObjects(this, branch);
+        } else
+            setupBranchesConcurrently(branches);
     }
 
-    private void setupAssociatedObjects(Relationship relationship, List<Relationship> relationships) throws SQLException {
-        RelationProcessor relationProcessor = relationship.createProcessor();
-        relationProcessor.process(this, relationship);
-        relationships.remove(relationship);
+    private List<List<Relationship>> createBranches(Class baseClass, List<Relationship> relationships) {
+        List<Relationship> baseRelationships = relationships.stream()
+                .filter(r -> r.getBaseClass().equals(baseClass)).collect(Collectors.toList());
+        relationships.removeAll(baseRelationships);
 
-        final Class childClass = relationship.getRelatedClass();
-        Relationship[] childRelationships = relationships.stream()
-                .filter(r -> r.getBaseClass().equals(childClass)).toArray(Relationship[]::new);
-        if (childRelationships.length > 0)
-            setupAssociatedObjects(childRelationships[0], relationships);
+        List<List<Relationship>> branches = new ArrayList<>();
+        for (Relationship baseRelationship : baseRelationships) {
+            // The relationships are sorted as their dependencies in the branch
+            List<Relationship> branch = new ArrayList<>();
+            branch.add(baseRelationship);
+            for (int i = 0; i < branch.size(); i++) {
+                Class relatedClass = branch.get(i).getRelatedClass();
+                List<Relationship> childRelationships = relationships.stream()
+                        .filter(r -> r.getBaseClass().equals(relatedClass)).collect(Collectors.toList());
+                relationships.removeAll(childRelationships);
+                branch.addAll(childRelationships);
+            }
+            branches.add(branch);
+        }
+        return branches;
+    }
+
+    private void setupAssociatedObjects(RelationProcessor.Context context,
+                                        List<Relationship> branch) throws SQLException {
+        for (Relationship relationship : branch) {
+            RelationProcessor relationProcessor = relationship.createProcessor();
+            relationProcessor.process(context, relationship);
+        }
+    }
+
+    private void setupBranchesConcurrently(List<List<Relationship>> branches) throws SQLException {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        AtomicInteger nextBranch = new AtomicInteger();
+        CompletableFuture[] futures = new CompletableFuture[Math.min(parallelism, branches.size())];
+
+        // Each worker takes the branches one by one in its own connection, and the chunks
+        // of a branch are loaded one by one for the limit of parallelism.
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = Databases.executeAsync(dataSourceName, (connection, sqlExecutor) -> {
+                BranchContext branchContext = new BranchContext(connection);
+                for (int branch = nextBranch.getAndIncrement(); branch < branches.size();
+                     branch = nextBranch.getAndIncrement())
+                    setupAssociatedObjects(branchContext, branches.get(branch));
+                return null;
+            });
+        }
+
+        join(CompletableFuture.allOf(futures));
+    }
+
+    private List queryRelatedObjects(Connection connection, int parallelism, Class clazz, String associationColumn,
+                                     Object[] associatedValues, String condition) throws SQLException {
+        List cachedObjects = relationObjectsMap.get(clazz);
+        if (cachedObjects == null) {
+            cachedObjects = queryObjects(connection, parallelism, clazz, associationColumn,
+                    associatedValues, condition);
+            relationObjectsMap.put(clazz, cachedObjects);
+        }
+        return cachedObjects;
     }
 
     protected List queryObjects(Class clazz, String associatedColumnName,
                                 Object[] associatedValues, String condition) throws SQLException {
+        return queryObjects(connection, parallelism, clazz, associatedColumnName, associatedValues, condition);
+    }
+
+    /**
+     * Queries the related objects with the associated values bound as parameters of IN.
+     * The values are split into chunks by the limit of database, and each chunk is padded
+     * to a power of two with its last value, so that only a few statements are prepared.
+     */
+    protected List queryObjects(Connection connection, int parallelism, Class clazz, String associatedColumnName,
+                                Object[] associatedValues, String condition) throws SQLException {
+        String dataSourceName = Tables.getDataSourceName(domainModelDescriptor.getDomainModelClass());
+        String databaseName = Databases.getDatabaseProductName(dataSourceName, connection);
+        List<Object[]> chunks = splitValues(associatedValues, getMaxInListSize(databaseName));
+        if (chunks.isEmpty())
+            return new ArrayList();
+
+        TableRowAdapter relatedModelDescriptor = domainModelDescriptor.getRelatedModeDescriptor(clazz);
         String relationTableName = Tables.getTableName(clazz);
+        String[] sqls = chunks.stream()
+                .map(chunk -> formatRelationSql(relationTableName, associatedColumnName, chunk.length, condition))
+                .toArray(String[]::new);
+
+        if (parallelism == 1 || chunks.size() == 1) {
+            SQLExecutor sqlExecutor = Databases.getSqlExecutor();
+            List relatedObjects = new ArrayList();
+            for (int i = 0; i < chunks.size(); i++)
+                relatedObjects.addAll(sqlExecutor.query(connection, sqls[i], relatedModelDescriptor, chunks.get(i)));
+            return relatedObjects;
+        }
 
-        SQLExecutor sqlExecutor = Databases.getSqlExecutor();
-        Quoter quoter = Databases.getQuoter();
+        return queryChunksConcurrently(dataSourceName, parallelism, relatedModelDescriptor, sqls, chunks);
+    }
+
+    private List queryChunksConcurrently(String dataSourceName, int parallelism, TableRowAdapter relatedModelDescriptor,
+                                         String[] sqls, List<Object[]> chunks) throws SQLException {
+        List[] chunkObjects = new List[chunks.size()];
+        AtomicInteger nextChunk = new AtomicInteger();
+        CompletableFuture[] futures = new CompletableFuture[Math.min(parallelism, chunks.size())];
+
+        // Each worker takes the chunks one by one in its own connection
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = Databases.executeAsync(dataSourceName, (connection, sqlExecutor) -> {
+                for (int chunk = nextChunk.getAndIncrement(); chunk < chunkObjects.length;
+                     chunk = nextChunk.getAndIncrement())
+                    chunkObjects[chunk] = sqlExecutor.query(connection, sqls[chunk],
+                            relatedModelDescriptor, chunks.get(chunk));
+                return null;
+            });
+        }
 
-        String associatedValueString = String.join(",", quoter.quoteValues(associatedValues));
+        join(CompletableFuture.allOf(futures));
+
+        List relatedObjects = new ArrayList();
+        for (List objects : chunkObjects)
+            relatedObjects.addAll(objects);
+        return relatedObjects;
+    }
+
+    /**
+     * Returns the maximum number of values in an IN list of the database.
+     */
+    protected int getMaxInListSize(String databaseName) {
+        if (Oracle.nameEquals(databaseName) || SQLite.nameEquals(databaseName))
+            return 512;
+        else if (MsSqlServer.nameEquals(databaseName))
+            return 1024;
+        else if (MySQL.nameEquals(databaseName) || MariaDB.nameEquals(databaseName)
+                || PostgreSQL.nameEquals(databaseName))
+            return 4096;
+        return 512;
+    }
+
+    protected String formatRelationSql(String tableName, String associatedColumnName,
+                                       int valueCount, String condition) {
+        String placeHolders = String.join(",", Collections.nCopies(valueCount, "?"));
         String relationConditions = StringUtil.isBlank(condition)
-                ? String.format(" %s IN (%s) ", associatedColumnName, associatedValueString)
-                : String.format(" %s IN (%s) AND (%s)", associatedColumnName, associatedValueString, condition);
-        String relationTableQuerySql = String.format(SELECT_RELATION_STATEMENT, relationTableName, relationConditions);
+                ? String.format(" %s IN (%s) ", associatedColumnName, placeHolders)
+                : String.format(" %s IN (%s) AND (%s)", associatedColumnName, placeHolders, condition);
+        return String.format(SELECT_RELATION_STATEMENT, tableName, relationConditions);
+    }
 
-        return sqlExecutor.query(connection, relationTableQuerySql, domainModelDescriptor.getRelatedModeDescriptor(clazz));
+    /**
+     * Splits the non-null values into chunks of at most <code>maxChunkSize</code>, the length
+     * of each chunk is padded to a power of two (capped by <code>maxChunkSize</code>) with
+     * its last value.
+     */
+    static List<Object[]> splitValues(Object[] associatedValues, int maxChunkSize) {
+        Object[] values = Arrays.stream(associatedValues).filter(Objects::nonNull).toArray();
+        List<Object[]> chunks = new ArrayList<>();
+        for (int offset = 0; offset < values.length; offset += maxChunkSize) {
+            int length = Math.min(maxChunkSize, values.length - offset);
+            int paddedLength = Math.min(maxChunkSize, Integer.highestOneBit(length - 1) << 1);
+            Object[] chunk = Arrays.copyOfRange(values, offset, offset + Math.max(length, paddedLength));
+            Arrays.fill(chunk, length, chunk.length, values[offset + length - 1]);
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    static <R> R join(CompletableFuture<R> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException)
+                throw (SQLException) cause;
+            else if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new RelationalException(cause.getMessage(), cause);
+        }
     }
 
     protected void catchObjects(Class clazz, List objects) {
         this.relationObjectsMap.put(clazz, objects);
     }
+
+    /**
+     * The context of a branch loaded in a separate connection, which shares the
+     * loaded objects with the network.
+     */
+    private class BranchContext implements RelationProcessor.Context {
+
+        private final Connection connection;
+
+        private BranchContext(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public List queryRelatedObjects(Class clazz, String associationColumn,
+                                        Object[] associatedValues, String condition) throws SQLException {
+            return RelationshipNetwork.this.queryRelatedObjects(connection, 1, clazz,
+                    associationColumn, associatedValues, condition);
+        }
+
+        @Override
+        public List getObjects(Class clazz) {
+            return RelationshipNetwork.this.getObjects(clazz);
+        }
+    }
 }
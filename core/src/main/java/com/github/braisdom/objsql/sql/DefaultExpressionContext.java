@@ -21,16 +21,32 @@ import com.github.braisdom.objsql.Databases;
 import com.github.braisdom.objsql.Quoter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DefaultExpressionContext implements ExpressionContext {
 
     private final DatabaseType databaseType;
-    private final List<Dataset> datasets;
+    private final Quoter quoter;
+    private final Map<Dataset, Integer> datasetIndexes;
+    private final boolean parameterized;
+    private final List<Object> parameters;
 
     public DefaultExpressionContext(DatabaseType databaseType) {
+        this(databaseType, false);
+    }
+
+    /**
+     * Creates the context which renders the literals as "?" placeholders if
+     * <code>parameterized</code> is true, the values are returned by <code>getParameters</code>.
+     */
+    public DefaultExpressionContext(DatabaseType databaseType, boolean parameterized) {
         this.databaseType = databaseType;
-        this.datasets = new ArrayList<>();
+        this.quoter = Databases.getQuoter();
+        this.datasetIndexes = new HashMap<>();
+        this.parameterized = parameterized;
+        this.parameters = new ArrayList<>();
     }
 
     @Override
@@ -42,20 +58,21 @@ public class DefaultExpressionContext implements ExpressionContext {
     public String getAlias(Dataset dataset, boolean forceCreate) {
         if (dataset.getAlias() != null)
             return dataset.getAlias();
-        if (!datasets.contains(dataset))
-            datasets.add(dataset);
-        return String.format("T%d", datasets.indexOf(dataset));
+        Integer index = datasetIndexes.get(dataset);
+        if (index == null) {
+            index = datasetIndexes.size();
+            datasetIndexes.put(dataset, index);
+        }
+        return "T" + index;
     }
 
     @Override
     public String quoteTable(String tableName) {
-        Quoter quoter = Databases.getQuoter();
         return quoter.quoteTableName(databaseType.getName(), tableName);
     }
 
     @Override
     public String quoteColumn(String columnName) {
-        Quoter quoter = Databases.getQuoter();
         return quoter.quoteColumnName(databaseType.getName(), columnName);
     }
 
@@ -63,4 +80,19 @@ public class DefaultExpressionContext implements ExpressionContext {
     public String quoteString(String stringValue) {
         return String.format("'%s'", stringValue);
     }
+
+    @Override
+    public boolean isParameterized() {
+        return parameterized;
+    }
+
+    @Override
+    public void addParameter(Object parameter) {
+        parameters.add(parameter);
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return parameters.toArray();
+    }
 }
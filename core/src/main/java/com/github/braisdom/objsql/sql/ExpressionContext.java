@@ -31,4 +31,20 @@ public interface ExpressionContext {
     String quoteColumn(String columnName);
 
     String quoteString(String stringValue);
+
+    /**
+     * Returns true if the literals should be rendered as "?" placeholders, and their
+     * values are collected by <code>addParameter</code> in the order of appearance.
+     */
+    default boolean isParameterized() {
+        return false;
+    }
+
+    default void addParameter(Object parameter) {
+        throw new UnsupportedOperationException("The parameters are unsupported");
+    }
+
+    default Object[] getParameters() {
+        return new Object[0];
+    }
 }
@@ -17,6 +17,7 @@
 package com.github.braisdom.objsql.sql;
 
 import com.github.braisdom.objsql.sql.expression.LiteralExpression;
+import com.github.braisdom.objsql.sql.expression.ParameterExpression;
 import com.github.braisdom.objsql.sql.expression.ParenExpression;
 import com.github.braisdom.objsql.sql.expression.PolynaryExpression;
 
@@ -58,6 +59,13 @@ public class Expressions {
         return new PolynaryExpression(PolynaryExpression.OR, left, right, others);
     }
 
+    /**
+     * Returns the named parameter, which is bound by <code>PreparedSelect</code>.
+     */
+    public static Expression param(String name) {
+        return new ParameterExpression(name);
+    }
+
     public static Expression literal(String string) {
         return new LiteralExpression(string);
     }
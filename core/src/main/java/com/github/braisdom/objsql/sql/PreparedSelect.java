@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.sql;
+
+import com.github.braisdom.objsql.DatabaseType;
+import com.github.braisdom.objsql.Tables;
+import com.github.braisdom.objsql.sql.expression.ParameterExpression;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * The SQL of a <code>Select</code> rendered once for a database, with the literals
+ * and named parameters bound as "?" placeholders. It is immutable and can be
+ * executed concurrently with different values of the named parameters.
+ * <pre>
+ *     Member.Table member = Member.asTable();
+ *     PreparedSelect&lt;Member&gt; select = new Select&lt;Member&gt;(member)
+ *          .where(member.name.eq(param("name"))).prepare(DatabaseType.MySQL);
+ *
+ *     select.execute(Member.class, Collections.singletonMap("name", "Jonathan"));
+ * </pre>
+ *
+ * @param <T>
+ * @see Select#prepare(DatabaseType)
+ * @see Expressions#param(String)
+ */
+public final class PreparedSelect<T> {
+
+    private final DatabaseType databaseType;
+    private final String sql;
+    private final Object[] parameters;
+    private final String[] parameterNames;
+
+    PreparedSelect(DatabaseType databaseType, String sql, Object[] parameters) {
+        this.databaseType = databaseType;
+        this.sql = sql;
+        this.parameters = new Object[parameters.length];
+        this.parameterNames = new String[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] instanceof ParameterExpression)
+                parameterNames[i] = ((ParameterExpression) parameters[i]).getName();
+            else
+                this.parameters[i] = parameters[i];
+        }
+    }
+
+    public DatabaseType getDatabaseType() {
+        return databaseType;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the names of parameters in the order of appearance.
+     */
+    public Set<String> getParameterNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (String parameterName : parameterNames) {
+            if (parameterName != null)
+                names.add(parameterName);
+        }
+        return names;
+    }
+
+    /**
+     * Returns the values of placeholders, with the named parameters bound by given values.
+     *
+     * @throws IllegalArgumentException if the value of a named parameter is absent
+     */
+    public Object[] bind(Map<String, ?> values) {
+        Objects.requireNonNull(values, "The values cannot be null");
+
+        Object[] boundParameters = parameters.clone();
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i] == null)
+                continue;
+            if (!values.containsKey(parameterNames[i]))
+                throw new IllegalArgumentException(String.format("The parameter '%s' is not bound", parameterNames[i]));
+            boundParameters[i] = values.get(parameterNames[i]);
+        }
+        return boundParameters;
+    }
+
+    public List<T> execute(Class<T> domainClass, Map<String, ?> values) throws SQLException {
+        return Tables.query(domainClass, sql, bind(values));
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
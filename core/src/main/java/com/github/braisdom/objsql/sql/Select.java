@@ -17,7 +17,6 @@
 package com.github.braisdom.objsql.sql;
 
 import com.github.braisdom.objsql.DatabaseType;
-import com.github.braisdom.objsql.Tables;
 import com.github.braisdom.objsql.sql.expression.JoinExpression;
 import com.github.braisdom.objsql.util.FunctionWithThrowable;
 import com.github.braisdom.objsql.util.SuppressedException;
@@ -144,9 +143,26 @@ public class Select<T> extends AbstractExpression implements Dataset {
         return SQLFormatter.format(sql);
     }
 
+    /**
+     * Executes the query with the literals bound as parameters, so that the SQL
+     * will be the same for different values.
+     */
     public List<T> execute(DatabaseType databaseType, Class<T> domainClass) throws SQLException, SQLSyntaxException {
-        String sql = toSql(new DefaultExpressionContext(databaseType));
-        return Tables.query(domainClass, sql);
+        return prepare(databaseType).execute(domainClass, Collections.emptyMap());
+    }
+
+    /**
+     * Renders the query once for the database, the literals and named parameters are
+     * bound as parameters, so that the template can be executed many times without
+     * rendering. The changes of the query after preparing will not affect the template.
+     *
+     * @see Expressions#param(String)
+     */
+    public PreparedSelect<T> prepare(DatabaseType databaseType) throws SQLSyntaxException {
+        Objects.requireNonNull(databaseType, "The databaseType cannot be null");
+        ExpressionContext expressionContext = new DefaultExpressionContext(databaseType, true);
+        String sql = toSql(expressionContext);
+        return new PreparedSelect<>(databaseType, sql, expressionContext.getParameters());
     }
 
     @Override
@@ -161,11 +177,9 @@ public class Select<T> extends AbstractExpression implements Dataset {
         processGroupBy(expressionContext, sql);
         processOrderBy(expressionContext, sql);
 
-        if (offset > 0)
-            sql.append(" OFFSET ").append(offset);
-
-        if (limit > 0)
-            sql.append(" LIMIT ").append(limit);
+        DatabaseType databaseType = expressionContext.getDatabaseType() == null
+                ? DatabaseType.Unknown : expressionContext.getDatabaseType();
+        sql.append(databaseType.formatPagination(offset, limit));
 
         processUnion(expressionContext, sql);
 
@@ -176,10 +190,11 @@ public class Select<T> extends AbstractExpression implements Dataset {
         if (projections.size() == 0)
             sql.append(" * ");
         else {
+            ExpressionContext inlineContext = inlineLiterals(expressionContext);
             try {
                 String[] projectionStrings = projections.stream()
                         .map(FunctionWithThrowable
-                                .castFunctionWithThrowable(projection -> projection.toSql(expressionContext))).toArray(String[]::new);
+                                .castFunctionWithThrowable(projection -> projection.toSql(inlineContext))).toArray(String[]::new);
                 sql.append(String.join(",", projectionStrings));
             } catch (SuppressedException ex) {
                 if (ex.getCause() instanceof SQLSyntaxException)
@@ -232,11 +247,12 @@ public class Select<T> extends AbstractExpression implements Dataset {
 
     protected void processGroupBy(ExpressionContext expressionContext, StringBuilder sql) throws SQLSyntaxException {
         if (groupByExpressions != null && groupByExpressions.length > 0) {
+            ExpressionContext inlineContext = inlineLiterals(expressionContext);
             try {
                 sql.append(" GROUP BY ");
                 String[] groupByStrings = Arrays.stream(groupByExpressions)
                         .map(FunctionWithThrowable
-                                .castFunctionWithThrowable(groupBy -> groupBy.toSql(expressionContext))).toArray(String[]::new);
+                                .castFunctionWithThrowable(groupBy -> groupBy.toSql(inlineContext))).toArray(String[]::new);
                 sql.append(String.join(", ", groupByStrings));
 
                 if (havingExpression != null) {
@@ -253,11 +269,12 @@ public class Select<T> extends AbstractExpression implements Dataset {
 
     protected void processOrderBy(ExpressionContext expressionContext, StringBuilder sql) throws SQLSyntaxException {
         if (orderByExpressions != null && orderByExpressions.length > 0) {
+            ExpressionContext inlineContext = inlineLiterals(expressionContext);
             try {
                 sql.append(" ORDER BY ");
                 String[] orderByStrings = Arrays.stream(orderByExpressions)
                         .map(FunctionWithThrowable
-                                .castFunctionWithThrowable(orderBy -> orderBy.toSql(expressionContext))).toArray(String[]::new);
+                                .castFunctionWithThrowable(orderBy -> orderBy.toSql(inlineContext))).toArray(String[]::new);
                 sql.append(String.join(", ", orderByStrings));
             } catch (SuppressedException ex) {
                 if (ex.getCause() instanceof SQLSyntaxException)
@@ -267,6 +284,17 @@ public class Select<T> extends AbstractExpression implements Dataset {
         }
     }
 
+    /**
+     * The literals in projections, GROUP BY and ORDER BY are kept inline even if the context
+     * is parameterized, because the databases match the grouped expressions by their text,
+     * which cannot be matched with different placeholders.
+     */
+    protected ExpressionContext inlineLiterals(ExpressionContext expressionContext) {
+        if (expressionContext.isParameterized())
+            return new InlineExpressionContext(expressionContext);
+        return expressionContext;
+    }
+
     protected void processUnion(ExpressionContext expressionContext, StringBuilder sql) throws SQLSyntaxException {
         if (unionDatasets != null) {
             for (Dataset dataset : unionDatasets)
@@ -279,3 +307,37 @@ public class Select<T> extends AbstractExpression implements Dataset {
         }
     }
 }
+
+class InlineExpressionContext implements ExpressionContext {
+
+    private final ExpressionContext expressionContext;
+
+    InlineExpressionContext(ExpressionContext expressionContext) {
+        this.expressionContext = expressionContext;
+    }
+
+    @Override
+    public DatabaseType getDatabaseType() {
+        return expressionContext.getDatabaseType();
+    }
+
+    @Override
+    public String getAlias(Dataset dataset, boolean forceCreate) {
+        return expressionContext.getAlias(dataset, forceCreate);
+    }
+
+    @Override
+    public String quoteTable(String tableName) {
+        return expressionContext.quoteTable(tableName);
+    }
+
+    @Override
+    public String quoteColumn(String columnName) {
+        return expressionContext.quoteColumn(columnName);
+    }
+
+    @Override
+    public String quoteString(String stringValue) {
+        return expressionContext.quoteString(stringValue);
+    }
+}
@@ -34,6 +34,10 @@ public class LiteralExpression extends AbstractExpression {
     public String toSql(ExpressionContext expressionContext) throws SQLSyntaxException {
         if(rawLiteral == null)
             return " NULL ";
+        if(expressionContext.isParameterized()) {
+            expressionContext.addParameter(rawLiteral);
+            return "?";
+        }
         if(String.class.isAssignableFrom(rawLiteral.getClass()))
             return String.format("'%s'", rawLiteral);
         if(Timestamp.class.isAssignableFrom(rawLiteral.getClass())) {
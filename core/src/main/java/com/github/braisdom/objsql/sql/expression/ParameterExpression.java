@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.braisdom.objsql.sql.expression;
+
+import com.github.braisdom.objsql.sql.AbstractExpression;
+import com.github.braisdom.objsql.sql.ExpressionContext;
+
+import java.util.Objects;
+
+/**
+ * A named parameter whose value is bound at executing, it is rendered as "?" in the
+ * parameterized context, or as ":name" for displaying otherwise.
+ *
+ * @see com.github.braisdom.objsql.sql.PreparedSelect
+ */
+public class ParameterExpression extends AbstractExpression {
+
+    private final String name;
+
+    public ParameterExpression(String name) {
+        Objects.requireNonNull(name, "The name cannot be null");
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toSql(ExpressionContext expressionContext) {
+        if (expressionContext.isParameterized()) {
+            expressionContext.addParameter(this);
+            return "?";
+        }
+        return ":" + name;
+    }
+}
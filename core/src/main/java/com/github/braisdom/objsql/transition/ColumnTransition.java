@@ -16,6 +16,7 @@
  */
 package com.github.braisdom.objsql.transition;
 
+import com.github.braisdom.objsql.DatabaseType;
 import com.github.braisdom.objsql.FieldValue;
 import com.github.braisdom.objsql.TableRowAdapter;
 
@@ -25,10 +26,34 @@ import java.sql.SQLException;
 
 /**
  * A transition between database and Java bean.
+ *
+ * <p>The transition which depends on the database and column only can be prepared into
+ * converters once for a column of result set or a database, and the converters will be
+ * applied to the values directly without the metadata, instead of <code>sinking</code>
+ * and <code>rising</code>.</p>
+ *
  * @param <T>
  */
 public interface ColumnTransition<T> {
 
+    /**
+     * The converter from a column value into the field value.
+     */
+    @FunctionalInterface
+    interface RisingConverter {
+
+        Object rise(Object columnValue) throws SQLException;
+    }
+
+    /**
+     * The converter from a field value into the column value.
+     */
+    @FunctionalInterface
+    interface SinkingConverter {
+
+        Object sink(FieldValue fieldValue) throws SQLException;
+    }
+
     /**
      * Transforming the value into database compatible
      *
@@ -50,4 +75,24 @@ public interface ColumnTransition<T> {
                           String fieldName, Object columnValue) throws SQLException {
         return columnValue;
     }
+
+    /**
+     * Returns the converter for the values of given column, which is shared by the result
+     * sets of same shape, so it should not keep the state of a result set or a row.
+     * The <code>rising</code> will be applied to each value if it returns null.
+     *
+     * @param column the index of column, starting from 1
+     */
+    default RisingConverter prepare(DatabaseType databaseType, ResultSetMetaData resultSetMetaData,
+                                    int column) throws SQLException {
+        return null;
+    }
+
+    /**
+     * Returns the converter for the values written into given database, the
+     * <code>sinking</code> will be applied to each value if it returns null.
+     */
+    default SinkingConverter prepareSinking(DatabaseType databaseType) {
+        return null;
+    }
 }
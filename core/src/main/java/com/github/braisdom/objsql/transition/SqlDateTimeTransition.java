@@ -16,6 +16,7 @@
  */
 package com.github.braisdom.objsql.transition;
 
+import com.github.braisdom.objsql.DatabaseType;
 import com.github.braisdom.objsql.FieldValue;
 import com.github.braisdom.objsql.TableRowAdapter;
 
@@ -59,4 +60,25 @@ public class SqlDateTimeTransition<T> implements ColumnTransition<T> {
         }
         return null;
     }
+
+    @Override
+    public RisingConverter prepare(DatabaseType databaseType, ResultSetMetaData resultSetMetaData, int column) {
+        if (databaseType == SQLite)
+            return columnValue -> columnValue == null ? null : Timestamp.valueOf(String.valueOf(columnValue));
+        return columnValue -> columnValue;
+    }
+
+    @Override
+    public SinkingConverter prepareSinking(DatabaseType databaseType) {
+        if (databaseType == PostgreSQL) {
+            return fieldValue -> {
+                if (fieldValue == null || fieldValue.getValue() == null)
+                    return null;
+                if (fieldValue.getValue() instanceof Timestamp)
+                    fieldValue.setValue(fieldValue.getValue().toString());
+                return fieldValue;
+            };
+        }
+        return fieldValue -> fieldValue == null || fieldValue.getValue() == null ? null : fieldValue;
+    }
 }
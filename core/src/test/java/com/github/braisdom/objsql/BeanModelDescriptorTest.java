@@ -0,0 +1,83 @@
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.Column;
+import com.github.braisdom.objsql.annotations.DomainModel;
+import com.github.braisdom.objsql.reflection.ReflectionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+public class BeanModelDescriptorTest {
+
+    @Test
+    public void testColumns() {
+        BeanModelDescriptor<DemoTable> descriptor = new BeanModelDescriptor<>(DemoTable.class);
+
+        Assertions.assertArrayEquals(descriptor.getColumns(), new String[]{"test_field", "cus_field", "id"});
+        Assertions.assertArrayEquals(descriptor.getInsertableColumns(), new String[]{"test_field", "cus_field", "id"});
+        Assertions.assertArrayEquals(descriptor.getUpdatableColumns(), new String[]{"test_field"});
+    }
+
+    @Test
+    public void testOverriddenColumnHooks() {
+        BeanModelDescriptor<DemoTable> descriptor = new BeanModelDescriptor<DemoTable>(DemoTable.class, true) {
+            @Override
+            protected String getColumnName(Field field) {
+                return "c_" + super.getColumnName(field);
+            }
+
+            @Override
+            protected boolean isColumnizable(Field field) {
+                return !field.getName().equals("testField") && super.isColumnizable(field);
+            }
+        };
+
+        Assertions.assertArrayEquals(descriptor.getColumns(), new String[]{"c_cus_field", "c_id"});
+        Assertions.assertArrayEquals(descriptor.getInsertableColumns(), new String[]{"c_cus_field"});
+        Assertions.assertArrayEquals(descriptor.getUpdatableColumns(), new String[0]);
+    }
+
+    @Test
+    public void testPrimitiveFieldValues() {
+        BeanModelDescriptor<PrimitiveTable> descriptor = new BeanModelDescriptor<>(PrimitiveTable.class);
+        PrimitiveTable bean = descriptor.newInstance();
+
+        descriptor.setFieldValue(bean, "count", Integer.valueOf(5));
+        descriptor.setFieldValue(bean, "amount", Integer.valueOf(7));
+        descriptor.setFieldValue(bean, "name", "Smith");
+
+        Assertions.assertEquals(descriptor.getFieldValue(bean, "count").getValue(), 5L);
+        Assertions.assertEquals(descriptor.getFieldValue(bean, "amount").getValue(), 7.0d);
+        Assertions.assertEquals(descriptor.getFieldValue(bean, "name").getValue(), "Smith");
+        Assertions.assertThrows(ReflectionException.class, () -> descriptor.setFieldValue(bean, "count", null));
+        Assertions.assertThrows(ReflectionException.class, () -> descriptor.setFieldValue(bean, "count", "5"));
+    }
+
+    @Test
+    public void testGeneratedAccessor() {
+        DomainModelAccessor<PrimitiveTable> accessor = ModelMetadata.of(PrimitiveTable.class).getAccessor();
+
+        Assertions.assertNotNull(accessor);
+        Assertions.assertEquals(accessor.getClass().getSimpleName(), DomainModelAccessor.CLASS_NAME);
+    }
+
+    @DomainModel
+    private static class DemoTable {
+        private String testField;
+
+        @Column(name = "cus_field", updatable = false)
+        private String cusField;
+    }
+
+    @DomainModel
+    private static class PrimitiveTable {
+        private long count;
+        private double amount;
+        private String name;
+
+        // Not the generated accessor
+        public static class Accessor {
+        }
+    }
+}
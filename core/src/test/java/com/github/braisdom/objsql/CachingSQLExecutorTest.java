@@ -0,0 +1,156 @@
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.DomainModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CachingSQLExecutorTest {
+
+    private static final String QUERY_SQL = "SELECT * FROM `products` WHERE `name` = ?";
+
+    @Test
+    public void testCopiedRows() throws Exception {
+        CountingExecutor delegate = new CountingExecutor();
+        CachingSQLExecutor<Product> executor = new CachingSQLExecutor<>(delegate, 16, 1, TimeUnit.MINUTES);
+        Connection connection = StubConnections.create("MySQL");
+
+        List<Product> firstRows = query(executor, connection);
+        firstRows.get(0).setName("changed");
+        firstRows.get(0).setRawAttribute("rank", 1);
+        List<Product> secondRows = query(executor, connection);
+
+        Assertions.assertEquals(delegate.queryCount, 1);
+        Assertions.assertEquals(executor.getHitCount(), 1L);
+        Assertions.assertNotSame(secondRows.get(0), firstRows.get(0));
+        Assertions.assertEquals(secondRows.get(0).getName(), "product");
+        Assertions.assertNull(secondRows.get(0).getRawAttribute("rank"));
+        Assertions.assertEquals(secondRows.get(0).getId(), Long.valueOf(1L));
+    }
+
+    @Test
+    public void testWrittenTableInvalidation() throws Exception {
+        CountingExecutor delegate = new CountingExecutor();
+        CachingSQLExecutor<Product> executor = new CachingSQLExecutor<>(delegate, 16, 1, TimeUnit.MINUTES);
+        Connection connection = StubConnections.create("MySQL");
+
+        query(executor, connection);
+        executor.execute(connection, "DELETE FROM `orders` WHERE `id` = ?", 1);
+        query(executor, connection);
+        Assertions.assertEquals(delegate.queryCount, 1);
+
+        executor.execute(connection, "UPDATE `products` SET `name` = ?", "other");
+        query(executor, connection);
+        Assertions.assertEquals(delegate.queryCount, 2);
+
+        executor.execute(connection, "insert into shop.\"PRODUCTS\" (\"name\") values (?)", "other");
+        query(executor, connection);
+        Assertions.assertEquals(delegate.queryCount, 3);
+        Assertions.assertEquals(executor.getMissCount(), 3L);
+    }
+
+    @Test
+    public void testTransactionBypass() throws Exception {
+        CountingExecutor delegate = new CountingExecutor();
+        CachingSQLExecutor<Product> executor = new CachingSQLExecutor<>(delegate, 16, 1, TimeUnit.MINUTES);
+        Connection transactional = StubConnections.create("MySQL");
+        Connection other = StubConnections.create("MySQL");
+        transactional.setAutoCommit(false);
+
+        executor.execute(transactional, "UPDATE `products` SET `name` = ?", "other");
+        query(executor, transactional);
+        query(executor, transactional);
+        Assertions.assertEquals(delegate.queryCount, 2);
+        Assertions.assertEquals(executor.size(), 0);
+
+        // The rows cached before the transaction committed
+        query(executor, other);
+        query(executor, other);
+        Assertions.assertEquals(delegate.queryCount, 3);
+
+        executor.releaseConnection(transactional);
+        query(executor, other);
+        query(executor, transactional);
+        Assertions.assertEquals(delegate.queryCount, 4);
+        Assertions.assertEquals(delegate.releasedConnections, 1);
+    }
+
+    @Test
+    public void testUnknownTableInvalidation() throws Exception {
+        CountingExecutor delegate = new CountingExecutor();
+        CachingSQLExecutor<Product> executor = new CachingSQLExecutor<>(delegate, 16, 1, TimeUnit.MINUTES);
+        Connection transactional = StubConnections.create("MySQL");
+        Connection other = StubConnections.create("MySQL");
+        transactional.setAutoCommit(false);
+
+        executor.execute(transactional, "CALL rename_products(?)", "other");
+        query(executor, other);
+        query(executor, other);
+        Assertions.assertEquals(delegate.queryCount, 1);
+
+        executor.releaseConnection(transactional);
+        query(executor, other);
+        Assertions.assertEquals(delegate.queryCount, 2);
+    }
+
+    @Test
+    public void testMultipleTablesNotCached() throws Exception {
+        CountingExecutor delegate = new CountingExecutor();
+        CachingSQLExecutor<Product> executor = new CachingSQLExecutor<>(delegate, 16, 1, TimeUnit.MINUTES);
+        Connection connection = StubConnections.create("MySQL");
+        String[] sqls = new String[]{
+                "SELECT p.* FROM `products` p JOIN `orders` o ON o.product_id = p.id WHERE p.name = ?",
+                "SELECT * FROM products WHERE id IN (SELECT product_id FROM orders) AND name = ?",
+                "SELECT p.* FROM products AS p, orders o WHERE o.product_id = p.id AND p.name = ?",
+                "SELECT * FROM orders WHERE name = ?"};
+
+        for (String sql : sqls) {
+            executor.query(connection, sql, new BeanModelDescriptor<>(Product.class), "product");
+            executor.query(connection, sql, new BeanModelDescriptor<>(Product.class), "product");
+        }
+        Assertions.assertEquals(delegate.queryCount, sqls.length * 2);
+        Assertions.assertEquals(executor.size(), 0);
+
+        executor.query(connection, "SELECT * FROM shop.`products` AS p WHERE p.valid_from < ?",
+                new BeanModelDescriptor<>(Product.class), "product");
+        Assertions.assertEquals(executor.size(), 1);
+    }
+
+    private static List<Product> query(CachingSQLExecutor<Product> executor, Connection connection) throws Exception {
+        return executor.query(connection, QUERY_SQL, new BeanModelDescriptor<>(Product.class), "product");
+    }
+
+    private static class CountingExecutor implements SQLExecutor<Product> {
+
+        private int queryCount;
+        private int releasedConnections;
+
+        @Override
+        public List<Product> query(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                                   Object... params) {
+            queryCount++;
+            List<Product> rows = new ArrayList<>();
+            rows.add(new Product().setId(1L).setName((String) params[0]));
+            return rows;
+        }
+
+        @Override
+        public int execute(Connection connection, String sql, Object... params) {
+            return 1;
+        }
+
+        @Override
+        public void releaseConnection(Connection connection) {
+            releasedConnections++;
+        }
+    }
+
+    @DomainModel(tableName = "products", cacheable = true)
+    private static class Product {
+        private String name;
+    }
+}
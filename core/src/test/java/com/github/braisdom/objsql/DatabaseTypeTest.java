@@ -0,0 +1,41 @@
+package com.github.braisdom.objsql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DatabaseTypeTest {
+
+    @Test
+    public void testFormatPagination() {
+        Assertions.assertEquals(DatabaseType.MySQL.formatPagination(20, 10), " LIMIT 10 OFFSET 20");
+        Assertions.assertEquals(DatabaseType.MySQL.formatPagination(20, -1), " LIMIT 18446744073709551615 OFFSET 20");
+        Assertions.assertEquals(DatabaseType.SQLite.formatPagination(20, -1), " LIMIT -1 OFFSET 20");
+        Assertions.assertEquals(DatabaseType.PostgreSQL.formatPagination(20, -1), " OFFSET 20");
+        Assertions.assertEquals(DatabaseType.PostgreSQL.formatPagination(-1, 10), " LIMIT 10");
+        Assertions.assertEquals(DatabaseType.Oracle.formatPagination(-1, 10), " OFFSET 0 ROWS FETCH NEXT 10 ROWS ONLY");
+        Assertions.assertEquals(DatabaseType.MsSqlServer.formatPagination(20, -1), " OFFSET 20 ROWS");
+        Assertions.assertEquals(DatabaseType.H2Database.formatPagination(-1, -1), "");
+    }
+
+    @Test
+    public void testOf() {
+        Assertions.assertEquals(DatabaseType.of("MySQL"), DatabaseType.MySQL);
+        Assertions.assertEquals(DatabaseType.of("MariaDB"), DatabaseType.MariaDB);
+        Assertions.assertEquals(DatabaseType.of("PostgreSQL"), DatabaseType.PostgreSQL);
+        Assertions.assertEquals(DatabaseType.of("Oracle"), DatabaseType.Oracle);
+        Assertions.assertEquals(DatabaseType.of("Microsoft SQL Server"), DatabaseType.MsSqlServer);
+        Assertions.assertEquals(DatabaseType.of("SQLite"), DatabaseType.SQLite);
+        Assertions.assertEquals(DatabaseType.of("H2"), DatabaseType.H2Database);
+        Assertions.assertEquals(DatabaseType.of("ClickHouse"), DatabaseType.Clickhouse);
+        Assertions.assertEquals(DatabaseType.of("Apache Hive"), DatabaseType.Hive);
+        Assertions.assertEquals(DatabaseType.of("Informix"), DatabaseType.Unknown);
+        Assertions.assertEquals(DatabaseType.of(null), DatabaseType.Unknown);
+    }
+
+    @Test
+    public void testNameEquals() {
+        Assertions.assertTrue(DatabaseType.MsSqlServer.nameEquals("MsSqlServer"));
+        Assertions.assertTrue(DatabaseType.MsSqlServer.nameEquals("Microsoft SQL Server"));
+        Assertions.assertFalse(DatabaseType.MySQL.nameEquals("Microsoft SQL Server"));
+    }
+}
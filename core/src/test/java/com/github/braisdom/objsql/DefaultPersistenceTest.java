@@ -0,0 +1,149 @@
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.DomainModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DefaultPersistenceTest {
+
+    @Test
+    public void testMultiRowInsert() throws Exception {
+        RecordingExecutor executor = new RecordingExecutor();
+        executor.generatedKeys = rowCount -> {
+            Object[] keys = new Object[rowCount];
+            for (int i = 0; i < rowCount; i++)
+                keys[i] = BigInteger.valueOf(executor.sqls.size() * 10 + i);
+            return keys;
+        };
+        Member[] members = newMembers(3);
+
+        int[] results = insert("MySQL", executor, () -> new DefaultPersistence<>(Member.class).insert(members, true));
+
+        Assertions.assertArrayEquals(executor.sqls.toArray(),
+                new Object[]{"INSERT INTO `members` (`name`) VALUES (?),(?),(?)"});
+        Assertions.assertEquals(executor.params.get(0).length, 3);
+        Assertions.assertEquals(Arrays.toString(results), "[1, 1, 1]");
+        Assertions.assertEquals(members[0].getId(), Long.valueOf(10L));
+        Assertions.assertEquals(members[2].getId(), Long.valueOf(12L));
+    }
+
+    @Test
+    public void testChunkedInsert() throws Exception {
+        RecordingExecutor executor = new RecordingExecutor();
+        Member[] members = newMembers(5);
+
+        insert("PostgreSQL", executor, () -> new DefaultPersistence<>(Member.class).insert(members, 2, true));
+
+        Assertions.assertArrayEquals(executor.sqls.toArray(), new Object[]{
+                "INSERT INTO \"members\" (\"name\") VALUES (?),(?)",
+                "INSERT INTO \"members\" (\"name\") VALUES (?),(?)",
+                "INSERT INTO \"members\" (\"name\") VALUES (?)"});
+        Assertions.assertEquals(executor.params.get(2)[0].toString(), "name4");
+    }
+
+    @Test
+    public void testUnmatchedGeneratedKeys() throws Exception {
+        RecordingExecutor executor = new RecordingExecutor();
+        // The driver returns the key of last row only
+        executor.generatedKeys = rowCount -> new Object[]{99L};
+        Member[] members = newMembers(2);
+
+        insert("SQLite", executor, () -> new DefaultPersistence<>(Member.class).insert(members, true));
+
+        Assertions.assertEquals(executor.sqls.size(), 1);
+        Assertions.assertNull(members[0].getId());
+        Assertions.assertNull(members[1].getId());
+    }
+
+    @Test
+    public void testBatchInsert() throws Exception {
+        RecordingExecutor executor = new RecordingExecutor();
+        Member[] members = newMembers(3);
+
+        int[] results = insert("Oracle", executor, () -> new DefaultPersistence<>(Member.class).insert(members, true));
+
+        Assertions.assertArrayEquals(executor.sqls.toArray(),
+                new Object[]{"INSERT INTO \"MEMBERS\" (\"NAME\") VALUES (?)"});
+        Assertions.assertEquals(executor.batchSize, 3);
+        Assertions.assertEquals(results.length, 3);
+    }
+
+    @Test
+    public void testMaxInsertRows() {
+        DefaultPersistence<Member> persistence = new DefaultPersistence<>(Member.class);
+
+        Assertions.assertEquals(persistence.getMaxInsertRows("Microsoft SQL Server", 3), 700);
+        Assertions.assertEquals(persistence.getMaxInsertRows("Microsoft SQL Server", 1), 1000);
+        Assertions.assertEquals(persistence.getMaxInsertRows("H2", 5), 13107);
+        Assertions.assertEquals(persistence.getMaxInsertRows("SQLite", 10), 99);
+        Assertions.assertEquals(persistence.getMaxInsertRows("Oracle", 10), 0);
+    }
+
+    private int[] insert(String databaseProductName, RecordingExecutor executor,
+                         Insertion insertion) throws Exception {
+        Connection connection = StubConnections.create(databaseProductName);
+        Databases.installConnectionFactory(dataSourceName -> connection);
+        Databases.installSqlExecutor(executor);
+        try {
+            return insertion.insert();
+        } finally {
+            Databases.installSqlExecutor(new DefaultSQLExecutor());
+        }
+    }
+
+    private static Member[] newMembers(int count) {
+        Member[] members = new Member[count];
+        for (int i = 0; i < count; i++)
+            members[i] = new Member().setName("name" + i);
+        return members;
+    }
+
+    private interface Insertion {
+        int[] insert() throws Exception;
+    }
+
+    private interface KeyGenerator {
+        Object[] generate(int rowCount);
+    }
+
+    private static class RecordingExecutor implements SQLExecutor {
+
+        private final List<String> sqls = new ArrayList<>();
+        private final List<Object[]> params = new ArrayList<>();
+        private KeyGenerator generatedKeys = rowCount -> new Object[0];
+        private int batchSize;
+
+        @Override
+        public List query(Connection connection, String sql, TableRowAdapter tableRowAdapter, Object... params) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object[] insertRows(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                                   Object... params) {
+            sqls.add(sql);
+            this.params.add(params);
+            return generatedKeys.generate(params.length);
+        }
+
+        @Override
+        public int[] insert(Connection connection, String sql, TableRowAdapter tableRowAdapter, Object[][] params) {
+            sqls.add(sql);
+            batchSize += params.length;
+            int[] results = new int[params.length];
+            Arrays.fill(results, 1);
+            return results;
+        }
+    }
+
+    @DomainModel(tableName = "members", autoGeneratedPrimaryKey = true)
+    private static class Member {
+        private String name;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.braisdom.objsql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+
+public class GeneratedKeysHandlerTest {
+
+    @Test
+    public void testWholeRowReturned() throws Exception {
+        // PostgreSQL returns all columns of the rows inserted
+        ResultSet rs = createResultSet(new String[]{"name", "ID", "version"},
+                new Object[][]{{"a", 11L, 1}, {"b", 12L, 1}});
+
+        Assertions.assertArrayEquals(new GeneratedKeysHandler("id").handle(rs), new Object[]{11L, 12L});
+    }
+
+    @Test
+    public void testSingleColumn() throws Exception {
+        ResultSet rs = createResultSet(new String[]{"GENERATED_KEY"}, new Object[][]{{1L}, {2L}});
+
+        Assertions.assertArrayEquals(new GeneratedKeysHandler("id").handle(rs), new Object[]{1L, 2L});
+    }
+
+    @Test
+    public void testAbsentKeyColumn() throws Exception {
+        ResultSet rs = createResultSet(new String[]{"name", "version"}, new Object[][]{{"a", 1}});
+
+        Assertions.assertEquals(new GeneratedKeysHandler("id").handle(rs).length, 0);
+        Assertions.assertEquals(new GeneratedKeysHandler(null).handle(rs).length, 0);
+    }
+
+    private static ResultSet createResultSet(String[] columnLabels, Object[][] rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                GeneratedKeysHandlerTest.class.getClassLoader(), new Class[]{ResultSetMetaData.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getColumnCount"))
+                        return columnLabels.length;
+                    if (method.getName().equals("getColumnLabel"))
+                        return columnLabels[(Integer) args[0] - 1];
+                    return null;
+                });
+        int[] rowIndex = new int[]{-1};
+        return (ResultSet) Proxy.newProxyInstance(GeneratedKeysHandlerTest.class.getClassLoader(),
+                new Class[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++rowIndex[0] < rows.length;
+                        case "getObject":
+                            return rows[rowIndex[0]][(Integer) args[0] - 1];
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
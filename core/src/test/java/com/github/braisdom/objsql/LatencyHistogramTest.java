@@ -0,0 +1,30 @@
+package com.github.braisdom.objsql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long nanos = 0; nanos < 100_000; nanos++) {
+            int index = LatencyHistogram.indexOf(nanos);
+            Assertions.assertTrue(LatencyHistogram.upperBoundOf(index) >= nanos);
+            Assertions.assertTrue(LatencyHistogram.upperBoundOf(index) <= nanos + nanos / 8);
+            if (index > 0)
+                Assertions.assertTrue(LatencyHistogram.upperBoundOf(index - 1) < nanos);
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1000; nanos++)
+            latencyHistogram.record(nanos * 1000);
+
+        Assertions.assertEquals(latencyHistogram.getCount(), 1000);
+        Assertions.assertTrue(Math.abs(latencyHistogram.getPercentile(50) - 500_000) <= 500_000 / 8);
+        Assertions.assertTrue(Math.abs(latencyHistogram.getPercentile(99) - 990_000) <= 990_000 / 8);
+        Assertions.assertEquals(latencyHistogram.getPercentile(0), latencyHistogram.getPercentile(0.001));
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.Column;
+import com.github.braisdom.objsql.annotations.DomainModel;
+import com.github.braisdom.objsql.annotations.Transient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ModelMetadataTest {
+
+    @Test
+    public void testCached() {
+        Assertions.assertSame(ModelMetadata.of(DemoTable.class), ModelMetadata.of(DemoTable.class));
+    }
+
+    @Test
+    public void testColumns() {
+        ModelMetadata<DemoTable> modelMetadata = ModelMetadata.of(DemoTable.class);
+
+        Assertions.assertEquals(modelMetadata.getTableName(), "demo_tables");
+        Assertions.assertEquals(modelMetadata.getPrimaryField().getName(), "id");
+        Assertions.assertArrayEquals(modelMetadata.getColumns(),
+                new String[]{"test_field", "cus_field", "readonly_field", "id"});
+        Assertions.assertArrayEquals(modelMetadata.getInsertableColumns(false),
+                new String[]{"test_field", "cus_field", "id"});
+        Assertions.assertArrayEquals(modelMetadata.getInsertableColumns(true),
+                new String[]{"test_field", "cus_field"});
+        Assertions.assertArrayEquals(modelMetadata.getUpdatableColumns(),
+                new String[]{"test_field", "cus_field"});
+    }
+
+    @Test
+    public void testFieldAttributes() {
+        ModelMetadata<DemoTable> modelMetadata = ModelMetadata.of(DemoTable.class);
+
+        Assertions.assertEquals(modelMetadata.getFieldByColumn("CUS_FIELD").getName(), "cusField");
+        Assertions.assertEquals(modelMetadata.getColumnName("testField"), "test_field");
+        Assertions.assertTrue(modelMetadata.hasDefaultValue("cusField"));
+        Assertions.assertEquals(modelMetadata.getDefaultValue("cusField").get(), "NOW()");
+        Assertions.assertFalse(modelMetadata.hasDefaultValue("testField"));
+        Assertions.assertNotNull(modelMetadata.newInstance());
+    }
+
+    @DomainModel
+    private static class DemoTable {
+        private String testField;
+
+        @Column(name = "cus_field", defaultValue = "NOW()")
+        private String cusField;
+
+        @Column(insertable = false, updatable = false)
+        private String readonlyField;
+
+        @Transient
+        private String transientField;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.DomainModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PrimaryKeyCacheTest {
+
+    @Test
+    public void testChangeReturnedObject() throws Exception {
+        KeyedExecutor executor = new KeyedExecutor();
+
+        withExecutor(executor, () -> {
+            Account first = Tables.queryByPrimaryKey(Account.class, 1L);
+            first.setName("changed");
+            first.setRawAttribute("rank", 1);
+
+            Account second = Tables.queryByPrimaryKey(Account.class, 1);
+            Assertions.assertNotSame(second, first);
+            Assertions.assertEquals(second.getName(), "account1");
+            Assertions.assertNull(second.getRawAttribute("rank"));
+
+            second.setName("changed again");
+            List<Account> accounts = Tables.queryByPrimaryKeys(Account.class, 1L, 2L);
+            Assertions.assertEquals(accounts.size(), 2);
+            Assertions.assertEquals(accounts.get(0).getName(), "account1");
+            Assertions.assertNotSame(accounts.get(0), second);
+        });
+
+        Assertions.assertEquals(executor.queryCount, 2);
+    }
+
+    @Test
+    public void testDisabledCache() {
+        Assertions.assertNull(PrimaryKeyCache.of(Uncached.class));
+        Assertions.assertNotNull(PrimaryKeyCache.of(Account.class));
+    }
+
+    private static void withExecutor(SQLExecutor executor, Invocation invocation) throws Exception {
+        Connection connection = StubConnections.create("MySQL");
+        Databases.installConnectionFactory(dataSourceName -> connection);
+        Databases.installSqlExecutor(executor);
+        try {
+            invocation.invoke();
+        } finally {
+            Databases.installSqlExecutor(new DefaultSQLExecutor());
+        }
+    }
+
+    private interface Invocation {
+        void invoke() throws Exception;
+    }
+
+    private static class KeyedExecutor implements SQLExecutor<Account> {
+
+        private int queryCount;
+
+        @Override
+        public List<Account> query(Connection connection, String sql, TableRowAdapter tableRowAdapter,
+                                   Object... params) {
+            queryCount++;
+            List<Account> rows = new ArrayList<>();
+            for (Object param : params) {
+                long id = ((Number) param).longValue();
+                rows.add(new Account().setId(id).setName("account" + id));
+            }
+            return rows;
+        }
+    }
+
+    @DomainModel(tableName = "accounts", primaryKeyCacheSize = 16)
+    private static class Account {
+        private String name;
+    }
+
+    @DomainModel(tableName = "uncached")
+    private static class Uncached {
+        private String name;
+    }
+}
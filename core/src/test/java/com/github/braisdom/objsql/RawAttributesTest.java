@@ -0,0 +1,94 @@
+package com.github.braisdom.objsql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class RawAttributesTest {
+
+    @Test
+    public void testDuplicatedNames() {
+        RawAttributes attributes = new RawAttributes(new RawAttributes.Layout(new String[]{"total", "name", "total"}),
+                new Object[]{1, "a", 2});
+
+        Assertions.assertEquals(attributes.get("total"), 1);
+        Assertions.assertEquals(attributes.size(), 2);
+        Assertions.assertEquals(new HashMap<>(attributes).get("total"), 1);
+
+        attributes.put("total", 3);
+        Assertions.assertEquals(attributes.get("total"), 3);
+        Assertions.assertEquals(attributes.remove("total"), 3);
+        Assertions.assertFalse(attributes.containsKey("total"));
+        Assertions.assertEquals(attributes.size(), 1);
+    }
+
+    @Test
+    public void testEntrySet() {
+        RawAttributes attributes = new RawAttributes(new RawAttributes.Layout(new String[]{"total", "name"}),
+                new Object[]{null, "a"});
+        attributes.put("rank", 1);
+
+        Assertions.assertEquals(attributes.entrySet().size(), 3);
+        Assertions.assertTrue(attributes.containsKey("total"));
+        Assertions.assertNull(attributes.get("total"));
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("total", null);
+        expected.put("name", "a");
+        expected.put("rank", 1);
+        Assertions.assertEquals(new HashMap<>(attributes), expected);
+        Assertions.assertEquals(attributes, expected);
+        Assertions.assertEquals(attributes.hashCode(), expected.hashCode());
+
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            if (entry.getKey().equals("name"))
+                entry.setValue("b");
+        }
+        Assertions.assertEquals(attributes.get("name"), "b");
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        RawAttributes attributes = new RawAttributes(new RawAttributes.Layout(new String[]{"total", "name"}),
+                new Object[]{1, "a"});
+        attributes.put("rank", 1);
+        attributes.put("level", 2);
+
+        Iterator<Map.Entry<String, Object>> iterator = attributes.entrySet().iterator();
+        Assertions.assertThrows(IllegalStateException.class, iterator::remove);
+        while (iterator.hasNext()) {
+            String name = iterator.next().getKey();
+            if (name.equals("name") || name.equals("rank"))
+                iterator.remove();
+        }
+
+        Assertions.assertEquals(attributes.size(), 2);
+        Assertions.assertFalse(attributes.containsKey("name"));
+        Assertions.assertFalse(attributes.containsKey("rank"));
+        Assertions.assertEquals(attributes.get("total"), 1);
+        Assertions.assertEquals(attributes.get("level"), 2);
+    }
+
+    @Test
+    public void testExtraAttributes() {
+        RawAttributes attributes = new RawAttributes(new RawAttributes.Layout(new String[]{"total"}),
+                new Object[]{1});
+
+        Assertions.assertNull(attributes.put("rank", 1));
+        Assertions.assertEquals(attributes.put("rank", 2), 1);
+        Assertions.assertEquals(attributes.get("rank"), 2);
+        Assertions.assertNull(attributes.remove("level"));
+        Assertions.assertEquals(attributes.remove("rank"), 2);
+        Assertions.assertEquals(attributes.size(), 1);
+
+        RawAttributes copy = attributes.copy();
+        copy.put("total", 2);
+        copy.put("rank", 3);
+        Assertions.assertEquals(attributes.get("total"), 1);
+        Assertions.assertFalse(attributes.containsKey("rank"));
+        Assertions.assertEquals(copy.size(), 2);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.braisdom.objsql;
+
+import com.github.braisdom.objsql.annotations.DomainModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+
+public class RowMappingPlanTest {
+
+    @Test
+    public void testDuplicatedLabels() throws Exception {
+        // SELECT members.*, orders.* FROM members JOIN orders ...
+        ResultSetMetaData metaData = createMetaData("id", "name", "ID", "name", "amount", "amount");
+        BeanModelDescriptor<Member> descriptor = new BeanModelDescriptor<>(Member.class);
+        RowMappingPlan plan = RowMappingPlan.compile(descriptor, DatabaseType.MySQL, metaData);
+
+        Member member = (Member) plan.mapRow(new Object[]{1L, "member", 2L, "order", 10, 20},
+                descriptor, null, metaData);
+
+        Assertions.assertEquals(member.getId(), Long.valueOf(1L));
+        Assertions.assertEquals(member.getName(), "member");
+        Assertions.assertEquals(member.getRawAttribute("amount"), 10);
+        Assertions.assertEquals(member.getRawAttributes().size(), 1);
+    }
+
+    private static ResultSetMetaData createMetaData(String... columnLabels) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(RowMappingPlanTest.class.getClassLoader(),
+                new Class[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return columnLabels.length;
+                        case "getColumnLabel":
+                        case "getColumnName":
+                            return columnLabels[(Integer) args[0] - 1];
+                        case "getColumnType":
+                            return Types.OTHER;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @DomainModel(tableName = "members")
+    public static class Member {
+        private String name;
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.braisdom.objsql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SQLFingerprintTest {
+
+    @Test
+    public void testLiterals() {
+        Assertions.assertEquals(SQLFingerprint.of("SELECT * FROM members WHERE name = 'O''Brien' AND age > 18.5"),
+                "SELECT * FROM members WHERE name = ? AND age > ?");
+        Assertions.assertEquals(SQLFingerprint.of("SELECT t1.id FROM \"table2\" t1 WHERE t1.score > -1e-3"),
+                "SELECT t1.id FROM \"table2\" t1 WHERE t1.score > -?");
+        Assertions.assertEquals(SQLFingerprint.of("SELECT `a 1`  FROM   t -- comment\n WHERE /* x */ id = ?"),
+                "SELECT `a 1` FROM t WHERE id = ?");
+    }
+
+    @Test
+    public void testLists() {
+        Assertions.assertEquals(SQLFingerprint.of("SELECT * FROM orders WHERE member_id IN (1, 2,3)"),
+                "SELECT * FROM orders WHERE member_id IN (?, ...)");
+        Assertions.assertEquals(SQLFingerprint.of("SELECT * FROM orders WHERE member_id IN (?,?,?,?)"),
+                SQLFingerprint.of("SELECT * FROM orders WHERE member_id IN (?)"));
+        Assertions.assertEquals(SQLFingerprint.of("INSERT INTO members (id, name) VALUES (?, ?), (?, ?),(?,?)"),
+                "INSERT INTO members (id, name) VALUES (?, ...), ...");
+    }
+}
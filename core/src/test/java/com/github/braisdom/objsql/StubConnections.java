@@ -0,0 +1,56 @@
+package com.github.braisdom.objsql;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Creates the connections which report the database product name and keep the auto-commit
+ * flag only, the statements are executed by a stub <code>SQLExecutor</code> in tests.
+ */
+public final class StubConnections {
+
+    private StubConnections() {
+    }
+
+    public static Connection create(String databaseProductName) {
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(StubConnections.class.getClassLoader(),
+                new Class[]{DatabaseMetaData.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getDatabaseProductName"))
+                        return databaseProductName;
+                    return defaultValue(method.getReturnType());
+                });
+        boolean[] autoCommit = new boolean[]{true};
+
+        return (Connection) Proxy.newProxyInstance(StubConnections.class.getClassLoader(),
+                new Class[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "getAutoCommit":
+                            return autoCommit[0];
+                        case "setAutoCommit":
+                            autoCommit[0] = (Boolean) args[0];
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "StubConnection(" + databaseProductName + ")";
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class)
+            return false;
+        else if (type == int.class)
+            return 0;
+        else if (type == long.class)
+            return 0L;
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.braisdom.objsql.reflection;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.beans.PropertyDescriptor;
+
+public class PropertyUtilsTest {
+
+    @Test
+    public void testReadWrite() {
+        PublicBean bean = new PublicBean();
+        PropertyUtils.write(bean, "name", "Smith");
+        PropertyUtils.write(bean, "count", 5L);
+        PropertyUtils.write(bean, "size", 3);
+
+        Assertions.assertEquals(PropertyUtils.read(bean, "name"), "Smith");
+        Assertions.assertEquals((Object) PropertyUtils.read(bean, "count"), 5L);
+        Assertions.assertEquals((Object) PropertyUtils.read(bean, "size"), 3);
+    }
+
+    @Test
+    public void testWidening() {
+        PublicBean bean = new PublicBean();
+        PropertyUtils.write(bean, "count", Integer.valueOf(5));
+        PropertyUtils.write(bean, "amount", Integer.valueOf(7));
+        PropertyUtils.write(bean, "ratio", Long.valueOf(2));
+        PropertyUtils.write(bean, "size", Short.valueOf((short) 4));
+
+        Assertions.assertEquals(bean.getCount(), 5L);
+        Assertions.assertEquals(bean.getAmount(), 7.0d);
+        Assertions.assertEquals(bean.getRatio(), 2.0f);
+        Assertions.assertEquals(bean.getSize(), 4);
+    }
+
+    @Test
+    public void testRejectedPrimitiveValues() {
+        PublicBean bean = new PublicBean();
+
+        Assertions.assertThrows(ReflectionException.class, () -> PropertyUtils.write(bean, "count", null));
+        Assertions.assertThrows(ReflectionException.class, () -> PropertyUtils.write(bean, "size", 5L));
+        Assertions.assertThrows(ReflectionException.class, () -> PropertyUtils.write(bean, "size", "5"));
+    }
+
+    @Test
+    public void testPrimitiveAccessor() {
+        PublicBean bean = new PublicBean();
+        PropertyAccessor countAccessor = PropertyUtils.getPropertyAccessor(PublicBean.class, "count");
+        PropertyAccessor amountAccessor = PropertyUtils.getPropertyAccessor(PublicBean.class, "amount");
+        PropertyAccessor sizeAccessor = PropertyUtils.getPropertyAccessor(PublicBean.class, "size");
+
+        countAccessor.setLong(bean, 11L);
+        amountAccessor.setDouble(bean, 1.5d);
+        sizeAccessor.setInt(bean, 9);
+
+        Assertions.assertEquals(countAccessor.getLong(bean), 11L);
+        Assertions.assertEquals(amountAccessor.getDouble(bean), 1.5d);
+        Assertions.assertEquals(sizeAccessor.getInt(bean), 9);
+        Assertions.assertEquals(countAccessor.getPropertyType(), long.class);
+    }
+
+    @Test
+    public void testForce() {
+        HiddenBean bean = new HiddenBean();
+        PropertyDescriptor descriptor = PropertyUtils.getPropertyDescriptorByName(HiddenBean.class, "name");
+
+        Assertions.assertThrows(ReflectionException.class, () -> PropertyUtils.write(bean, descriptor, "a"));
+        Assertions.assertThrows(ReflectionException.class, () -> PropertyUtils.read(bean, descriptor));
+
+        PropertyUtils.write(bean, descriptor, "a", true);
+        Assertions.assertEquals(PropertyUtils.read(bean, descriptor, true), "a");
+
+        PropertyUtils.write(bean, "name", "b");
+        Assertions.assertEquals(PropertyUtils.read(bean, "name"), "b");
+        Assertions.assertTrue(PropertyUtils.getPropertyAccessor(PublicBean.class, "name").isAccessible());
+        Assertions.assertFalse(PropertyUtils.getPropertyAccessor(HiddenBean.class, "name").isAccessible());
+    }
+
+    public static class PublicBean {
+        private String name;
+        private long count;
+        private double amount;
+        private float ratio;
+        private int size;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public void setAmount(double amount) {
+            this.amount = amount;
+        }
+
+        public float getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(float ratio) {
+            this.ratio = ratio;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+    }
+
+    private static class HiddenBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
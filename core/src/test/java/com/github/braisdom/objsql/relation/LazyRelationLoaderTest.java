@@ -0,0 +1,143 @@
+package com.github.braisdom.objsql.relation;
+
+import com.github.braisdom.objsql.*;
+import com.github.braisdom.objsql.annotations.DomainModel;
+import com.github.braisdom.objsql.annotations.Relation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LazyRelationLoaderTest {
+
+    @Test
+    public void testGeneratedGetter() throws Exception {
+        Assertions.assertNotNull(Owner.class.getDeclaredField(LazyRelationLoader.LOADER_FIELD_NAME));
+        Assertions.assertNotNull(Pet.class.getDeclaredField(LazyRelationLoader.LOADER_FIELD_NAME));
+        Assertions.assertThrows(NoSuchFieldException.class,
+                () -> Toy.class.getDeclaredField(LazyRelationLoader.LOADER_FIELD_NAME));
+
+        // The getter returns the field if no loader attached
+        Owner owner = new Owner().setId(1L);
+        Assertions.assertNull(owner.getPets());
+
+        List<Pet> pets = new ArrayList<>();
+        owner.setPets(pets);
+        Assertions.assertSame(owner.getPets(), pets);
+    }
+
+    @Test
+    public void testBatchedLoad() throws Exception {
+        RelationExecutor executor = new RelationExecutor();
+        executor.pets.add(new Pet().setId(10L).setOwnerId(1L).setName("x"));
+        executor.pets.add(new Pet().setId(11L).setOwnerId(1L).setName("y"));
+        executor.pets.add(new Pet().setId(12L).setOwnerId(2L).setName("z"));
+        List<Owner> owners = Arrays.asList(new Owner().setId(1L), new Owner().setId(2L), new Owner().setId(3L));
+
+        withExecutor(executor, () -> {
+            LazyRelationLoader.attach(Owner.class, owners);
+
+            Assertions.assertEquals(owners.get(1).getPets().size(), 1);
+            Assertions.assertEquals(owners.get(0).getPets().size(), 2);
+            owners.get(2).getPets();
+            owners.get(2).getPets();
+        });
+
+        Assertions.assertEquals(executor.sqls.size(), 1);
+        Assertions.assertTrue(executor.sqls.get(0).contains("IN (?,?,?,?)"), executor.sqls.get(0));
+        Assertions.assertArrayEquals(executor.params.get(0), new Object[]{1L, 2L, 3L, 3L});
+        Assertions.assertEquals(owners.get(0).getPets().get(1).getName(), "y");
+    }
+
+    @Test
+    public void testRowsReleasedAfterLoad() throws Exception {
+        RelationExecutor executor = new RelationExecutor();
+        List<Owner> owners = Arrays.asList(new Owner().setId(1L), new Owner().setId(2L));
+
+        withExecutor(executor, () -> {
+            LazyRelationLoader.attach(Owner.class, owners);
+            LazyRelationLoader loader = getLoader(owners.get(0));
+            Assertions.assertNotNull(getRows(loader));
+
+            owners.get(0).getPets();
+            Assertions.assertNull(getRows(loader));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> loader.load(owners.get(0), "name"));
+        });
+    }
+
+    private static LazyRelationLoader getLoader(Object bean) throws Exception {
+        Field loaderField = bean.getClass().getDeclaredField(LazyRelationLoader.LOADER_FIELD_NAME);
+        loaderField.setAccessible(true);
+        return (LazyRelationLoader) loaderField.get(bean);
+    }
+
+    private static Object getRows(LazyRelationLoader loader) throws Exception {
+        Field rowsField = LazyRelationLoader.class.getDeclaredField("rows");
+        rowsField.setAccessible(true);
+        return rowsField.get(loader);
+    }
+
+    private static void withExecutor(SQLExecutor executor, Invocation invocation) throws Exception {
+        Connection connection = StubConnections.create("MySQL");
+        Databases.installConnectionFactory(dataSourceName -> connection);
+        Databases.installSqlExecutor(executor);
+        try {
+            invocation.invoke();
+        } finally {
+            Databases.installSqlExecutor(new DefaultSQLExecutor());
+        }
+    }
+
+    private interface Invocation {
+        void invoke() throws Exception;
+    }
+
+    private static class RelationExecutor implements SQLExecutor {
+
+        private final List<Pet> pets = new ArrayList<>();
+        private final List<String> sqls = new ArrayList<>();
+        private final List<Object[]> params = new ArrayList<>();
+
+        @Override
+        public List query(Connection connection, String sql, TableRowAdapter tableRowAdapter, Object... params) {
+            sqls.add(sql);
+            this.params.add(params);
+            List<Pet> rows = new ArrayList<>();
+            for (Pet pet : pets) {
+                if (Arrays.asList(params).contains(pet.getOwnerId()))
+                    rows.add(pet);
+            }
+            return rows;
+        }
+    }
+
+    @DomainModel(tableName = "owners")
+    private static class Owner {
+        private String name;
+
+        @Relation(relationType = RelationType.HAS_MANY, fetch = FetchType.LAZY)
+        private List<Pet> pets;
+    }
+
+    @DomainModel(tableName = "pets")
+    private static class Pet {
+        private Long ownerId;
+        private String name;
+
+        @Relation(relationType = RelationType.HAS_MANY,
+                fetch = com.github.braisdom.objsql.relation.FetchType.LAZY)
+        private List<Toy> toys;
+    }
+
+    @DomainModel(tableName = "toys")
+    private static class Toy {
+        private Long petId;
+
+        @Relation(relationType = RelationType.BELONGS_TO, fetch = FetchType.EXPLICIT)
+        private Pet pet;
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.braisdom.objsql.relation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RelationIndexTest {
+
+    @Test
+    public void testCollidedKeys() {
+        // The keys fall into the same slot of a table with 16 slots
+        long[] keys = new long[3];
+        for (long key = 0, count = 0; count < keys.length; key++) {
+            if ((key * 0x9E3779B97F4A7C15L) >>> 60 == 5)
+                keys[(int) count++] = key;
+        }
+        List<LongKeyed> objects = Arrays.asList(new LongKeyed(keys[0]), new LongKeyed(keys[1]),
+                new LongKeyed(keys[2]), new LongKeyed(keys[1]));
+
+        RelationIndex index = RelationIndex.create(objects, "key");
+
+        Assertions.assertEquals(index.get(keys[0]), Arrays.asList(objects.get(0)));
+        Assertions.assertEquals(index.get(keys[1]), Arrays.asList(objects.get(1), objects.get(3)));
+        Assertions.assertEquals(index.get((Object) keys[2]), Arrays.asList(objects.get(2)));
+        Assertions.assertNull(index.get(keys[2] + 1));
+    }
+
+    @Test
+    public void testManyKeys() {
+        List<LongKeyed> objects = new ArrayList<>();
+        for (int i = 0; i < 3000; i++)
+            objects.add(new LongKeyed(i % 1000 * 7919L));
+
+        RelationIndex index = RelationIndex.create(objects, "key");
+
+        for (int i = 0; i < 1000; i++)
+            Assertions.assertEquals(index.get(i * 7919L).size(), 3);
+        Assertions.assertNull(index.get(7918L));
+    }
+
+    @Test
+    public void testIntegerAndLongKeys() {
+        List<BoxedKeyed> objects = Arrays.asList(new BoxedKeyed(1), new BoxedKeyed(2L), new BoxedKeyed((short) 1));
+
+        RelationIndex index = RelationIndex.create(objects, "key");
+
+        Assertions.assertEquals(index.get(Long.valueOf(1L)), Arrays.asList(objects.get(0), objects.get(2)));
+        Assertions.assertEquals(index.get(Integer.valueOf(2)), Arrays.asList(objects.get(1)));
+        Assertions.assertEquals(index.get(1L).size(), 2);
+
+        RelationIndex.Keys keys = RelationIndex.readKeys(Arrays.asList(new IntKeyed(2), new IntKeyed(3)), "key");
+        Assertions.assertArrayEquals(keys.distinct(), new Object[]{2L, 3L});
+        Assertions.assertEquals(keys.find(index, 0), Arrays.asList(objects.get(1)));
+        Assertions.assertNull(keys.find(index, 1));
+    }
+
+    @Test
+    public void testNullKeys() {
+        List<BoxedKeyed> objects = Arrays.asList(new BoxedKeyed(null), new BoxedKeyed(1L), new BoxedKeyed(null));
+
+        RelationIndex index = RelationIndex.create(objects, "key");
+        RelationIndex.Keys keys = RelationIndex.readKeys(objects, "key");
+
+        Assertions.assertNull(index.get(null));
+        Assertions.assertNull(index.get(0L));
+        Assertions.assertEquals(index.get(1L), Arrays.asList(objects.get(1)));
+        Assertions.assertNull(keys.find(index, 0));
+        Assertions.assertArrayEquals(keys.distinct(), new Object[]{null, 1L});
+    }
+
+    @Test
+    public void testNonIntegralKeys() {
+        List<BoxedKeyed> objects = Arrays.asList(new BoxedKeyed(1L), new BoxedKeyed("a"),
+                new BoxedKeyed("a"), new BoxedKeyed(null));
+
+        RelationIndex index = RelationIndex.create(objects, "key");
+
+        Assertions.assertEquals(index.get("a"), Arrays.asList(objects.get(1), objects.get(2)));
+        Assertions.assertEquals(index.get(Long.valueOf(1L)), Arrays.asList(objects.get(0)));
+        Assertions.assertEquals(index.get(1L), Arrays.asList(objects.get(0)));
+        Assertions.assertNull(index.get("b"));
+        Assertions.assertNull(index.get(null));
+    }
+
+    @Test
+    public void testPresizedLists() throws Exception {
+        List<LongKeyed> objects = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            objects.add(new LongKeyed(i % 3));
+        List<BoxedKeyed> boxedObjects = Arrays.asList(new BoxedKeyed("a"), new BoxedKeyed("b"), new BoxedKeyed("a"));
+
+        RelationIndex index = RelationIndex.create(objects, "key");
+        RelationIndex genericIndex = RelationIndex.create(boxedObjects, "key");
+
+        Assertions.assertEquals(capacity(index.get(0L)), 17);
+        Assertions.assertEquals(capacity(index.get(2L)), 16);
+        Assertions.assertEquals(capacity(genericIndex.get("a")), 2);
+        Assertions.assertEquals(capacity(genericIndex.get("b")), 1);
+    }
+
+    private static int capacity(List list) throws Exception {
+        Field elementData = ArrayList.class.getDeclaredField("elementData");
+        elementData.setAccessible(true);
+        return ((Object[]) elementData.get(list)).length;
+    }
+
+    public static class LongKeyed {
+        private long key;
+
+        public LongKeyed(long key) {
+            this.key = key;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public void setKey(long key) {
+            this.key = key;
+        }
+    }
+
+    public static class IntKeyed {
+        private int key;
+
+        public IntKeyed(int key) {
+            this.key = key;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public void setKey(int key) {
+            this.key = key;
+        }
+    }
+
+    public static class BoxedKeyed {
+        private Object key;
+
+        public BoxedKeyed(Object key) {
+            this.key = key;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public void setKey(Object key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.braisdom.objsql.relation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class RelationshipNetworkTest {
+
+    @Test
+    public void testSplitValuesPadded() {
+        List<Object[]> chunks = RelationshipNetwork.splitValues(new Object[]{1, 2, 3, 4, 5}, 16);
+
+        Assertions.assertEquals(chunks.size(), 1);
+        Assertions.assertArrayEquals(chunks.get(0), new Object[]{1, 2, 3, 4, 5, 5, 5, 5});
+    }
+
+    @Test
+    public void testSplitValuesExactPowerOfTwo() {
+        List<Object[]> chunks = RelationshipNetwork.splitValues(new Object[]{1, 2, 3, 4}, 16);
+        Assertions.assertArrayEquals(chunks.get(0), new Object[]{1, 2, 3, 4});
+
+        chunks = RelationshipNetwork.splitValues(new Object[]{1}, 16);
+        Assertions.assertArrayEquals(chunks.get(0), new Object[]{1});
+    }
+
+    @Test
+    public void testSplitValuesChunked() {
+        List<Object[]> chunks = RelationshipNetwork.splitValues(new Object[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, 4);
+
+        Assertions.assertEquals(chunks.size(), 3);
+        Assertions.assertArrayEquals(chunks.get(0), new Object[]{1, 2, 3, 4});
+        Assertions.assertArrayEquals(chunks.get(1), new Object[]{5, 6, 7, 8});
+        Assertions.assertArrayEquals(chunks.get(2), new Object[]{9, 10, 11, 11});
+    }
+
+    @Test
+    public void testSplitValuesCappedByMaxSize() {
+        List<Object[]> chunks = RelationshipNetwork.splitValues(new Object[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, 6);
+
+        Assertions.assertArrayEquals(chunks.get(0), new Object[]{1, 2, 3, 4, 5, 6});
+        Assertions.assertArrayEquals(chunks.get(1), new Object[]{7, 8, 9, 9});
+    }
+
+    @Test
+    public void testSplitValuesDropNulls() {
+        List<Object[]> chunks = RelationshipNetwork.splitValues(new Object[]{null, 1, null, 2, 3}, 16);
+        Assertions.assertArrayEquals(chunks.get(0), new Object[]{1, 2, 3, 3});
+
+        Assertions.assertTrue(RelationshipNetwork.splitValues(new Object[]{null, null}, 16).isEmpty());
+        Assertions.assertTrue(RelationshipNetwork.splitValues(new Object[0], 16).isEmpty());
+    }
+
+    @Test
+    public void testMaxInListSize() {
+        RelationshipNetwork relationshipNetwork = new RelationshipNetwork(null, null);
+
+        Assertions.assertEquals(relationshipNetwork.getMaxInListSize("Microsoft SQL Server"), 1024);
+        Assertions.assertEquals(relationshipNetwork.getMaxInListSize("PostgreSQL"), 4096);
+        Assertions.assertEquals(relationshipNetwork.getMaxInListSize("Oracle"), 512);
+        Assertions.assertEquals(relationshipNetwork.getMaxInListSize("H2"), 512);
+    }
+}
@@ -1,4 +1,33 @@
 package com.github.braisdom.objsql.sql;
 
+import com.github.braisdom.objsql.DatabaseType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.github.braisdom.objsql.sql.Expressions.$;
+
 public class DefaultExpressionContextTest {
+
+    @Test
+    public void testInlineLiterals() throws SQLSyntaxException {
+        DefaultExpressionContext context = new DefaultExpressionContext(DatabaseType.MySQL);
+
+        Assertions.assertEquals($("abc").toSql(context), "'abc'");
+        Assertions.assertEquals($(10).toSql(context), "10");
+        Assertions.assertArrayEquals(context.getParameters(), new Object[0]);
+    }
+
+    @Test
+    public void testParameterizedLiterals() throws SQLSyntaxException {
+        DefaultExpressionContext context = new DefaultExpressionContext(DatabaseType.MySQL, true);
+        Select select = new Select();
+        select.project($(1))
+                .where($("abc").eq($(10L)))
+                .groupBy($(2))
+                .having($(3).plus($(4.5D)));
+
+        Assertions.assertEquals(select.toSql(context).trim().replaceAll("\\s+", " "),
+                "SELECT 1 WHERE (? = ?) GROUP BY 2 HAVING ((? + ?))");
+        Assertions.assertArrayEquals(context.getParameters(), new Object[]{"abc", 10L, 3, 4.5D});
+    }
 }
@@ -0,0 +1,46 @@
+package com.github.braisdom.objsql.sql;
+
+import com.github.braisdom.objsql.DatabaseType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.braisdom.objsql.sql.Expressions.$;
+import static com.github.braisdom.objsql.sql.Expressions.param;
+
+public class PreparedSelectTest {
+
+    @Test
+    public void testBind() throws SQLSyntaxException {
+        Select select = new Select();
+        select.project($(1))
+                .where($("abc").eq(param("name")).and(param("age").eq($(10L))))
+                .limit(5);
+        PreparedSelect prepared = select.prepare(DatabaseType.MySQL);
+
+        Assertions.assertEquals(prepared.getSql().trim().replaceAll("\\s+", " "),
+                "SELECT 1 WHERE ((? = ?) AND (? = ?)) LIMIT 5");
+        Assertions.assertEquals(prepared.getParameterNames().toString(), "[name, age]");
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Jonathan");
+        values.put("age", 20);
+        Assertions.assertArrayEquals(prepared.bind(values), new Object[]{"abc", "Jonathan", 20, 10L});
+
+        values.put("name", "Smith");
+        Assertions.assertArrayEquals(prepared.bind(values), new Object[]{"abc", "Smith", 20, 10L});
+        Assertions.assertThrows(IllegalArgumentException.class, () -> prepared.bind(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testDisplay() throws SQLSyntaxException {
+        Select select = new Select();
+        select.project($(1)).where($("abc").eq(param("name")));
+
+        Assertions.assertEquals(select.toSql(new DefaultExpressionContext(DatabaseType.MySQL))
+                .trim().replaceAll("\\s+", " "), "SELECT 1 WHERE ('abc' = :name)");
+    }
+}